@@ -1,5 +1,14 @@
 package com.myBank.accounts;
 
+import com.myBank.accounts.config.AccountCacheProperties;
+import com.myBank.accounts.config.BulkOnboardingProperties;
+import com.myBank.accounts.config.CustomerDetailsProperties;
+import com.myBank.accounts.config.ExportProperties;
+import com.myBank.accounts.config.FeignTransportProperties;
+import com.myBank.accounts.config.IdempotencyProperties;
+import com.myBank.accounts.config.NearCacheProperties;
+import com.myBank.accounts.config.NumberAllocatorProperties;
+import com.myBank.accounts.config.SnapshotProperties;
 import com.myBank.accounts.dto.AccountContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -9,13 +18,18 @@ import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableFeignClients
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {AccountContactInfoDto.class})
+@RemoteApplicationEventScan(basePackages = "com.myBank.accounts.event")
+@EnableConfigurationProperties(value = {AccountContactInfoDto.class, CustomerDetailsProperties.class,
+		NearCacheProperties.class, SnapshotProperties.class, NumberAllocatorProperties.class,
+		BulkOnboardingProperties.class, IdempotencyProperties.class, FeignTransportProperties.class,
+		AccountCacheProperties.class, ExportProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Accounts Microservice REST API Documentation",
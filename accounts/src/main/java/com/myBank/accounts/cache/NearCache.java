@@ -0,0 +1,63 @@
+package com.myBank.accounts.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based in-memory cache keyed by mobile number, either of downstream responses or, read-through, of
+ * local lookups. Hit, miss, eviction and size metrics are published to the {@link MeterRegistry} as
+ * {@code cache.*} meters tagged with the cache name, and read-through loads are timed as {@code cache.load.latency}.
+ * Only live responses are put here, never fallback snapshots.
+ */
+public class NearCache<V> {
+
+    private final Cache<String, V> cache;
+    private final Timer loadTimer;
+
+    public NearCache(String name, long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        this.loadTimer = Timer.builder("cache.load.latency")
+                .description("Time taken to load a missing entry of a read-through cache")
+                .tag("cache", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value, or loads and caches it. Concurrent misses for the same mobile number share one load,
+     * and an {@link #evict(String)} racing with a load waits for it, so a value read before a change is never kept
+     * after its eviction. Exceptions thrown by the loader are propagated and nothing is cached.
+     */
+    public V get(String mobileNumber, Function<String, V> loader) {
+        return cache.get(mobileNumber, key -> loadTimer.record(() -> loader.apply(key)));
+    }
+
+    public V getIfPresent(String mobileNumber) {
+        return cache.getIfPresent(mobileNumber);
+    }
+
+    public Map<String, V> getAllPresent(Collection<String> mobileNumbers) {
+        return cache.getAllPresent(mobileNumbers);
+    }
+
+    public void put(String mobileNumber, V value) {
+        cache.put(mobileNumber, value);
+    }
+
+    public void evict(String mobileNumber) {
+        cache.invalidate(mobileNumber);
+    }
+}
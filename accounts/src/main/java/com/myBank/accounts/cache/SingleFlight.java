@@ -0,0 +1,94 @@
+package com.myBank.accounts.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers asking for the same key share one in-flight computation. The first caller (the
+ * leader) runs the loader on its own thread; callers arriving while it runs wait for its result, and see
+ * the same value or the same exception. Nothing is kept once the computation completes, so a later call
+ * always loads afresh.
+ * <p>
+ * Each waiter applies its own {@code maxWait} and gives up with a {@link TimeoutException} without
+ * affecting the leader or the other waiters. Published meters: {@code singleflight.calls} tagged
+ * {@code result=leader|coalesced|timeout} and the {@code singleflight.inflight} gauge, all tagged with
+ * the flight name.
+ */
+public class SingleFlight<V> {
+
+    private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+    private final Counter timeoutCounter;
+
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxWait = maxWait;
+        this.leaderCounter = callCounter(meterRegistry, name, "leader");
+        this.coalescedCounter = callCounter(meterRegistry, name, "coalesced");
+        this.timeoutCounter = callCounter(meterRegistry, name, "timeout");
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentMap::size)
+                .tag("name", name)
+                .description("Keys with a computation currently in flight")
+                .register(meterRegistry);
+    }
+
+    public V execute(String key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+        leaderCounter.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            timeoutCounter.increment();
+            throw new CompletionException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(ex.getCause());
+        }
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .description("Calls served by running the loader (leader) or by joining an in-flight one")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.myBank.accounts.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Last successfully fetched value for a mobile number and the time it was fetched.
+ */
+@Getter
+@AllArgsConstructor
+public class Snapshot<V> {
+
+    private V value;
+
+    private Instant capturedAt;
+}
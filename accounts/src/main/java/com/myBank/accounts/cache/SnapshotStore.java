@@ -0,0 +1,65 @@
+package com.myBank.accounts.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Bounded store of the last successful downstream response per mobile number, used by the Feign fallbacks
+ * to keep serving data while a downstream is unavailable. Entries are weighed by their serialized size, so that
+ * customers with large cards or loans details cannot make the store outgrow {@code maximumBytes}, and are
+ * evicted by weight and, as a last resort, after {@code maxAge} so that very old data is never served.
+ */
+public class SnapshotStore<V> {
+
+    /**
+     * Rough per-entry cost of the key, the capture time and the object headers, so that small values still count.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<String, Snapshot<V>> snapshots;
+    private final ObjectMapper objectMapper;
+
+    public SnapshotStore(String name, long maximumBytes, Duration maxAge, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String mobileNumber, Snapshot<V> snapshot) -> weigh(snapshot.getValue()))
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, name);
+    }
+
+    public void record(String mobileNumber, V value) {
+        snapshots.put(mobileNumber, new Snapshot<>(value, Instant.now()));
+    }
+
+    public Optional<Snapshot<V>> find(String mobileNumber) {
+        return Optional.ofNullable(snapshots.getIfPresent(mobileNumber));
+    }
+
+    public void evict(String mobileNumber) {
+        snapshots.invalidate(mobileNumber);
+    }
+
+    /**
+     * A value that cannot be serialized is weighed as the overhead alone; it came from a downstream as JSON, so
+     * this does not happen in practice.
+     */
+    private int weigh(V value) {
+        try {
+            return objectMapper.writeValueAsBytes(value).length + ENTRY_OVERHEAD;
+        } catch (JsonProcessingException ex) {
+            return ENTRY_OVERHEAD;
+        }
+    }
+}
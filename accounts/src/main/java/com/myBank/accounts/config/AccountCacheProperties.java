@@ -0,0 +1,23 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "account-cache")
+@Getter
+@Setter
+public class AccountCacheProperties {
+
+    /**
+     * Maximum number of mobile numbers whose customer and account details are kept per instance.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long an entry is served before it is read again, bounding staleness if an invalidation event is lost.
+     */
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
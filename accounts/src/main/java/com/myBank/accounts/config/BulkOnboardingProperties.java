@@ -0,0 +1,17 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bulk-onboarding")
+@Getter
+@Setter
+public class BulkOnboardingProperties {
+
+    /**
+     * Rows checked for existing customers and inserted per transaction. Each chunk costs one existence query
+     * and JDBC batches of {@code spring.jpa.properties.hibernate.jdbc.batch_size} inserts.
+     */
+    private int chunkSize = 500;
+}
@@ -0,0 +1,43 @@
+package com.myBank.accounts.config;
+
+import com.myBank.accounts.cache.SingleFlight;
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class CustomerDetailsConfig {
+
+    /**
+     * Bounded pool used by {@link com.myBank.accounts.service.impl.CustomerServiceImpl} to run the
+     * local DB lookup and the downstream Feign calls at the same time. When the queue is full the
+     * task is rejected rather than run on the request thread, where no deadline could cut it short;
+     * the service answers a rejected call like a late one.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor customerDetailsExecutor(CustomerDetailsProperties customerDetailsProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(customerDetailsProperties.getPoolSize());
+        executor.setMaxPoolSize(customerDetailsProperties.getPoolSize());
+        executor.setQueueCapacity(customerDetailsProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("customer-details-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Shares one in-flight customer-details lookup between concurrent requests for the same mobile number.
+     * Waiters give up after the same deadline the lookup itself is bound by.
+     */
+    @Bean
+    public SingleFlight<CustomerDetailsDto> customerDetailsSingleFlight(CustomerDetailsProperties customerDetailsProperties,
+                                                                        MeterRegistry meterRegistry) {
+        return new SingleFlight<>("customer-details", customerDetailsProperties.getTimeout(), meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "customer-details")
+@Getter
+@Setter
+public class CustomerDetailsProperties {
+
+    /**
+     * Number of threads used to fan out the account lookup and the cards/loans calls.
+     */
+    private int poolSize = 32;
+
+    /**
+     * Tasks queued once all threads are busy; beyond this a task is rejected and answered like a late one.
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * Deadline applied to each of the account lookup, cards call and loans call. The request stops waiting for a
+     * late call, but the call itself is not interrupted and holds its pool thread until it ends, at most
+     * {@code spring.cloud.openfeign.httpclient.ok-http.read-timeout} per read.
+     */
+    private Duration timeout = Duration.ofSeconds(3);
+
+    /**
+     * Largest number of mobile numbers accepted by a single batch request.
+     */
+    private int maxBatchSize = 1000;
+
+    /**
+     * Mobile numbers resolved per round trip to the database, cards and loans while streaming a batch.
+     */
+    private int batchChunkSize = 100;
+}
@@ -0,0 +1,28 @@
+package com.myBank.accounts.config;
+
+import com.myBank.accounts.service.client.AbsentAwareDecoder;
+import feign.codec.Decoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces the decoder Spring Cloud OpenFeign builds for every client with the same chain wrapped in an
+ * {@link AbsentAwareDecoder}, so an absent card or loan is an empty response rather than an error.
+ */
+@Configuration
+public class FeignDecoderConfig {
+
+    @Bean
+    public Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new AbsentAwareDecoder(new OptionalDecoder(
+                new ResponseEntityDecoder(new SpringDecoder(messageConverters, customizers))));
+    }
+}
@@ -0,0 +1,55 @@
+package com.myBank.accounts.config;
+
+import com.myBank.accounts.service.client.transport.ConnectionAcquireEventListener;
+import com.myBank.accounts.service.client.transport.GzipRequestInterceptor;
+import com.myBank.accounts.service.client.transport.PerHostLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Replaces the OkHttp client Spring Cloud OpenFeign builds when {@code spring.cloud.openfeign.okhttp.enabled} is set,
+ * keeping its pool, protocol and timeout settings and adding the per-host limit, request gzip and pool metrics.
+ * Switching the property off falls back to Feign's default client.
+ */
+@Configuration
+@ConditionalOnProperty("spring.cloud.openfeign.okhttp.enabled")
+public class FeignTransportConfig {
+
+    @Bean
+    public ConnectionPool httpClientConnectionPool(FeignHttpClientProperties httpClientProperties,
+                                                   MeterRegistry meterRegistry) {
+        ConnectionPool connectionPool = new ConnectionPool(httpClientProperties.getMaxConnections(),
+                httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit());
+        new OkHttpConnectionPoolMetrics(connectionPool, "feign.transport.pool", Tags.empty(),
+                httpClientProperties.getMaxConnections()).bindTo(meterRegistry);
+        return connectionPool;
+    }
+
+    @Bean
+    public OkHttpClient okHttpClient(ConnectionPool httpClientConnectionPool,
+                                     FeignHttpClientProperties httpClientProperties,
+                                     FeignTransportProperties feignTransportProperties,
+                                     MeterRegistry meterRegistry) {
+        return new OkHttpClient.Builder()
+                .connectionPool(httpClientConnectionPool)
+                .connectTimeout(Duration.ofMillis(httpClientProperties.getConnectionTimeout()))
+                .readTimeout(httpClientProperties.getOkHttp().getReadTimeout())
+                .followRedirects(httpClientProperties.isFollowRedirects())
+                .protocols(httpClientProperties.getOkHttp().getProtocols().stream().map(Protocol::valueOf).toList())
+                .addInterceptor(new PerHostLimitInterceptor(feignTransportProperties.getMaxRequestsPerHost(),
+                        feignTransportProperties.getAcquireTimeout(), meterRegistry))
+                .addInterceptor(new GzipRequestInterceptor(feignTransportProperties.getCompressionMinSize().toBytes()))
+                .eventListenerFactory(ConnectionAcquireEventListener.factory(meterRegistry))
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the OkHttp transport of the cards and loans Feign clients that are not covered by
+ * {@code spring.cloud.openfeign.httpclient.*} (pool size, keep-alive, protocols, timeouts).
+ */
+@ConfigurationProperties(prefix = "feign-transport")
+@Getter
+@Setter
+public class FeignTransportProperties {
+
+    /**
+     * Requests allowed in flight to a single downstream instance.
+     */
+    private int maxRequestsPerHost = 64;
+
+    /**
+     * How long a request waits for a slot under {@code max-requests-per-host} before it fails.
+     */
+    private Duration acquireTimeout = Duration.ofMillis(500);
+
+    /**
+     * Request bodies at least this large are sent gzipped.
+     */
+    private DataSize compressionMinSize = DataSize.ofKilobytes(2);
+}
@@ -0,0 +1,29 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    /**
+     * POST paths that honour the {@code Idempotency-Key} header.
+     */
+    private List<String> paths = List.of("/api/create");
+
+    /**
+     * Maximum number of keys remembered; the least recently used are dropped first.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long the outcome of a request is replayed for its key.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+}
@@ -0,0 +1,43 @@
+package com.myBank.accounts.config;
+
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.LoansDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NearCacheConfig {
+
+    @Bean
+    public NearCache<CardsDto> cardsNearCache(NearCacheProperties nearCacheProperties, MeterRegistry meterRegistry) {
+        return new NearCache<>("cards", nearCacheProperties.getMaximumSize(), nearCacheProperties.getTimeToLive(),
+                meterRegistry);
+    }
+
+    @Bean
+    public NearCache<LoansDto> loansNearCache(NearCacheProperties nearCacheProperties, MeterRegistry meterRegistry) {
+        return new NearCache<>("loans", nearCacheProperties.getMaximumSize(), nearCacheProperties.getTimeToLive(),
+                meterRegistry);
+    }
+
+    @Bean
+    public NearCache<Boolean> cardsAbsentCache(NearCacheProperties nearCacheProperties, MeterRegistry meterRegistry) {
+        return new NearCache<>("cards-absent", nearCacheProperties.getMaximumSize(),
+                nearCacheProperties.getAbsentTimeToLive(), meterRegistry);
+    }
+
+    @Bean
+    public NearCache<Boolean> loansAbsentCache(NearCacheProperties nearCacheProperties, MeterRegistry meterRegistry) {
+        return new NearCache<>("loans-absent", nearCacheProperties.getMaximumSize(),
+                nearCacheProperties.getAbsentTimeToLive(), meterRegistry);
+    }
+
+    @Bean
+    public NearCache<CustomerDto> accountsNearCache(AccountCacheProperties accountCacheProperties, MeterRegistry meterRegistry) {
+        return new NearCache<>("accounts", accountCacheProperties.getMaximumSize(), accountCacheProperties.getTimeToLive(),
+                meterRegistry);
+    }
+}
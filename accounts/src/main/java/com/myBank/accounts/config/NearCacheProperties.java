@@ -0,0 +1,29 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "near-cache")
+@Getter
+@Setter
+public class NearCacheProperties {
+
+    /**
+     * Maximum number of mobile numbers kept per cache (cards, loans).
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long an entry is served before it is fetched again, even without an invalidation event.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * How long a mobile number known to have no card or loan is answered as such without calling cards or loans.
+     * Kept short since creating a card or loan also evicts it on every instance.
+     */
+    private Duration absentTimeToLive = Duration.ofMinutes(1);
+}
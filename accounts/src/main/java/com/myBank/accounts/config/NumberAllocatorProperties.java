@@ -0,0 +1,17 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "number-allocator")
+@Getter
+@Setter
+public class NumberAllocatorProperties {
+
+    /**
+     * Numbers leased from the database at a time. Larger blocks mean fewer round trips but more numbers
+     * skipped when an instance stops.
+     */
+    private int blockSize = 100;
+}
@@ -0,0 +1,27 @@
+package com.myBank.accounts.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.cache.SnapshotStore;
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.LoansDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SnapshotConfig {
+
+    @Bean
+    public SnapshotStore<CardsDto> cardsSnapshotStore(SnapshotProperties snapshotProperties, ObjectMapper objectMapper,
+                                                      MeterRegistry meterRegistry) {
+        return new SnapshotStore<>("cards.snapshot", snapshotProperties.getMaximumSize().toBytes(),
+                snapshotProperties.getMaxAge(), objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public SnapshotStore<LoansDto> loansSnapshotStore(SnapshotProperties snapshotProperties, ObjectMapper objectMapper,
+                                                      MeterRegistry meterRegistry) {
+        return new SnapshotStore<>("loans.snapshot", snapshotProperties.getMaximumSize().toBytes(),
+                snapshotProperties.getMaxAge(), objectMapper, meterRegistry);
+    }
+}
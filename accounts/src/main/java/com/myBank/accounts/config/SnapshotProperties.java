@@ -0,0 +1,24 @@
+package com.myBank.accounts.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "snapshot")
+@Getter
+@Setter
+public class SnapshotProperties {
+
+    /**
+     * Total serialized size of the last known good cards or loans details kept, per store.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Snapshots older than this are dropped and no longer served by the fallbacks.
+     */
+    private Duration maxAge = Duration.ofHours(24);
+}
@@ -15,6 +15,12 @@ public class AccountsConstants {
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+    public static final String  DATA_SOURCE_HEADER = "mybank-data-source";
+    public static final String  DATA_CAPTURED_AT_HEADER = "mybank-data-captured-at";
+    public static final String  DATA_SOURCE_SNAPSHOT = "SNAPSHOT";
+    public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // set by cards and loans on a 404 that means the mobile number has no card or loan
+    public static final String  RESOURCE_ABSENT_HEADER = "mybank-resource-absent";
     // public static final String  STATUS_500 = "500";
     // public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
 }
@@ -1,9 +1,15 @@
 package com.myBank.accounts.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.myBank.accounts.constants.AccountsConstants;
 import com.myBank.accounts.dto.AccountContactInfoDto;
+import com.myBank.accounts.dto.BulkCreateResultDto;
 import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.CustomerPageDto;
 import com.myBank.accounts.dto.ErrorResponseDto;
 import com.myBank.accounts.dto.ResponseDto;
 import com.myBank.accounts.service.IAccountsService;
@@ -16,18 +22,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.concurrent.TimeoutException;
 
 @Tag(name = "CRUD REST APIs for Accounts in MyBank", description = "CRUD REST APIs in MyBank to create, fetch, update and delete accounts details")
@@ -40,9 +54,12 @@ public class AccountsController {
 
     private final IAccountsService accountsService;
 
+    private final ObjectMapper objectMapper;
 
-    public AccountsController(IAccountsService accountsService) {
+
+    public AccountsController(IAccountsService accountsService, ObjectMapper objectMapper) {
         this.accountsService = accountsService;
+        this.objectMapper = objectMapper;
     }
 
     @Value("${build.version}")
@@ -64,6 +81,26 @@ public class AccountsController {
         return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseDto(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
     }
 
+    @Operation(summary = "Create Accounts in Bulk REST API", description = "REST API to create Customers & Accounts in bulk from a newline-delimited JSON or CSV (name,email,mobileNumber) body. The outcome of every row is streamed back as newline-delimited JSON, in request order")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Https Status OK"), @ApiResponse(responseCode = "500", description = "Https Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @PostMapping(value = "/createBulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createAccounts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        StreamingResponseBody responseBody = outputStream ->
+                accountsService.createAccounts(body, mediaType, results -> {
+                    try {
+                        for (BulkCreateResultDto result : results) {
+                            outputStream.write(objectMapper.writeValueAsBytes(result));
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
     @Operation(summary = "Fetch Account REST API", description = "REST API to fetch account details based on mobile number")
     @ApiResponse(responseCode = "200", description = "Https Status OK")
     @GetMapping("/fetch")
@@ -73,6 +110,34 @@ public class AccountsController {
         return ResponseEntity.status(HttpStatus.OK).body(customerDto);
     }
 
+    @Operation(summary = "List Accounts REST API", description = "REST API to page through all customers with their accounts in customer id order. Pass the nextCursor of a page to get the next one; every page costs the same however deep it is")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Https Status OK"), @ApiResponse(responseCode = "500", description = "Https Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping("/list")
+    public ResponseEntity<CustomerPageDto> listAccounts(@RequestParam(defaultValue = "0") @PositiveOrZero(message = "Cursor should be zero or greater") long cursor,
+                                                        @RequestParam(defaultValue = "100") @Min(value = 1, message = "Size should be at least 1") @Max(value = 1000, message = "Size should be at most 1000") int size) {
+        return ResponseEntity.status(HttpStatus.OK).body(accountsService.listAccounts(cursor, size));
+    }
+
+    @Operation(summary = "Export Accounts REST API", description = "REST API to stream all customers with their accounts as newline-delimited JSON in customer id order, read through a single database cursor")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Https Status OK"), @ApiResponse(responseCode = "500", description = "Https Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        ObjectWriter writer = objectMapper.writerFor(CustomerDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody responseBody = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                accountsService.exportAccounts(customerDto -> {
+                    try {
+                        writer.writeValue(generator, customerDto);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
     @Operation(summary = "Update Account REST API", description = "REST API to update account details based on mobile number")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "Https Status OK"), @ApiResponse(responseCode = "500", description = "Https Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))), @ApiResponse(responseCode = "417", description = "Https Status EXPECTATION_FAILED", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))})
     @PutMapping("/update")
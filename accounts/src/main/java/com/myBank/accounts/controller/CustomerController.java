@@ -1,7 +1,11 @@
 package com.myBank.accounts.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.config.CustomerDetailsProperties;
 import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.dto.CustomerDetailsSectionDto;
 import com.myBank.accounts.dto.ErrorResponseDto;
+import com.myBank.accounts.exception.BatchSizeExceededException;
 import com.myBank.accounts.service.ICustomersService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,6 +13,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +22,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Tag(
         name = "REST APIs for Customer in MyBank",
@@ -31,8 +43,16 @@ public class CustomerController {
 
     private final ICustomersService iCustomerService;
 
-    public CustomerController(ICustomersService iCustomerService) {
+    private final CustomerDetailsProperties customerDetailsProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public CustomerController(ICustomersService iCustomerService,
+                              CustomerDetailsProperties customerDetailsProperties,
+                              ObjectMapper objectMapper) {
         this.iCustomerService = iCustomerService;
+        this.customerDetailsProperties = customerDetailsProperties;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
@@ -64,4 +84,119 @@ public class CustomerController {
 
         return ResponseEntity.status(HttpStatus.OK).body(customerDetailsDto);
     }
+
+    @Operation(
+            summary = "Fetch Customer Details Batch REST API",
+            description = "REST API to fetch customer details for a list of mobile numbers. Results are streamed " +
+                    "back as newline-delimited JSON, one customer per line, as each chunk is resolved. Mobile " +
+                    "numbers without a customer are left out."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status BAD_REQUEST",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status INTERNAL_SERVER_ERROR",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/fetchCustomerDetailsBatch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> fetchCustomerDetailsBatch(
+                                                                   @RequestHeader("mybank-correlation-id")
+                                                                       String correlationId,
+                                                                   @RequestBody
+                                                                   @NotEmpty(message = "Mobile numbers cannot be empty")
+                                                                   List<@Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number should be 10 digits")
+                                                                           String> mobileNumbers) {
+        logger.debug("myBank-correlation-id found {}", correlationId);
+        if (mobileNumbers.size() > customerDetailsProperties.getMaxBatchSize()) {
+            throw new BatchSizeExceededException(mobileNumbers.size(), customerDetailsProperties.getMaxBatchSize());
+        }
+
+        StreamingResponseBody responseBody = outputStream ->
+                iCustomerService.fetchCustomerDetailsBatch(mobileNumbers, correlationId, customerDetailsDtos -> {
+                    try {
+                        for (CustomerDetailsDto customerDetailsDto : customerDetailsDtos) {
+                            outputStream.write(objectMapper.writeValueAsBytes(customerDetailsDto));
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    @Operation(
+            summary = "Stream Customer Details REST API",
+            description = "REST API to fetch customer details based on mobile number, streamed section by section. " +
+                    "The account section is sent as soon as it is loaded, then the loans and cards sections as each " +
+                    "one arrives. Sent as newline-delimited JSON, or as server-sent events named after the section " +
+                    "when text/event-stream is accepted."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status INTERNAL_SERVER_ERROR",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/streamCustomerDetails", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCustomerDetails(
+                                                                   @RequestHeader("mybank-correlation-id")
+                                                                       String correlationId,
+                                                                   @RequestParam
+                                                                   @Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number should be 10 digits")
+                                                                   String mobileNumber) {
+        logger.debug("myBank-correlation-id found {}", correlationId);
+        StreamingResponseBody responseBody = outputStream ->
+                iCustomerService.streamCustomerDetails(mobileNumber, correlationId, section ->
+                        writeSection(outputStream, "", section, "\n"));
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    @Operation(hidden = true)
+    @GetMapping(value = "/streamCustomerDetails", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCustomerDetailsEvents(
+                                                                   @RequestHeader("mybank-correlation-id")
+                                                                       String correlationId,
+                                                                   @RequestParam
+                                                                   @Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number should be 10 digits")
+                                                                   String mobileNumber) {
+        logger.debug("myBank-correlation-id found {}", correlationId);
+        StreamingResponseBody responseBody = outputStream ->
+                iCustomerService.streamCustomerDetails(mobileNumber, correlationId, section ->
+                        writeSection(outputStream, "event: " + section.getSection() + "\ndata: ", section, "\n\n"));
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.TEXT_EVENT_STREAM).body(responseBody);
+    }
+
+    private void writeSection(OutputStream outputStream, String prefix, CustomerDetailsSectionDto section,
+                              String suffix) {
+        try {
+            outputStream.write(prefix.getBytes(StandardCharsets.UTF_8));
+            outputStream.write(objectMapper.writeValueAsBytes(section));
+            outputStream.write(suffix.getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.myBank.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data @AllArgsConstructor
+@Schema(
+        name = "BulkCreateResult",
+        description = "Outcome of one row of a bulk account creation request"
+)
+public class BulkCreateResultDto {
+
+    public static final String CREATED = "CREATED";
+    public static final String ALREADY_EXISTS = "ALREADY_EXISTS";
+    public static final String DUPLICATE_ROW = "DUPLICATE_ROW";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+
+    @Schema(
+            description = "1-based position of the row in the request body, header line excluded", example = "1"
+    )
+    private long row;
+
+    @Schema(
+            description = "Mobile number of the row, when it could be read", example = "1234567890"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String mobileNumber;
+
+    @Schema(
+            description = "Outcome of the row", example = CREATED,
+            allowableValues = {CREATED, ALREADY_EXISTS, DUPLICATE_ROW, INVALID, FAILED}
+    )
+    private String status;
+
+    @Schema(
+            description = "Number of the account created for the row", example = "10900000001"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long accountNumber;
+
+    @Schema(
+            description = "Why the row was not created"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+}
@@ -1,5 +1,6 @@
 package com.myBank.accounts.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
@@ -57,6 +58,18 @@ public class CustomerDetailsDto {
     )
     private CardsDto cardsDto;
 
+    @Schema(
+            name = "loansFreshness",
+            description = "Present only when the loan details are a last known good snapshot instead of live data"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DataFreshnessDto loansFreshness;
 
+    @Schema(
+            name = "cardsFreshness",
+            description = "Present only when the card details are a last known good snapshot instead of live data"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DataFreshnessDto cardsFreshness;
 
 }
@@ -0,0 +1,36 @@
+package com.myBank.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data @AllArgsConstructor
+@Schema(
+        name = "CustomerDetailsSection",
+        description = "One part of the streamed customer details: the customer with its account, the loans or the cards"
+)
+public class CustomerDetailsSectionDto {
+
+    public static final String ACCOUNT = "account";
+    public static final String LOANS = "loans";
+    public static final String CARDS = "cards";
+
+    @Schema(
+            description = "Which part of the customer details this is", example = ACCOUNT,
+            allowableValues = {ACCOUNT, LOANS, CARDS}
+    )
+    private String section;
+
+    @Schema(
+            description = "CustomerDto for the account section, LoansDto or CardsDto otherwise; null when the " +
+                    "customer has no loans or cards or they could not be fetched"
+    )
+    private Object data;
+
+    @Schema(
+            description = "Present only when the data is a last known good snapshot instead of live data"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DataFreshnessDto freshness;
+}
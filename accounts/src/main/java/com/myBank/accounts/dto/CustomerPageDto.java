@@ -0,0 +1,26 @@
+package com.myBank.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data @AllArgsConstructor @NoArgsConstructor
+@Schema(
+        name = "CustomerPage",
+        description = "Schema to hold one page of customers with their accounts, in customer id order"
+)
+public class CustomerPageDto {
+
+    @Schema(
+            description = "Customers of this page; accountsDto is null for a customer without an account"
+    )
+    private List<CustomerDto> customers;
+
+    @Schema(
+            description = "Cursor to pass to get the next page; null on the last page", example = "1200"
+    )
+    private Long nextCursor;
+}
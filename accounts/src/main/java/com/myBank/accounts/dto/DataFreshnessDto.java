@@ -0,0 +1,30 @@
+package com.myBank.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data @AllArgsConstructor
+@Schema(
+        name = "DataFreshness",
+        description = "Schema to tell degraded data apart from live data"
+)
+public class DataFreshnessDto {
+
+    @Schema(
+            description = "Where the data was served from", example = "SNAPSHOT"
+    )
+    private String source;
+
+    @Schema(
+            description = "Time at which the data was last fetched successfully from the owning service"
+    )
+    private LocalDateTime capturedAt;
+
+    @Schema(
+            description = "Age of the data in seconds", example = "42"
+    )
+    private long ageSeconds;
+}
@@ -10,7 +10,9 @@ public class Customer extends BaseEntity {
 
     @Id
     @Column(name = "customer_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "customer_id")
+    @TableGenerator(name = "customer_id", table = "number_segment", pkColumnName = "name",
+            valueColumnName = "next_value", pkColumnValue = "customer_id", allocationSize = 100)
     private Long customerId;
 
     @Column(name = "name")
@@ -0,0 +1,24 @@
+package com.myBank.accounts.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Next unleased value of a number sequence. Instances lease blocks of numbers by moving {@code nextValue}
+ * forward under a row lock, see {@link com.myBank.accounts.sequence.NumberAllocator}.
+ */
+@Entity
+@Table(name = "number_segment")
+@Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+public class NumberSegment {
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "next_value")
+    private Long nextValue;
+}
@@ -0,0 +1,24 @@
+package com.myBank.accounts.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Broadcast over Spring Cloud Bus whenever the customer or account of a mobile number is updated or deleted, so
+ * that each accounts instance and the gateway drop their cached copy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class AccountChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+
+    public AccountChangedEvent(Object source, String originService, Destination destination, String mobileNumber) {
+        super(source, originService, destination);
+        this.mobileNumber = mobileNumber;
+    }
+}
@@ -0,0 +1,32 @@
+package com.myBank.accounts.event;
+
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AccountsEventPublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final BusProperties busProperties;
+    private final Destination destination;
+
+    public AccountsEventPublisher(ApplicationEventPublisher applicationEventPublisher, BusProperties busProperties,
+                                  Destination.Factory destinationFactory) {
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.busProperties = busProperties;
+        this.destination = destinationFactory.getDestination(null);
+    }
+
+    /**
+     * Evicts the local cache entry right away, and every other accounts instance's and the gateway's once the bus
+     * delivers the event.
+     *
+     * @param mobileNumber - Mobile Number whose customer or account details changed
+     */
+    public void publishAccountChanged(String mobileNumber) {
+        applicationEventPublisher.publishEvent(new AccountChangedEvent(this, busProperties.getId(), destination,
+                mobileNumber));
+    }
+}
@@ -0,0 +1,18 @@
+package com.myBank.accounts.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Received over Spring Cloud Bus from the cards microservice whenever the card of a mobile number is
+ * updated or deleted. The class name must match the one published by cards.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CardChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+}
@@ -0,0 +1,18 @@
+package com.myBank.accounts.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Received over Spring Cloud Bus from the loans microservice whenever the loan of a mobile number is
+ * updated or deleted. The class name must match the one published by loans.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class LoanChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+}
@@ -0,0 +1,49 @@
+package com.myBank.accounts.event;
+
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.cache.SnapshotStore;
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.LoansDto;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class NearCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheInvalidationListener.class);
+
+    private NearCache<CardsDto> cardsNearCache;
+    private NearCache<LoansDto> loansNearCache;
+    private SnapshotStore<CardsDto> cardsSnapshotStore;
+    private SnapshotStore<LoansDto> loansSnapshotStore;
+    private NearCache<CustomerDto> accountsNearCache;
+    private NearCache<Boolean> cardsAbsentCache;
+    private NearCache<Boolean> loansAbsentCache;
+
+    @EventListener
+    public void onCardChanged(CardChangedEvent event) {
+        logger.debug("Evicting cached and snapshot card details for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        cardsNearCache.evict(event.getMobileNumber());
+        cardsSnapshotStore.evict(event.getMobileNumber());
+        cardsAbsentCache.evict(event.getMobileNumber());
+    }
+
+    @EventListener
+    public void onLoanChanged(LoanChangedEvent event) {
+        logger.debug("Evicting cached and snapshot loan details for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        loansNearCache.evict(event.getMobileNumber());
+        loansSnapshotStore.evict(event.getMobileNumber());
+        loansAbsentCache.evict(event.getMobileNumber());
+    }
+
+    @EventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        logger.debug("Evicting cached account details for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        accountsNearCache.evict(event.getMobileNumber());
+    }
+}
@@ -0,0 +1,15 @@
+package com.myBank.accounts.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class LookupTimeoutException extends RuntimeException {
+
+    public LookupTimeoutException(String resourceName, String fieldName, String fieldValue, Duration timeout) {
+        super(String.format("%s lookup with the given input data %s: %s did not complete within %d ms",
+                resourceName, fieldName, fieldValue, timeout.toMillis()));
+    }
+}
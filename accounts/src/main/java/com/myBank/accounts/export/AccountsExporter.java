@@ -0,0 +1,53 @@
+package com.myBank.accounts.export;
+
+import com.myBank.accounts.config.ExportProperties;
+import com.myBank.accounts.dto.AccountsDto;
+import com.myBank.accounts.dto.CustomerDto;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+/**
+ * Reads every customer with its account through one forward-only, read-only cursor of {@code export.fetch-size}
+ * rows, handing each row to the consumer as it is read, so memory stays flat however many customers there are.
+ * A customer without an account is exported with a {@code null} {@code accountsDto}.
+ */
+@Component
+@AllArgsConstructor
+public class AccountsExporter {
+
+    private static final String SELECT_CUSTOMERS = "SELECT c.name, c.email, c.mobile_number, a.account_number, " +
+            "a.account_type, a.branch_address FROM customer c LEFT JOIN accounts a ON a.customer_id = c.customer_id " +
+            "ORDER BY c.customer_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties exportProperties;
+
+    public void export(Consumer<CustomerDto> customerConsumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_CUSTOMERS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportProperties.getFetchSize());
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            CustomerDto customerDto = new CustomerDto();
+            customerDto.setName(resultSet.getString("name"));
+            customerDto.setEmail(resultSet.getString("email"));
+            customerDto.setMobileNumber(resultSet.getString("mobile_number"));
+            long accountNumber = resultSet.getLong("account_number");
+            if (!resultSet.wasNull()) {
+                AccountsDto accountsDto = new AccountsDto();
+                accountsDto.setAccountNumber(accountNumber);
+                accountsDto.setAccountType(resultSet.getString("account_type"));
+                accountsDto.setBranchAddress(resultSet.getString("branch_address"));
+                customerDto.setAccountsDto(accountsDto);
+            }
+            customerConsumer.accept(customerDto);
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.myBank.accounts.repository;
+
+import com.myBank.accounts.entity.Accounts;
+import com.myBank.accounts.entity.Customer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A customer together with its account, loaded by a single joined query. {@code accounts} is
+ * {@code null} when the customer exists without an account.
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerAccountView {
+
+    private Customer customer;
+
+    private Accounts accounts;
+}
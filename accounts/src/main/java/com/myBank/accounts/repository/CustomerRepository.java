@@ -2,13 +2,37 @@ package com.myBank.accounts.repository;
 
 
 import com.myBank.accounts.entity.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     Optional<Customer> findByMobileNumber(String mobileNumber);
+
+    @Query("select new com.myBank.accounts.repository.CustomerAccountView(c, a) from Customer c " +
+            "left join Accounts a on a.customerId = c.customerId where c.mobileNumber = :mobileNumber")
+    Optional<CustomerAccountView> findWithAccountByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+    @Query("select new com.myBank.accounts.repository.CustomerAccountView(c, a) from Customer c " +
+            "join Accounts a on a.customerId = c.customerId where c.mobileNumber in :mobileNumbers")
+    List<CustomerAccountView> findAllWithAccountByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    /**
+     * Keyset page: the customers after {@code customerId} in primary key order, with their account if any. Served by
+     * a range scan of the primary key, so every page costs the same however deep it is, unlike an OFFSET.
+     */
+    @Query("select new com.myBank.accounts.repository.CustomerAccountView(c, a) from Customer c " +
+            "left join Accounts a on a.customerId = c.customerId where c.customerId > :customerId order by c.customerId")
+    List<CustomerAccountView> findAllWithAccountByCustomerIdGreaterThan(@Param("customerId") long customerId, Limit limit);
+
+    @Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+    List<String> findMobileNumbersByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
 }
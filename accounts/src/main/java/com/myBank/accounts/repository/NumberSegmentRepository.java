@@ -0,0 +1,16 @@
+package com.myBank.accounts.repository;
+
+import com.myBank.accounts.entity.NumberSegment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface NumberSegmentRepository extends JpaRepository<NumberSegment, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from NumberSegment s where s.name = :name")
+    Optional<NumberSegment> findForUpdate(String name);
+}
@@ -0,0 +1,82 @@
+package com.myBank.accounts.sequence;
+
+import com.myBank.accounts.entity.NumberSegment;
+import com.myBank.accounts.repository.NumberSegmentRepository;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique numbers from blocks leased from the {@code number_segment} table (hi/lo). A lease moves the
+ * segment's {@code next_value} forward by {@code blockSize} under a row lock in its own transaction, so every
+ * instance sharing the database gets a disjoint block. Within a block numbers are handed out with a single
+ * atomic increment; only the thread that finds the block exhausted takes a lock to lease the next one.
+ * <p>
+ * Numbers of a block that is not used up before shutdown are skipped, never reused.
+ */
+public class NumberAllocator {
+
+    private static final Block EXHAUSTED = new Block(0, 0);
+
+    private final String name;
+    private final int blockSize;
+    private final NumberSegmentRepository numberSegmentRepository;
+    private final TransactionOperations transactionOperations;
+    private final AtomicReference<Block> current = new AtomicReference<>(EXHAUSTED);
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    public NumberAllocator(String name, int blockSize, NumberSegmentRepository numberSegmentRepository,
+                           TransactionOperations transactionOperations) {
+        this.name = name;
+        this.blockSize = blockSize;
+        this.numberSegmentRepository = numberSegmentRepository;
+        this.transactionOperations = transactionOperations;
+    }
+
+    public long next() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return value;
+            }
+            leaseAfter(block);
+        }
+    }
+
+    private void leaseAfter(Block exhausted) {
+        leaseLock.lock();
+        try {
+            if (current.get() == exhausted) {
+                current.set(lease());
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private Block lease() {
+        return transactionOperations.execute(status -> {
+            NumberSegment numberSegment = numberSegmentRepository.findForUpdate(name).orElseThrow(
+                    () -> new IllegalStateException("Number segment " + name + " is not initialised")
+            );
+            long start = numberSegment.getNextValue();
+            numberSegment.setNextValue(start + blockSize);
+            numberSegmentRepository.save(numberSegment);
+            return new Block(start, start + blockSize);
+        });
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
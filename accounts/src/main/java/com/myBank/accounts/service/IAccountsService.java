@@ -1,7 +1,14 @@
 package com.myBank.accounts.service;
 
 
+import com.myBank.accounts.dto.BulkCreateResultDto;
 import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.CustomerPageDto;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface IAccountsService {
 
@@ -12,8 +19,30 @@ public interface IAccountsService {
      */
     void createAccount(CustomerDto customerDto);
 
+    /**
+     *
+     * @param body - Customers as newline-delimited JSON or as CSV (name,email,mobileNumber)
+     * @param contentType - Content type of the body
+     * @param chunkConsumer - Receives the outcome of each row, in request order, one chunk at a time
+     */
+    void createAccounts(InputStream body, MediaType contentType, Consumer<List<BulkCreateResultDto>> chunkConsumer);
+
     CustomerDto fetchAccount(String mobileNumber);
 
+    /**
+     *
+     * @param cursor - nextCursor of the previous page, 0 for the first page
+     * @param size - Maximum number of customers in the page
+     * @return The customers after the cursor with their accounts, in customer id order
+     */
+    CustomerPageDto listAccounts(long cursor, int size);
+
+    /**
+     *
+     * @param customerConsumer - Receives every customer with its account, in customer id order, as it is read
+     */
+    void exportAccounts(Consumer<CustomerDto> customerConsumer);
+
     boolean updateAccount(CustomerDto customerDto);
 
     boolean deleteAccount(String mobileNumber);
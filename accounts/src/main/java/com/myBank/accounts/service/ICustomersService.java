@@ -1,6 +1,10 @@
 package com.myBank.accounts.service;
 
 import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.dto.CustomerDetailsSectionDto;
+
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface ICustomersService {
 
@@ -10,4 +14,22 @@ public interface ICustomersService {
      * @return Customer Details based on a given mobileNumber
      */
     CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId);
+
+    /**
+     *
+     * @param mobileNumber - Input mobile Number
+     * @param sectionConsumer - Receives the account, loans and cards sections of the Customer Details, account
+     *                        first, each as soon as it is available
+     */
+    void streamCustomerDetails(String mobileNumber, String correlationId,
+                               Consumer<CustomerDetailsSectionDto> sectionConsumer);
+
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @param chunkConsumer - Receives the Customer Details of each chunk of mobileNumbers as soon as it is resolved.
+     *                      Mobile numbers without a customer and account are left out.
+     */
+    void fetchCustomerDetailsBatch(List<String> mobileNumbers, String correlationId,
+                                   Consumer<List<CustomerDetailsDto>> chunkConsumer);
 }
@@ -0,0 +1,47 @@
+package com.myBank.accounts.service.client;
+
+import com.myBank.accounts.constants.AccountsConstants;
+import feign.FeignException;
+import feign.Response;
+import feign.codec.Decoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Lets cards and loans answer "this mobile number has no card/loan" with a bodyless 404 that is decoded as a
+ * {@code ResponseEntity} with a {@code null} body instead of a {@link FeignException}, so the circuit breaker does
+ * not count it as a failure and the fallback is not invoked. Needs {@code dismiss404}; a 404 without the
+ * {@link AccountsConstants#RESOURCE_ABSENT_HEADER} header, e.g. for an unknown path, is still raised as an error.
+ */
+public class AbsentAwareDecoder implements Decoder {
+
+    private final Decoder delegate;
+
+    public AbsentAwareDecoder(Decoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.status() == HttpStatus.NOT_FOUND.value() && !isAbsent(response)) {
+            throw FeignException.errorStatus(response.request().httpMethod() + " " + response.request().url(), response);
+        }
+        return delegate.decode(response, type);
+    }
+
+    /**
+     * @return whether the decoded response says the mobile number has no card or loan
+     */
+    public static boolean isAbsent(ResponseEntity<?> responseEntity) {
+        return null != responseEntity && responseEntity.getStatusCode().value() == HttpStatus.NOT_FOUND.value();
+    }
+
+    private static boolean isAbsent(Response response) {
+        Collection<String> values = response.headers().get(AccountsConstants.RESOURCE_ABSENT_HEADER);
+        return values != null && values.contains("true");
+    }
+}
@@ -1,13 +1,44 @@
 package com.myBank.accounts.service.client;
 
+import com.myBank.accounts.cache.Snapshot;
+import com.myBank.accounts.cache.SnapshotStore;
 import com.myBank.accounts.dto.CardsDto;
+import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the last known good card details while the cards circuit is open, marked as a snapshot. Returns
+ * {@code null} when no snapshot is held, as before.
+ */
 @Component
+@AllArgsConstructor
 public class CardsFallback implements CardsFeignClient {
+
+    private SnapshotStore<CardsDto> cardsSnapshotStore;
+
     @Override
     public ResponseEntity<CardsDto> fetchCardDetails(String correlationId, String mobileNumber) {
-        return null;
+        return cardsSnapshotStore.find(mobileNumber)
+                .map(snapshot -> SnapshotResponses.of(snapshot.getValue(), snapshot.getCapturedAt()))
+                .orElse(null);
+    }
+
+    @Override
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(String correlationId, List<String> mobileNumbers) {
+        List<Snapshot<CardsDto>> snapshots = mobileNumbers.stream()
+                .map(cardsSnapshotStore::find)
+                .flatMap(Optional::stream)
+                .toList();
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Instant oldestCapturedAt = snapshots.stream().map(Snapshot::getCapturedAt).min(Comparator.naturalOrder()).get();
+        return SnapshotResponses.of(snapshots.stream().map(Snapshot::getValue).toList(), oldestCapturedAt);
     }
 }
@@ -1,18 +1,30 @@
 package com.myBank.accounts.service.client;
 
+import com.myBank.accounts.constants.AccountsConstants;
 import com.myBank.accounts.dto.CardsDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "cards", fallback = CardsFallback.class)
 public interface CardsFeignClient {
 
-    @GetMapping(value = "/api/fetch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/api/fetch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = AccountsConstants.APPLICATION_SMILE_VALUE)
     public ResponseEntity<CardsDto> fetchCardDetails(@RequestHeader("mybank-correlation-id")
                                                          String correlationId,
                                                      @RequestParam String mobileNumber);
+
+    @PostMapping(value = "/api/fetchBatch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = AccountsConstants.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(@RequestHeader("mybank-correlation-id")
+                                                                    String correlationId,
+                                                                @RequestBody List<String> mobileNumbers);
 }
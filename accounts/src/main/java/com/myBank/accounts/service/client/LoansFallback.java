@@ -1,13 +1,44 @@
 package com.myBank.accounts.service.client;
 
+import com.myBank.accounts.cache.Snapshot;
+import com.myBank.accounts.cache.SnapshotStore;
 import com.myBank.accounts.dto.LoansDto;
+import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the last known good loan details while the loans circuit is open, marked as a snapshot. Returns
+ * {@code null} when no snapshot is held, as before.
+ */
 @Component
+@AllArgsConstructor
 public class LoansFallback implements LoansFeignClient {
+
+    private SnapshotStore<LoansDto> loansSnapshotStore;
+
     @Override
     public ResponseEntity<LoansDto> fetchLoanDetails(String correlationId, String mobileNumber) {
-        return null;
+        return loansSnapshotStore.find(mobileNumber)
+                .map(snapshot -> SnapshotResponses.of(snapshot.getValue(), snapshot.getCapturedAt()))
+                .orElse(null);
+    }
+
+    @Override
+    public ResponseEntity<List<LoansDto>> fetchLoanDetailsBatch(String correlationId, List<String> mobileNumbers) {
+        List<Snapshot<LoansDto>> snapshots = mobileNumbers.stream()
+                .map(loansSnapshotStore::find)
+                .flatMap(Optional::stream)
+                .toList();
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Instant oldestCapturedAt = snapshots.stream().map(Snapshot::getCapturedAt).min(Comparator.naturalOrder()).get();
+        return SnapshotResponses.of(snapshots.stream().map(Snapshot::getValue).toList(), oldestCapturedAt);
     }
 }
@@ -0,0 +1,47 @@
+package com.myBank.accounts.service.client;
+
+import com.myBank.accounts.constants.AccountsConstants;
+import com.myBank.accounts.dto.DataFreshnessDto;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Marks fallback responses built from a last known good snapshot, so callers can tell them apart from
+ * live responses without changing the Feign client signatures.
+ */
+public final class SnapshotResponses {
+
+    private SnapshotResponses() {
+        // restrict instantiation
+    }
+
+    public static <T> ResponseEntity<T> of(T body, Instant capturedAt) {
+        return ResponseEntity.ok()
+                .header(AccountsConstants.DATA_SOURCE_HEADER, AccountsConstants.DATA_SOURCE_SNAPSHOT)
+                .header(AccountsConstants.DATA_CAPTURED_AT_HEADER, Long.toString(capturedAt.toEpochMilli()))
+                .body(body);
+    }
+
+    public static boolean isSnapshot(ResponseEntity<?> responseEntity) {
+        return null != responseEntity && AccountsConstants.DATA_SOURCE_SNAPSHOT.equals(
+                responseEntity.getHeaders().getFirst(AccountsConstants.DATA_SOURCE_HEADER));
+    }
+
+    /**
+     * @return the staleness of a snapshot response, or {@code null} for a live response
+     */
+    public static DataFreshnessDto freshnessOf(ResponseEntity<?> responseEntity) {
+        if (!isSnapshot(responseEntity)) {
+            return null;
+        }
+        Instant capturedAt = Instant.ofEpochMilli(
+                Long.parseLong(responseEntity.getHeaders().getFirst(AccountsConstants.DATA_CAPTURED_AT_HEADER)));
+        return new DataFreshnessDto(AccountsConstants.DATA_SOURCE_SNAPSHOT,
+                LocalDateTime.ofInstant(capturedAt, ZoneId.systemDefault()),
+                Duration.between(capturedAt, Instant.now()).toSeconds());
+    }
+}
@@ -0,0 +1,49 @@
+package com.myBank.accounts.service.client.transport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long each call waits until it holds a connection, from the start of the call to
+ * {@code connectionAcquired}, as {@code feign.transport.connection.acquire} tagged with the host and whether the
+ * connection was reused from the pool or newly set up (TCP connect, plus TLS when used).
+ */
+public class ConnectionAcquireEventListener extends EventListener {
+
+    private final MeterRegistry meterRegistry;
+    private final long callStart = System.nanoTime();
+    private boolean newConnection;
+
+    private ConnectionAcquireEventListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static EventListener.Factory factory(MeterRegistry meterRegistry) {
+        return call -> new ConnectionAcquireEventListener(meterRegistry);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        newConnection = true;
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        Timer.builder("feign.transport.connection.acquire")
+                .tag("host", call.request().url().host() + ":" + call.request().url().port())
+                .tag("connection", newConnection ? "new" : "reused")
+                .tag("protocol", connection.protocol().toString())
+                .description("Time from the start of a call until it holds a pooled or newly opened connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - callStart, TimeUnit.NANOSECONDS);
+    }
+}
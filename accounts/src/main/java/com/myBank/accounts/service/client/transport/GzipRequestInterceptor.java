@@ -0,0 +1,43 @@
+package com.myBank.accounts.service.client.transport;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+
+/**
+ * Gzips request bodies of at least {@code minSize} bytes, such as the batch lookups. Responses need nothing here:
+ * OkHttp asks for gzip and inflates responses transparently.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    private final long minSize;
+
+    public GzipRequestInterceptor(long minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null || request.header(HttpHeaders.CONTENT_ENCODING) != null || body.contentLength() < minSize) {
+            return chain.proceed(request);
+        }
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzipSink);
+        }
+        return chain.proceed(request.newBuilder()
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .method(request.method(), RequestBody.create(compressed.readByteString(), body.contentType()))
+                .build());
+    }
+}
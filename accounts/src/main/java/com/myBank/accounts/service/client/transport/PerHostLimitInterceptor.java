@@ -0,0 +1,90 @@
+package com.myBank.accounts.service.client.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the requests in flight to each downstream host. OkHttp only applies its per-host limit to asynchronous
+ * calls, and Feign calls are synchronous. A request waits up to {@code acquireTimeout} for a slot and then fails
+ * with an {@link IOException}, which the circuit breaker treats like any other transport failure.
+ * <p>
+ * Published per host: {@code feign.transport.requests.active}, {@code feign.transport.saturation} (active / limit),
+ * the {@code feign.transport.permit.wait} timer and the {@code feign.transport.rejected} counter.
+ */
+public class PerHostLimitInterceptor implements Interceptor {
+
+    private final int maxRequestsPerHost;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, HostLimit> hostLimits = new ConcurrentHashMap<>();
+
+    public PerHostLimitInterceptor(int maxRequestsPerHost, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host() + ":" + chain.request().url().port();
+        HostLimit hostLimit = hostLimits.computeIfAbsent(host, this::newHostLimit);
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = hostLimit.permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection slot to " + host);
+        }
+        hostLimit.permitWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            hostLimit.rejected.increment();
+            throw new IOException("Connection pool to " + host + " is saturated: " + maxRequestsPerHost
+                    + " requests in flight for more than " + acquireTimeout.toMillis() + "ms");
+        }
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            hostLimit.permits.release();
+        }
+    }
+
+    private HostLimit newHostLimit(String host) {
+        Semaphore permits = new Semaphore(maxRequestsPerHost);
+        Gauge.builder("feign.transport.requests.active", permits, p -> maxRequestsPerHost - p.availablePermits())
+                .tag("host", host)
+                .description("Requests in flight to the host")
+                .register(meterRegistry);
+        Gauge.builder("feign.transport.saturation", permits,
+                        p -> (double) (maxRequestsPerHost - p.availablePermits()) / maxRequestsPerHost)
+                .tag("host", host)
+                .description("Share of the per-host request limit in use")
+                .register(meterRegistry);
+        Timer permitWait = Timer.builder("feign.transport.permit.wait")
+                .tag("host", host)
+                .description("Time spent waiting for a free slot under the per-host limit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("feign.transport.rejected")
+                .tag("host", host)
+                .description("Requests failed because the per-host limit stayed saturated")
+                .register(meterRegistry);
+        return new HostLimit(permits, permitWait, rejected);
+    }
+
+    private record HostLimit(Semaphore permits, Timer permitWait, Counter rejected) {
+    }
+}
@@ -1,24 +1,45 @@
 package com.myBank.accounts.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.config.BulkOnboardingProperties;
 import com.myBank.accounts.constants.AccountsConstants;
 import com.myBank.accounts.dto.AccountsDto;
+import com.myBank.accounts.dto.BulkCreateResultDto;
 import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.CustomerPageDto;
 import com.myBank.accounts.entity.Accounts;
 import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.event.AccountsEventPublisher;
 import com.myBank.accounts.exception.CustomerAlreadyExistsException;
+import com.myBank.accounts.export.AccountsExporter;
 import com.myBank.accounts.exception.ResourceNotFoundException;
 import com.myBank.accounts.mapper.AccountsMapper;
 import com.myBank.accounts.mapper.CustomerMapper;
 import com.myBank.accounts.repository.AccountsRepository;
+import com.myBank.accounts.repository.CustomerAccountView;
 import com.myBank.accounts.repository.CustomerRepository;
+import com.myBank.accounts.sequence.NumberAllocator;
 import com.myBank.accounts.service.IAccountsService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -27,6 +48,15 @@ public class AccountsServiceImpl implements IAccountsService {
 
     private final AccountsRepository accountsRepository;
     private final CustomerRepository customerRepository;
+    private final NumberAllocator accountNumberAllocator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BulkOnboardingProperties bulkOnboardingProperties;
+    private final NearCache<CustomerDto> accountsNearCache;
+    private final AccountsEventPublisher accountsEventPublisher;
+    private final AccountsExporter accountsExporter;
 
     @Override
     public void createAccount(CustomerDto customerDto) {
@@ -39,33 +69,176 @@ public class AccountsServiceImpl implements IAccountsService {
         accountsRepository.save(createNewAccount(savedCustomer));
     }
 
+    /**
+     * Reads the body in chunks of {@code bulk-onboarding.chunk-size} rows. Each chunk is validated, checked for
+     * existing customers with one query and inserted in one transaction as JDBC batches of customers then
+     * accounts. If the chunk insert fails, e.g. because another request created one of the customers meanwhile,
+     * its rows are retried one by one so that only the offending rows are reported.
+     */
+    @Override
+    public void createAccounts(InputStream body, MediaType contentType, Consumer<List<BulkCreateResultDto>> chunkConsumer) {
+        Set<String> seenMobileNumbers = new HashSet<>();
+        int chunkSize = bulkOnboardingProperties.getChunkSize();
+        try (BulkCustomerReader reader = new BulkCustomerReader(body, contentType, objectMapper)) {
+            List<BulkCustomerReader.Row> chunk = new ArrayList<>(chunkSize);
+            for (BulkCustomerReader.Row row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(createAccountsChunk(chunk, seenMobileNumbers));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(createAccountsChunk(chunk, seenMobileNumbers));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private List<BulkCreateResultDto> createAccountsChunk(List<BulkCustomerReader.Row> rows, Set<String> seenMobileNumbers) {
+        BulkCreateResultDto[] results = new BulkCreateResultDto[rows.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            BulkCustomerReader.Row row = rows.get(i);
+            if (row.error() != null) {
+                results[i] = new BulkCreateResultDto(row.number(), null, BulkCreateResultDto.INVALID, null, row.error());
+                continue;
+            }
+            String mobileNumber = row.customerDto().getMobileNumber();
+            Set<ConstraintViolation<CustomerDto>> violations = validator.validate(row.customerDto());
+            if (!violations.isEmpty()) {
+                results[i] = new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.INVALID, null,
+                        violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+            } else if (!seenMobileNumbers.add(mobileNumber)) {
+                results[i] = new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.DUPLICATE_ROW, null,
+                        "Mobile number already appears earlier in the request");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingMobileNumbers = new HashSet<>(customerRepository.findMobileNumbersByMobileNumberIn(
+                candidates.stream().map(i -> rows.get(i).customerDto().getMobileNumber()).toList()));
+        List<Integer> toCreate = new ArrayList<>();
+        for (int i : candidates) {
+            BulkCustomerReader.Row row = rows.get(i);
+            String mobileNumber = row.customerDto().getMobileNumber();
+            if (existingMobileNumbers.contains(mobileNumber)) {
+                results[i] = new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.ALREADY_EXISTS, null,
+                        "Customer already exists with this mobile number " + mobileNumber);
+            } else {
+                toCreate.add(i);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            try {
+                List<Long> accountNumbers = transactionTemplate.execute(status -> insertCustomersAndAccounts(
+                        toCreate.stream().map(i -> rows.get(i).customerDto()).toList()));
+                for (int j = 0; j < toCreate.size(); j++) {
+                    BulkCustomerReader.Row row = rows.get(toCreate.get(j));
+                    results[toCreate.get(j)] = new BulkCreateResultDto(row.number(), row.customerDto().getMobileNumber(),
+                            BulkCreateResultDto.CREATED, accountNumbers.get(j), null);
+                }
+            } catch (RuntimeException ex) {
+                for (int i : toCreate) {
+                    results[i] = createAccountRow(rows.get(i));
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private BulkCreateResultDto createAccountRow(BulkCustomerReader.Row row) {
+        String mobileNumber = row.customerDto().getMobileNumber();
+        try {
+            List<Long> accountNumbers = transactionTemplate.execute(status ->
+                    insertCustomersAndAccounts(List.of(row.customerDto())));
+            return new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.CREATED, accountNumbers.get(0), null);
+        } catch (RuntimeException ex) {
+            if (customerRepository.findByMobileNumber(mobileNumber).isPresent()) {
+                return new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.ALREADY_EXISTS, null,
+                        "Customer already exists with this mobile number " + mobileNumber);
+            }
+            return new BulkCreateResultDto(row.number(), mobileNumber, BulkCreateResultDto.FAILED, null, ex.getMessage());
+        }
+    }
+
+    /**
+     * Persists directly through the EntityManager: customer ids come from the pooled table generator and account
+     * numbers from the allocator, so neither needs a round trip per row and Hibernate can batch both inserts.
+     */
+    private List<Long> insertCustomersAndAccounts(List<CustomerDto> customerDtos) {
+        List<Customer> customers = customerDtos.stream()
+                .map(customerDto -> CustomerMapper.mapToCustomer(customerDto, new Customer()))
+                .toList();
+        customers.forEach(entityManager::persist);
+        List<Accounts> accounts = customers.stream().map(this::createNewAccount).toList();
+        accounts.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        return accounts.stream().map(Accounts::getAccountNumber).toList();
+    }
+
     private Accounts createNewAccount(Customer customer) {
         Accounts newAccount = new Accounts();
         newAccount.setCustomerId(customer.getCustomerId());
-        long randomAccNumber = ThreadLocalRandom.current().nextLong(10000000000L, 10000000000L + 900000000L);
-        newAccount.setAccountNumber(randomAccNumber);
+        newAccount.setAccountNumber(accountNumberAllocator.next());
         newAccount.setAccountType(AccountsConstants.SAVINGS);
         newAccount.setBranchAddress(AccountsConstants.ADDRESS);
         return newAccount;
     }
 
+    /**
+     * Read through the {@code accounts} near-cache; entries are evicted on every instance when the customer or
+     * account is updated or deleted.
+     */
     @Override
     public CustomerDto fetchAccount(String mobileNumber) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        return accountsNearCache.get(mobileNumber, this::loadAccount);
+    }
+
+    private CustomerDto loadAccount(String mobileNumber) {
+        CustomerAccountView customerAccountView = customerRepository.findWithAccountByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Customer", "mobile number", mobileNumber)
         );
-
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
+        Customer customer = customerAccountView.getCustomer();
+        Accounts accounts = Optional.ofNullable(customerAccountView.getAccounts()).orElseThrow(
                 () -> new ResourceNotFoundException("Account", "customer id", customer.getCustomerId().toString())
         );
 
-
         CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
         customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
         return customerDto;
     }
 
 
+    /**
+     * Reads one row more than the page size, so the last page is recognised without an extra empty request.
+     */
+    @Override
+    public CustomerPageDto listAccounts(long cursor, int size) {
+        List<CustomerAccountView> customers = customerRepository.findAllWithAccountByCustomerIdGreaterThan(cursor,
+                Limit.of(size + 1));
+        boolean hasMore = customers.size() > size;
+        List<CustomerAccountView> page = hasMore ? customers.subList(0, size) : customers;
+        List<CustomerDto> customerDtos = new ArrayList<>(page.size());
+        for (CustomerAccountView customerAccountView : page) {
+            CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customerAccountView.getCustomer(), new CustomerDto());
+            if (customerAccountView.getAccounts() != null) {
+                customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccountView.getAccounts(), new AccountsDto()));
+            }
+            customerDtos.add(customerDto);
+        }
+        return new CustomerPageDto(customerDtos, hasMore ? page.get(size - 1).getCustomer().getCustomerId() : null);
+    }
+
+    @Override
+    public void exportAccounts(Consumer<CustomerDto> customerConsumer) {
+        accountsExporter.export(customerConsumer);
+    }
+
     @Override
     public boolean updateAccount(CustomerDto customerDto) {
         boolean isUpdated = false;
@@ -85,8 +258,13 @@ public class AccountsServiceImpl implements IAccountsService {
                             () -> new ResourceNotFoundException("Customer", "customer id", customerId.toString())
                     );
 
+            String previousMobileNumber = customer.getMobileNumber();
             CustomerMapper.mapToCustomer(customerDto, customer);
             customerRepository.save(customer);
+            accountsEventPublisher.publishAccountChanged(previousMobileNumber);
+            if (!previousMobileNumber.equals(customer.getMobileNumber())) {
+                accountsEventPublisher.publishAccountChanged(customer.getMobileNumber());
+            }
             isUpdated = true;
         }
         return isUpdated;
@@ -100,6 +278,7 @@ public class AccountsServiceImpl implements IAccountsService {
 
         accountsRepository.deleteByCustomerId(customer.getCustomerId());
         customerRepository.deleteById(customer.getCustomerId());
+        accountsEventPublisher.publishAccountChanged(mobileNumber);
         return true;
     }
 
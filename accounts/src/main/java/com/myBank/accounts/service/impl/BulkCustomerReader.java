@@ -0,0 +1,124 @@
+package com.myBank.accounts.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.dto.CustomerDto;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads customers one line at a time from a newline-delimited JSON or CSV body, so a bulk request never has to be
+ * held in memory. CSV rows are {@code name,email,mobileNumber} with optional double quotes and an optional header
+ * line. Blank lines are skipped; a line that cannot be read becomes a row with an error instead of failing the
+ * whole body.
+ */
+class BulkCustomerReader implements Closeable {
+
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String CSV_HEADER = "name,email,mobileNumber";
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private long rowNumber;
+    private boolean firstLine = true;
+
+    BulkCustomerReader(InputStream body, MediaType contentType, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.csv = TEXT_CSV.isCompatibleWith(contentType);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the next row, or {@code null} at the end of the body
+     */
+    Row next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            boolean header = firstLine && csv && CSV_HEADER.equalsIgnoreCase(line.replace(" ", "").replace("\"", ""));
+            firstLine = false;
+            if (!header) {
+                rowNumber++;
+                return csv ? parseCsv(line) : parseJson(line);
+            }
+        }
+        return null;
+    }
+
+    private Row parseJson(String line) {
+        try {
+            return new Row(rowNumber, objectMapper.readValue(line, CustomerDto.class), null);
+        } catch (JsonProcessingException ex) {
+            return new Row(rowNumber, null, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null || fields.size() != 3) {
+            return new Row(rowNumber, null, "Expected 3 CSV fields: " + CSV_HEADER);
+        }
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(fields.get(0));
+        customerDto.setEmail(fields.get(1));
+        customerDto.setMobileNumber(fields.get(2));
+        return new Row(rowNumber, customerDto, null);
+    }
+
+    /**
+     * @return the fields of the line, or {@code null} when a quoted field is not closed
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * One customer of the body; exactly one of {@code customerDto} and {@code error} is set.
+     */
+    record Row(long number, CustomerDto customerDto, String error) {
+    }
+}
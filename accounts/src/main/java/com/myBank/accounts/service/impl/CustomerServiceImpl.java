@@ -1,52 +1,379 @@
 package com.myBank.accounts.service.impl;
 
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.cache.SingleFlight;
+import com.myBank.accounts.cache.SnapshotStore;
+import com.myBank.accounts.config.CustomerDetailsProperties;
 import com.myBank.accounts.dto.AccountsDto;
 import com.myBank.accounts.dto.CardsDto;
 import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.dto.CustomerDetailsSectionDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.DataFreshnessDto;
 import com.myBank.accounts.dto.LoansDto;
 import com.myBank.accounts.entity.Accounts;
 import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.exception.LookupTimeoutException;
 import com.myBank.accounts.exception.ResourceNotFoundException;
 import com.myBank.accounts.mapper.AccountsMapper;
 import com.myBank.accounts.mapper.CustomerMapper;
-import com.myBank.accounts.repository.AccountsRepository;
+import com.myBank.accounts.repository.CustomerAccountView;
 import com.myBank.accounts.repository.CustomerRepository;
 import com.myBank.accounts.service.ICustomersService;
+import com.myBank.accounts.service.client.AbsentAwareDecoder;
 import com.myBank.accounts.service.client.CardsFeignClient;
 import com.myBank.accounts.service.client.LoansFeignClient;
+import com.myBank.accounts.service.client.SnapshotResponses;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 @Service
 @AllArgsConstructor
 public class CustomerServiceImpl implements ICustomersService {
 
-    private AccountsRepository accountsRepository;
     private CustomerRepository customerRepository;
     private CardsFeignClient cardsFeignClient;
     private LoansFeignClient loansFeignClient;
+    private Executor customerDetailsExecutor;
+    private CustomerDetailsProperties customerDetailsProperties;
+    private NearCache<CardsDto> cardsNearCache;
+    private NearCache<LoansDto> loansNearCache;
+    private SnapshotStore<CardsDto> cardsSnapshotStore;
+    private SnapshotStore<LoansDto> loansSnapshotStore;
+    private SingleFlight<CustomerDetailsDto> customerDetailsSingleFlight;
+    private NearCache<Boolean> cardsAbsentCache;
+    private NearCache<Boolean> loansAbsentCache;
 
+    /**
+     * Concurrent requests for the same mobile number share one lookup, so a burst of identical refreshes
+     * costs one set of DB queries and downstream calls. The leader's correlation id is the one propagated
+     * to loans and cards. A caller that gives up waiting for the leader fails with a {@link LookupTimeoutException},
+     * like a leader whose own account lookup is late.
+     */
     @Override
     public CustomerDetailsDto fetchCustomerDetails(String mobileNumber, String correlationId) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        try {
+            return customerDetailsSingleFlight.execute(mobileNumber,
+                    () -> loadCustomerDetails(mobileNumber, correlationId));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                throw new LookupTimeoutException("Customer details", "mobile number", mobileNumber,
+                        customerDetailsProperties.getTimeout());
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Runs the customer/account lookup and the loans and cards calls concurrently, so the latency is
+     * the slowest of the three rather than their sum. Loans and cards are served from the near-cache
+     * when present. A loans or cards call that misses its deadline is answered from the last known good
+     * snapshot, like the Feign fallbacks do, and flagged through {@link DataFreshnessDto}; a failed account lookup
+     * fails the whole request, and a late one fails it with a {@link LookupTimeoutException}. A call the saturated
+     * fan-out pool rejects is answered the same way as a late one.
+     */
+    private CustomerDetailsDto loadCustomerDetails(String mobileNumber, String correlationId) {
+        CompletableFuture<CustomerDetailsDto> customerFuture = customerFuture(mobileNumber);
+        CompletableFuture<Section<LoansDto>> loansFuture = loansFuture(mobileNumber, correlationId);
+        CompletableFuture<Section<CardsDto>> cardsFuture = cardsFuture(mobileNumber, correlationId);
+
+        CustomerDetailsDto customerDetailsDto = join(customerFuture);
+        Section<LoansDto> loans = join(loansFuture);
+        customerDetailsDto.setLoansDto(loans.value());
+        customerDetailsDto.setLoansFreshness(loans.freshness());
+        Section<CardsDto> cards = join(cardsFuture);
+        customerDetailsDto.setCardsDto(cards.value());
+        customerDetailsDto.setCardsFreshness(cards.freshness());
+        return customerDetailsDto;
+    }
+
+    /**
+     * Same fan-out and deadlines as {@link #fetchCustomerDetails}, but hands each section to the consumer as soon
+     * as it is available: the account section first, then loans and cards in the order they complete. The
+     * consumer is always called on the calling thread. Not coalesced, since every caller needs its own stream.
+     */
+    @Override
+    public void streamCustomerDetails(String mobileNumber, String correlationId,
+                                      Consumer<CustomerDetailsSectionDto> sectionConsumer) {
+        CompletableFuture<CustomerDetailsDto> customerFuture = customerFuture(mobileNumber);
+        List<CompletableFuture<CustomerDetailsSectionDto>> pending = new ArrayList<>(List.of(
+                loansFuture(mobileNumber, correlationId).thenApply(loans -> new CustomerDetailsSectionDto(
+                        CustomerDetailsSectionDto.LOANS, loans.value(), loans.freshness())),
+                cardsFuture(mobileNumber, correlationId).thenApply(cards -> new CustomerDetailsSectionDto(
+                        CustomerDetailsSectionDto.CARDS, cards.value(), cards.freshness()))));
+
+        CustomerDetailsDto customerDetailsDto = join(customerFuture);
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setName(customerDetailsDto.getName());
+        customerDto.setEmail(customerDetailsDto.getEmail());
+        customerDto.setMobileNumber(customerDetailsDto.getMobileNumber());
+        customerDto.setAccountsDto(customerDetailsDto.getAccountsDto());
+        sectionConsumer.accept(new CustomerDetailsSectionDto(CustomerDetailsSectionDto.ACCOUNT, customerDto, null));
+
+        while (!pending.isEmpty()) {
+            join(CompletableFuture.anyOf(pending.toArray(CompletableFuture[]::new)));
+            for (Iterator<CompletableFuture<CustomerDetailsSectionDto>> it = pending.iterator(); it.hasNext(); ) {
+                CompletableFuture<CustomerDetailsSectionDto> section = it.next();
+                if (section.isDone()) {
+                    sectionConsumer.accept(join(section));
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<CustomerDetailsDto> customerFuture(String mobileNumber) {
+        return withDeadline(() -> fetchCustomerAndAccount(mobileNumber))
+                .exceptionally(ex -> onTimeout(ex, () -> {
+                    throw new LookupTimeoutException("Customer", "mobile number", mobileNumber,
+                            customerDetailsProperties.getTimeout());
+                }));
+    }
+
+    private CompletableFuture<Section<LoansDto>> loansFuture(String mobileNumber, String correlationId) {
+        return withDeadline(() -> fetchSection(mobileNumber, loansNearCache, loansAbsentCache, loansSnapshotStore,
+                        key -> loansFeignClient.fetchLoanDetails(correlationId, key)))
+                .exceptionally(ex -> onTimeout(ex, () -> snapshotSection(mobileNumber, loansSnapshotStore)));
+    }
+
+    private CompletableFuture<Section<CardsDto>> cardsFuture(String mobileNumber, String correlationId) {
+        return withDeadline(() -> fetchSection(mobileNumber, cardsNearCache, cardsAbsentCache, cardsSnapshotStore,
+                        key -> cardsFeignClient.fetchCardDetails(correlationId, key)))
+                .exceptionally(ex -> onTimeout(ex, () -> snapshotSection(mobileNumber, cardsSnapshotStore)));
+    }
+
+    /**
+     * Resolves the mobile numbers in chunks of {@code customer-details.batch-chunk-size}. Each chunk costs one
+     * joined customer/account query and one batch call each to loans and cards, run concurrently.
+     */
+    @Override
+    public void fetchCustomerDetailsBatch(List<String> mobileNumbers, String correlationId,
+                                          Consumer<List<CustomerDetailsDto>> chunkConsumer) {
+        List<String> distinctMobileNumbers = mobileNumbers.stream().distinct().toList();
+        int chunkSize = customerDetailsProperties.getBatchChunkSize();
+        for (int from = 0; from < distinctMobileNumbers.size(); from += chunkSize) {
+            List<String> chunk = distinctMobileNumbers.subList(from, Math.min(from + chunkSize, distinctMobileNumbers.size()));
+            chunkConsumer.accept(fetchCustomerDetailsChunk(chunk, correlationId));
+        }
+    }
+
+    private List<CustomerDetailsDto> fetchCustomerDetailsChunk(List<String> mobileNumbers, String correlationId) {
+        CompletableFuture<Map<String, CustomerDetailsDto>> customersFuture =
+                withDeadline(() -> fetchCustomersAndAccounts(mobileNumbers))
+                .exceptionally(ex -> onTimeout(ex, () -> {
+                    throw new LookupTimeoutException("Customers", "count of mobile numbers",
+                            String.valueOf(mobileNumbers.size()), customerDetailsProperties.getTimeout());
+                }));
+        CompletableFuture<Map<String, Section<LoansDto>>> loansFuture =
+                withDeadline(() -> fetchSections(mobileNumbers, loansNearCache, loansAbsentCache, loansSnapshotStore,
+                        missing -> loansFeignClient.fetchLoanDetailsBatch(correlationId, missing),
+                        LoansDto::getMobileNumber))
+                .exceptionally(ex -> onTimeout(ex, () -> snapshotSections(mobileNumbers, loansSnapshotStore)));
+        CompletableFuture<Map<String, Section<CardsDto>>> cardsFuture =
+                withDeadline(() -> fetchSections(mobileNumbers, cardsNearCache, cardsAbsentCache, cardsSnapshotStore,
+                        missing -> cardsFeignClient.fetchCardDetailsBatch(correlationId, missing),
+                        CardsDto::getMobileNumber))
+                .exceptionally(ex -> onTimeout(ex, () -> snapshotSections(mobileNumbers, cardsSnapshotStore)));
+
+        Map<String, CustomerDetailsDto> customerDetailsByMobileNumber = join(customersFuture);
+        Map<String, Section<LoansDto>> loansByMobileNumber = join(loansFuture);
+        Map<String, Section<CardsDto>> cardsByMobileNumber = join(cardsFuture);
+        customerDetailsByMobileNumber.forEach((mobileNumber, customerDetailsDto) -> {
+            Section<LoansDto> loans = loansByMobileNumber.getOrDefault(mobileNumber, Section.empty());
+            customerDetailsDto.setLoansDto(loans.value());
+            customerDetailsDto.setLoansFreshness(loans.freshness());
+            Section<CardsDto> cards = cardsByMobileNumber.getOrDefault(mobileNumber, Section.empty());
+            customerDetailsDto.setCardsDto(cards.value());
+            customerDetailsDto.setCardsFreshness(cards.freshness());
+        });
+        return List.copyOf(customerDetailsByMobileNumber.values());
+    }
+
+    private Map<String, CustomerDetailsDto> fetchCustomersAndAccounts(List<String> mobileNumbers) {
+        Map<String, CustomerDetailsDto> customerDetailsByMobileNumber = new LinkedHashMap<>();
+        for (CustomerAccountView customerAccountView : customerRepository.findAllWithAccountByMobileNumberIn(mobileNumbers)) {
+            Customer customer = customerAccountView.getCustomer();
+            CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDto());
+            customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccountView.getAccounts(), new AccountsDto()));
+            customerDetailsByMobileNumber.put(customer.getMobileNumber(), customerDetailsDto);
+        }
+        return customerDetailsByMobileNumber;
+    }
+
+    private CustomerDetailsDto fetchCustomerAndAccount(String mobileNumber) {
+        CustomerAccountView customerAccountView = customerRepository.findWithAccountByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Customer", "mobile number", mobileNumber)
         );
-
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
+        Customer customer = customerAccountView.getCustomer();
+        Accounts accounts = Optional.ofNullable(customerAccountView.getAccounts()).orElseThrow(
                 () -> new ResourceNotFoundException("Account", "customer id", customer.getCustomerId().toString())
         );
         CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDto());
         customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
+        return customerDetailsDto;
+    }
 
-        ResponseEntity<LoansDto> loansDtoResponseEntity = loansFeignClient.fetchLoanDetails(correlationId, mobileNumber);
-        if (null != loansDtoResponseEntity)
-            customerDetailsDto.setLoansDto(loansDtoResponseEntity.getBody());
+    /**
+     * Serves from the near-cache, otherwise calls the downstream. Live responses are cached and kept as the
+     * last known good snapshot; snapshot responses from the fallback are passed through untouched. A mobile number
+     * the downstream reported as having no card or loan is remembered in the absent cache and answered as empty
+     * without a call until it expires or a card or loan is created for it.
+     */
+    private static <T> Section<T> fetchSection(String mobileNumber, NearCache<T> nearCache, NearCache<Boolean> absentCache,
+                                               SnapshotStore<T> snapshotStore, Function<String, ResponseEntity<T>> call) {
+        if (absentCache.getIfPresent(mobileNumber) != null) {
+            return Section.empty();
+        }
+        T cached = nearCache.getIfPresent(mobileNumber);
+        if (cached != null) {
+            return new Section<>(cached, null);
+        }
+        ResponseEntity<T> responseEntity = call.apply(mobileNumber);
+        if (AbsentAwareDecoder.isAbsent(responseEntity)) {
+            absentCache.put(mobileNumber, Boolean.TRUE);
+            snapshotStore.evict(mobileNumber);
+            return Section.empty();
+        }
+        T body = bodyOf(responseEntity);
+        DataFreshnessDto freshness = SnapshotResponses.freshnessOf(responseEntity);
+        if (body != null && freshness == null) {
+            nearCache.put(mobileNumber, body);
+            snapshotStore.record(mobileNumber, body);
+        }
+        return new Section<>(body, freshness);
+    }
 
-        ResponseEntity<CardsDto> cardsDtoResponseEntity = cardsFeignClient.fetchCardDetails(correlationId, mobileNumber);
-        if (null != cardsDtoResponseEntity)
-            customerDetailsDto.setCardsDto(cardsDtoResponseEntity.getBody());
+    /**
+     * Batch counterpart of {@link #fetchSection}: mobile numbers missing from a live batch response have no card or
+     * loan and are put in the absent cache.
+     */
+    private static <T> Map<String, Section<T>> fetchSections(List<String> mobileNumbers, NearCache<T> nearCache,
+                                                             NearCache<Boolean> absentCache,
+                                                             SnapshotStore<T> snapshotStore,
+                                                             Function<List<String>, ResponseEntity<List<T>>> call,
+                                                             Function<T, String> mobileNumberOf) {
+        Map<String, Section<T>> sections = new HashMap<>();
+        nearCache.getAllPresent(mobileNumbers).forEach((mobileNumber, cached) ->
+                sections.put(mobileNumber, new Section<>(cached, null)));
+        Map<String, Boolean> absent = absentCache.getAllPresent(mobileNumbers);
+        List<String> missing = mobileNumbers.stream()
+                .filter(mobileNumber -> !sections.containsKey(mobileNumber) && !absent.containsKey(mobileNumber))
+                .toList();
+        if (missing.isEmpty()) {
+            return sections;
+        }
+        ResponseEntity<List<T>> responseEntity = call.apply(missing);
+        List<T> bodies = bodyOf(responseEntity);
+        DataFreshnessDto freshness = SnapshotResponses.freshnessOf(responseEntity);
+        if (bodies != null) {
+            for (T body : bodies) {
+                String mobileNumber = mobileNumberOf.apply(body);
+                if (freshness == null) {
+                    nearCache.put(mobileNumber, body);
+                    snapshotStore.record(mobileNumber, body);
+                }
+                sections.putIfAbsent(mobileNumber, new Section<>(body, freshness));
+            }
+            if (freshness == null) {
+                for (String mobileNumber : missing) {
+                    if (!sections.containsKey(mobileNumber)) {
+                        absentCache.put(mobileNumber, Boolean.TRUE);
+                        snapshotStore.evict(mobileNumber);
+                    }
+                }
+            }
+        }
+        return sections;
+    }
 
-        return customerDetailsDto;
+    private static <T> Section<T> snapshotSection(String mobileNumber, SnapshotStore<T> snapshotStore) {
+        return snapshotStore.find(mobileNumber)
+                .map(snapshot -> SnapshotResponses.of(snapshot.getValue(), snapshot.getCapturedAt()))
+                .map(responseEntity -> new Section<>(responseEntity.getBody(), SnapshotResponses.freshnessOf(responseEntity)))
+                .orElse(Section.empty());
+    }
+
+    private static <T> Map<String, Section<T>> snapshotSections(List<String> mobileNumbers, SnapshotStore<T> snapshotStore) {
+        Map<String, Section<T>> sections = new HashMap<>();
+        for (String mobileNumber : mobileNumbers) {
+            Section<T> section = snapshotSection(mobileNumber, snapshotStore);
+            if (section.value() != null) {
+                sections.put(mobileNumber, section);
+            }
+        }
+        return sections;
+    }
+
+    private static <T> T bodyOf(ResponseEntity<T> responseEntity) {
+        return null != responseEntity ? responseEntity.getBody() : null;
+    }
+
+    /**
+     * Runs the task on the fan-out pool under {@code customer-details.timeout}. A task the saturated pool rejects
+     * fails at once rather than running on the request thread, where the deadline could not apply. A task that
+     * misses its deadline keeps its pool thread until the Feign read timeout ends the late call.
+     */
+    private <T> CompletableFuture<T> withDeadline(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, customerDetailsExecutor)
+                    .orTimeout(customerDetailsProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Answers a missed deadline, or a task the saturated pool rejected, with {@code onTimeout}; any other failure
+     * is propagated unchanged.
+     */
+    private static <T> T onTimeout(Throwable ex, Supplier<T> onTimeout) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException || cause instanceof RejectedExecutionException) {
+            return onTimeout.get();
+        }
+        throw ex instanceof CompletionException completionException ? completionException : new CompletionException(cause);
+    }
+
+    /**
+     * Waits for the future and rethrows the original runtime exception, so callers such as the
+     * {@code GlobalExceptionHandler} keep seeing e.g. {@link ResourceNotFoundException} as before.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Cards or loans details of one mobile number; {@code freshness} is set only when they are a snapshot.
+     */
+    private record Section<T>(T value, DataFreshnessDto freshness) {
+
+        static <T> Section<T> empty() {
+            return new Section<>(null, null);
+        }
     }
 }
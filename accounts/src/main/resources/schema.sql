@@ -6,7 +6,8 @@ CREATE TABLE IF NOT EXISTS `customer` (
   `created_at` date NOT NULL,
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
+    `updated_by` varchar(20) DEFAULT NULL,
+  UNIQUE KEY `uk_customer_mobile_number` (`mobile_number`)
 );
 
 CREATE TABLE IF NOT EXISTS `accounts` (
@@ -17,5 +18,19 @@ CREATE TABLE IF NOT EXISTS `accounts` (
   `created_at` date NOT NULL,
    `created_by` varchar(20) NOT NULL,
    `updated_at` date DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
-);
\ No newline at end of file
+    `updated_by` varchar(20) DEFAULT NULL,
+  KEY `idx_accounts_customer_id` (`customer_id`)
+);
+
+CREATE TABLE IF NOT EXISTS `number_segment` (
+  `name` varchar(50) NOT NULL,
+  `next_value` bigint NOT NULL,
+  PRIMARY KEY (`name`)
+);
+
+-- starts above the range of the randomly generated numbers issued before the allocator existed
+INSERT IGNORE INTO `number_segment` (`name`, `next_value`) VALUES ('account_number', 10900000000);
+
+-- customer ids come from pooled blocks of 100 so inserts can be batched; the first block ends at this value
+INSERT IGNORE INTO `number_segment` (`name`, `next_value`)
+  SELECT 'customer_id', COALESCE(MAX(`customer_id`), 0) + 101 FROM `customer`;
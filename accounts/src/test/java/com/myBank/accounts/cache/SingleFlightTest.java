@@ -0,0 +1,136 @@
+package com.myBank.accounts.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(CALLERS, () -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("leader"));
+        assertEquals(CALLERS - 1, count("coalesced"));
+        assertEquals("reloaded", singleFlight.execute("key", () -> "reloaded"));
+    }
+
+    @Test
+    void everyWaiterSeesTheLeadersException() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        IllegalStateException failure = new IllegalStateException("downstream failed");
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submit(CALLERS, () -> singleFlight.execute("key", () -> {
+            await(release);
+            throw failure;
+        }));
+        waitForCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ex.getCause());
+        }
+        assertEquals("recovered", singleFlight.execute("key", () -> "recovered"));
+    }
+
+    @Test
+    void waiterTimeoutDoesNotAffectTheLeader() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>("test", Duration.ofMillis(100), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = pool.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "value";
+        }));
+        waitForLeader();
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> singleFlight.execute("key", () -> "not the leader"));
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+        release.countDown();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, count("timeout"));
+    }
+
+    private <T> List<Future<T>> submit(int callers, Callable<T> call) {
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(call));
+        }
+        return results;
+    }
+
+    private void waitForLeader() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("leader") < 1) {
+            assertTrue(System.nanoTime() < deadline, "leader never started");
+            Thread.sleep(5);
+        }
+    }
+
+    private void waitForCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < expected) {
+            assertTrue(System.nanoTime() < deadline, "callers were not coalesced");
+            Thread.sleep(5);
+        }
+    }
+
+    private long count(String result) {
+        return (long) meterRegistry.get("singleflight.calls").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.myBank.accounts.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotStoreTest {
+
+    private static final int MAXIMUM_BYTES = 64 * 1024;
+
+    private final SnapshotStore<String> snapshotStore = new SnapshotStore<>("test.snapshot", MAXIMUM_BYTES,
+            Duration.ofHours(1), new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void largeValuesAreBoundedByTheirSerializedSizeNotTheirCount() throws InterruptedException {
+        String largeValue = "x".repeat(4 * 1024);
+        for (int i = 0; i < 100; i++) {
+            snapshotStore.record(mobileNumber(i), largeValue);
+        }
+
+        // Caffeine evicts asynchronously, shortly after the writes
+        long kept = keptSnapshots();
+        for (int attempt = 0; attempt < 50 && kept * largeValue.length() > MAXIMUM_BYTES; attempt++) {
+            Thread.sleep(20);
+            kept = keptSnapshots();
+        }
+        assertTrue(kept * largeValue.length() <= MAXIMUM_BYTES, kept + " snapshots of 4KB kept in 64KB");
+        assertTrue(kept > 0);
+    }
+
+    @Test
+    void smallValuesAreNotEvicted() {
+        for (int i = 0; i < 100; i++) {
+            snapshotStore.record(mobileNumber(i), "x");
+        }
+
+        assertTrue(snapshotStore.find(mobileNumber(0)).isPresent());
+        assertTrue(snapshotStore.find(mobileNumber(99)).isPresent());
+    }
+
+    private long keptSnapshots() {
+        return IntStream.range(0, 100).filter(i -> snapshotStore.find(mobileNumber(i)).isPresent()).count();
+    }
+
+    private static String mobileNumber(int i) {
+        return String.format("43544%05d", i);
+    }
+}
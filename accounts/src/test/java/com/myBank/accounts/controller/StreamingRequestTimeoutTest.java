@@ -0,0 +1,200 @@
+package com.myBank.accounts.controller;
+
+import com.myBank.accounts.config.CustomerDetailsProperties;
+import com.myBank.accounts.dto.AccountContactInfoDto;
+import com.myBank.accounts.dto.BulkCreateResultDto;
+import com.myBank.accounts.dto.CustomerDetailsSectionDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.service.IAccountsService;
+import com.myBank.accounts.service.ICustomersService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the streaming endpoints in an embedded Tomcat whose connector async timeout is cut down to
+ * {@value #CONTAINER_ASYNC_TIMEOUT_MS} ms, standing in for its 30s default, against services that take longer
+ * than that to produce the whole stream.
+ */
+class StreamingRequestTimeoutTest {
+
+    private static final long CONTAINER_ASYNC_TIMEOUT_MS = 500;
+    private static final long CHUNK_DELAY_MS = 400;
+
+    @Test
+    void configuredRequestTimeoutReachesTheAsyncSupport() {
+        try (ServletWebServerApplicationContext context = run(configuredRequestTimeout())) {
+            RequestMappingHandlerAdapter handlerAdapter = context.getBean(RequestMappingHandlerAdapter.class);
+
+            assertEquals(Duration.ofMinutes(30).toMillis(),
+                    ReflectionTestUtils.getField(handlerAdapter, "asyncRequestTimeout"));
+        }
+    }
+
+    @Test
+    void customerDetailsStreamRunsPastTheContainerDefault() throws Exception {
+        String body = stream(configuredRequestTimeout(), StreamingRequestTimeoutTest::customerDetailsRequest);
+
+        assertNotNull(body, "stream was cut off");
+        assertTrue(body.contains(CustomerDetailsSectionDto.ACCOUNT), body);
+        assertTrue(body.contains(CustomerDetailsSectionDto.LOANS), body);
+        assertTrue(body.contains(CustomerDetailsSectionDto.CARDS), body);
+    }
+
+    @Test
+    void bulkCreateStreamRunsPastTheContainerDefault() throws Exception {
+        String body = stream(configuredRequestTimeout(), baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/createBulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .header("Accept", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString("{}\n{}\n{}\n"))
+                .build());
+
+        assertNotNull(body, "stream was cut off");
+        assertTrue(body.contains("\"row\":3"), body);
+    }
+
+    @Test
+    void exportStreamRunsPastTheContainerDefault() throws Exception {
+        String body = stream(configuredRequestTimeout(), baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/export"))
+                .header("Accept", "application/x-ndjson")
+                .build());
+
+        assertNotNull(body, "stream was cut off");
+        assertTrue(body.contains("1000000003"), body);
+    }
+
+    private static HttpRequest customerDetailsRequest(String baseUrl) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/streamCustomerDetails?mobileNumber=4354437687"))
+                .header("Accept", "application/x-ndjson")
+                .header("mybank-correlation-id", "stream")
+                .build();
+    }
+
+    private static String configuredRequestTimeout() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        String requestTimeout = yaml.getObject().getProperty("spring.mvc.async.request-timeout");
+        assertNotNull(requestTimeout, "spring.mvc.async.request-timeout is not set in application.yml");
+        return requestTimeout;
+    }
+
+    /**
+     * @param requestTimeout - {@code spring.mvc.async.request-timeout}
+     * @return the streamed body, or {@code null} when the connection was dropped before it ended
+     */
+    private static String stream(String requestTimeout, Function<String, HttpRequest> request) throws InterruptedException {
+        try (ServletWebServerApplicationContext context = run(requestTimeout)) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+            return HttpClient.newHttpClient().send(request.apply(baseUrl), HttpResponse.BodyHandlers.ofString()).body();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static ServletWebServerApplicationContext run(String requestTimeout) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(StreamingApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("spring.config.name=streaming-request-timeout-test", "spring.cloud.config.enabled=false",
+                        "server.port=0", "build.version=test", "spring.mvc.async.request-timeout=" + requestTimeout)
+                .run();
+    }
+
+    private static void pause() throws InterruptedException {
+        Thread.sleep(CHUNK_DELAY_MS);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import({CustomerController.class, AccountsController.class})
+    static class StreamingApplication {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> shortContainerAsyncTimeout() {
+            return factory -> factory.addConnectorCustomizers(connector -> connector.setAsyncTimeout(CONTAINER_ASYNC_TIMEOUT_MS));
+        }
+
+        @Bean
+        CustomerDetailsProperties customerDetailsProperties() {
+            return new CustomerDetailsProperties();
+        }
+
+        @Bean
+        ICustomersService customersService() {
+            ICustomersService customersService = mock(ICustomersService.class);
+            doAnswer(invocation -> {
+                Consumer<CustomerDetailsSectionDto> sectionConsumer = invocation.getArgument(2);
+                for (String section : List.of(CustomerDetailsSectionDto.ACCOUNT, CustomerDetailsSectionDto.LOANS,
+                        CustomerDetailsSectionDto.CARDS)) {
+                    sectionConsumer.accept(new CustomerDetailsSectionDto(section, null, null));
+                    pause();
+                }
+                return null;
+            }).when(customersService).streamCustomerDetails(anyString(), anyString(), any());
+            return customersService;
+        }
+
+        @Bean
+        IAccountsService accountsService() {
+            IAccountsService accountsService = mock(IAccountsService.class);
+            doAnswer(invocation -> {
+                Consumer<List<BulkCreateResultDto>> chunkConsumer = invocation.getArgument(2);
+                for (long row = 1; row <= 3; row++) {
+                    chunkConsumer.accept(List.of(new BulkCreateResultDto(row, null, BulkCreateResultDto.CREATED, null, null)));
+                    pause();
+                }
+                return null;
+            }).when(accountsService).createAccounts(any(), any(), any());
+            doAnswer(invocation -> {
+                Consumer<CustomerDto> customerConsumer = invocation.getArgument(0);
+                for (long mobileNumber = 1000000001L; mobileNumber <= 1000000003L; mobileNumber++) {
+                    CustomerDto customerDto = new CustomerDto();
+                    customerDto.setMobileNumber(String.valueOf(mobileNumber));
+                    customerConsumer.accept(customerDto);
+                    pause();
+                }
+                return null;
+            }).when(accountsService).exportAccounts(any());
+            return accountsService;
+        }
+
+        @Bean
+        AccountContactInfoDto accountContactInfoDto() {
+            return new AccountContactInfoDto();
+        }
+    }
+}
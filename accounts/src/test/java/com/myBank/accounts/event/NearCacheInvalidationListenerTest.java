@@ -0,0 +1,71 @@
+package com.myBank.accounts.event;
+
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.service.impl.CustomerServiceFixture;
+import com.myBank.accounts.service.impl.CustomerServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Delivers the events the cards and loans microservices publish over the bus straight to the listener, and checks
+ * that the next customer-details lookup goes downstream again instead of answering from the near-cache.
+ */
+class NearCacheInvalidationListenerTest {
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(100, 0, 0);
+    private final NearCache<CustomerDto> accountsNearCache =
+            new NearCache<>("accounts", 100, Duration.ofMinutes(1), fixture.meterRegistry);
+    private final NearCacheInvalidationListener listener = new NearCacheInvalidationListener(fixture.cardsNearCache,
+            fixture.loansNearCache, fixture.cardsSnapshotStore, fixture.loansSnapshotStore, accountsNearCache,
+            fixture.cardsAbsentCache, fixture.loansAbsentCache);
+    private final CustomerServiceImpl service = fixture.service(Duration.ofSeconds(3));
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void cardChangedEventMakesTheNextLookupFetchTheCardAgain() {
+        service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache");
+        service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache");
+        verify(fixture.cardsFeignClient, times(1)).fetchCardDetails(anyString(), anyString());
+
+        CardChangedEvent event = new CardChangedEvent();
+        event.setMobileNumber(MOBILE_NUMBER);
+        listener.onCardChanged(event);
+
+        assertNull(fixture.cardsNearCache.getIfPresent(MOBILE_NUMBER));
+        assertNotNull(fixture.loansNearCache.getIfPresent(MOBILE_NUMBER), "a card event evicted the loan");
+        assertNotNull(service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache").getCardsDto());
+        verify(fixture.cardsFeignClient, times(2)).fetchCardDetails(anyString(), anyString());
+        verify(fixture.loansFeignClient, times(1)).fetchLoanDetails(anyString(), anyString());
+    }
+
+    @Test
+    void loanChangedEventMakesTheNextLookupFetchTheLoanAgain() {
+        service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache");
+        service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache");
+        verify(fixture.loansFeignClient, times(1)).fetchLoanDetails(anyString(), anyString());
+
+        LoanChangedEvent event = new LoanChangedEvent();
+        event.setMobileNumber(MOBILE_NUMBER);
+        listener.onLoanChanged(event);
+
+        assertNull(fixture.loansNearCache.getIfPresent(MOBILE_NUMBER));
+        assertNotNull(fixture.cardsNearCache.getIfPresent(MOBILE_NUMBER), "a loan event evicted the card");
+        assertNotNull(service.fetchCustomerDetails(MOBILE_NUMBER, "near-cache").getLoansDto());
+        verify(fixture.loansFeignClient, times(2)).fetchLoanDetails(anyString(), anyString());
+        verify(fixture.cardsFeignClient, times(1)).fetchCardDetails(anyString(), anyString());
+    }
+}
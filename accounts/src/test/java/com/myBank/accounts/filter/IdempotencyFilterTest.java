@@ -0,0 +1,92 @@
+package com.myBank.accounts.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.myBank.accounts.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"name\":\"Piyush Kumar\",\"email\":\"p@example.com\",\"mobileNumber\":\"4354437687\"}";
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyProperties(),
+            new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry());
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    void duplicateIsReplayedWithoutReachingTheController() throws Exception {
+        FilterChain create = respondWith(201, "{\"statusCode\":\"201\"}");
+
+        MockHttpServletResponse first = post("key-1", BODY, create);
+        MockHttpServletResponse retry = post("key-1", BODY, create);
+
+        assertEquals(1, invocations.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void keyReusedForADifferentPayloadIsRejected() throws Exception {
+        FilterChain create = respondWith(201, "{\"statusCode\":\"201\"}");
+
+        post("key-2", BODY, create);
+        MockHttpServletResponse reused = post("key-2", BODY.replace("4354437687", "4354437688"), create);
+
+        assertEquals(1, invocations.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void serverErrorsAreNotRemembered() throws Exception {
+        FilterChain failing = respondWith(500, "{}");
+
+        post("key-3", BODY, failing);
+        MockHttpServletResponse retry = post("key-3", BODY, failing);
+
+        assertEquals(2, invocations.get());
+        assertEquals(500, retry.getStatus());
+    }
+
+    @Test
+    void controllerStillReadsTheBody() throws Exception {
+        StringBuilder seenBody = new StringBuilder();
+        post("key-4", BODY, (request, response) -> seenBody.append(
+                new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+
+        assertEquals(BODY, seenBody.toString());
+    }
+
+    private FilterChain respondWith(int status, String body) {
+        return (request, response) -> {
+            invocations.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            ((HttpServletResponse) response).setStatus(status);
+            response.setContentType("application/json");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/create");
+        request.setServletPath("/api/create");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
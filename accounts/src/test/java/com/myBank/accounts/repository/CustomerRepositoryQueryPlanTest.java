@@ -0,0 +1,114 @@
+package com.myBank.accounts.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs schema.sql on H2 in MySQL mode, captures the SQL Hibernate issues for the joined customer/account lookups
+ * of {@link CustomerRepository} and checks that its plan resolves both tables through the indexes instead of
+ * scanning them.
+ */
+class CustomerRepositoryQueryPlanTest {
+
+    private final List<String> issuedSql = new CopyOnWriteArrayList<>();
+    private DriverManagerDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:queryplan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            for (int i = 0; i < 100; i++) {
+                statement.execute("insert into customer (name, email, mobile_number, created_at, created_by) values " +
+                        "('Customer " + i + "', 'c" + i + "@example.com', '" + (1000000000L + i) + "', current_date, 'TEST')");
+                statement.execute("insert into accounts (customer_id, account_type, branch_address, created_at, created_by) " +
+                        "values (" + (i + 1) + ", 'Savings', 'Pune', current_date, 'TEST')");
+            }
+        }
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.myBank.accounts.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    issuedSql.add(sql);
+                    return sql;
+                }));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactoryBean.getObject());
+        customerRepository = new JpaRepositoryFactory(entityManager).getRepository(CustomerRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        entityManagerFactoryBean.destroy();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+    }
+
+    @Test
+    void findWithAccountByMobileNumberUsesIndexes() throws SQLException {
+        issuedSql.clear();
+        assertTrue(customerRepository.findWithAccountByMobileNumber("1000000042").isPresent());
+
+        String plan = explain(issuedSql, "1000000042");
+        assertTrue(plan.contains("uk_customer_mobile_number"), plan);
+        assertTrue(plan.contains("idx_accounts_customer_id"), plan);
+    }
+
+    @Test
+    void findAllWithAccountByMobileNumberInUsesIndexes() throws SQLException {
+        issuedSql.clear();
+        assertEquals(3, customerRepository.findAllWithAccountByMobileNumberIn(
+                List.of("1000000001", "1000000042", "1000000099")).size());
+
+        String plan = explain(issuedSql, "1000000001", "1000000042", "1000000099");
+        assertTrue(plan.contains("uk_customer_mobile_number"), plan);
+        assertTrue(plan.contains("idx_accounts_customer_id"), plan);
+    }
+
+    /**
+     * @param sql - the statements the lookup issued, which must be a single query
+     * @param parameters - the lookup's parameters, bound in order
+     */
+    private String explain(List<String> sql, String... parameters) throws SQLException {
+        assertEquals(1, sql.size(), "expected one statement, got " + sql);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql.get(0))) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1).toLowerCase();
+            }
+        }
+    }
+}
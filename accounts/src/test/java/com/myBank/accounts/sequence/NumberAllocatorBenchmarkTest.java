@@ -0,0 +1,123 @@
+package com.myBank.accounts.sequence;
+
+import com.myBank.accounts.entity.NumberSegment;
+import com.myBank.accounts.repository.NumberSegmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contention benchmark: several allocators, standing in for service instances, share one segment row whose lock
+ * is simulated by a monitor held for a database round trip. Every thread of every instance allocates at once,
+ * and all numbers handed out must be distinct.
+ */
+class NumberAllocatorBenchmarkTest {
+
+    private static final long START = 10900000000L;
+    private static final long LEASE_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final int INSTANCES = 2;
+    private static final int THREADS_PER_INSTANCE = 8;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(INSTANCES * THREADS_PER_INSTANCE);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void numbersAreUniqueAcrossThreadsAndInstances() throws Exception {
+        long[] numbers = allocate(100, 200_000);
+
+        Arrays.sort(numbers);
+        for (int i = 1; i < numbers.length; i++) {
+            assertTrue(numbers[i] != numbers[i - 1], "duplicate number " + numbers[i]);
+        }
+        assertTrue(numbers[0] >= START);
+    }
+
+    @Test
+    void leasingBlocksRemovesTheDatabaseFromTheHotPath() throws Exception {
+        double perNumber = throughput(1, 2_000);
+        double perBlock = throughput(100, 200_000);
+        double perLargeBlock = throughput(1_000, 200_000);
+        String throughputs = String.format("block=1 %.0f/ms, block=100 %.0f/ms, block=1000 %.0f/ms",
+                perNumber, perBlock, perLargeBlock);
+
+        assertTrue(perBlock > 10 * perNumber, throughputs);
+        assertTrue(perLargeBlock > 10 * perNumber, throughputs);
+    }
+
+    private double throughput(int blockSize, int total) throws Exception {
+        long start = System.nanoTime();
+        long[] numbers = allocate(blockSize, total);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        assertEquals(total, numbers.length);
+        return total / millis;
+    }
+
+    private long[] allocate(int blockSize, int total) throws Exception {
+        NumberSegment row = new NumberSegment("account_number", START);
+        Object rowLock = new Object();
+        TransactionOperations lockingTransaction = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                synchronized (rowLock) {
+                    LockSupport.parkNanos(LEASE_LATENCY_NANOS);
+                    return action.doInTransaction(null);
+                }
+            }
+        };
+        NumberSegmentRepository numberSegmentRepository = mock(NumberSegmentRepository.class);
+        when(numberSegmentRepository.findForUpdate(anyString())).thenReturn(Optional.of(row));
+        when(numberSegmentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int threads = INSTANCES * THREADS_PER_INSTANCE;
+        int perThread = total / threads;
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            NumberAllocator allocator = new NumberAllocator("account_number", blockSize, numberSegmentRepository,
+                    lockingTransaction);
+            for (int thread = 0; thread < THREADS_PER_INSTANCE; thread++) {
+                results.add(pool.submit(() -> {
+                    startSignal.await();
+                    long[] allocated = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        allocated[i] = allocator.next();
+                    }
+                    return allocated;
+                }));
+            }
+        }
+        startSignal.countDown();
+
+        long[] numbers = new long[perThread * threads];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] allocated = result.get(60, TimeUnit.SECONDS);
+            System.arraycopy(allocated, 0, numbers, offset, allocated.length);
+            offset += allocated.length;
+        }
+        return numbers;
+    }
+}
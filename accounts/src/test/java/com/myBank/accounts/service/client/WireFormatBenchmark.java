@@ -0,0 +1,119 @@
+package com.myBank.accounts.service.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.LoansDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and Smile encodings of the batch responses accounts receives from cards and loans: payload size
+ * (logged at debug level once per trial) and encode/decode cost. {@code size} 1 is a single {@code /api/fetch}, larger sizes a
+ * {@code /api/fetchBatch} chunk.
+ * <p>
+ * Run with {@code mvn test-compile} followed by {@code java -cp <test classpath> com.myBank.accounts.service.client.WireFormatBenchmark}
+ * or from the IDE through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final TypeReference<List<CardsDto>> CARDS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<LoansDto>> LOANS = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<CardsDto> cards;
+    private List<LoansDto> loans;
+    private byte[] cardsPayload;
+    private byte[] loansPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = "smile".equals(format) ? new SmileMapper() : new ObjectMapper();
+        cards = new ArrayList<>(size);
+        loans = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String mobileNumber = String.valueOf(4354437687L + i);
+            CardsDto cardsDto = new CardsDto();
+            cardsDto.setMobileNumber(mobileNumber);
+            cardsDto.setCardNumber(String.valueOf(100646930341L + i));
+            cardsDto.setCardType("Credit Card");
+            cardsDto.setTotalLimit(100000);
+            cardsDto.setAmountUsed(1000 + i);
+            cardsDto.setAvailableAmount(99000 - i);
+            cards.add(cardsDto);
+            LoansDto loansDto = new LoansDto();
+            loansDto.setMobileNumber(mobileNumber);
+            loansDto.setLoanNumber(String.valueOf(548732457654L + i));
+            loansDto.setLoanType("Home Loan");
+            loansDto.setTotalLoan(100000);
+            loansDto.setAmountPaid(1000 + i);
+            loansDto.setOutstandingAmount(99000 - i);
+            loans.add(loansDto);
+        }
+        cardsPayload = mapper.writeValueAsBytes(cards);
+        loansPayload = mapper.writeValueAsBytes(loans);
+        logger.debug("{}, {} per response: cards {} bytes, loans {} bytes",
+                format, size, cardsPayload.length, loansPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCards() throws IOException {
+        return mapper.writeValueAsBytes(cards);
+    }
+
+    @Benchmark
+    public List<CardsDto> decodeCards() throws IOException {
+        return mapper.readValue(cardsPayload, CARDS);
+    }
+
+    @Benchmark
+    public byte[] encodeLoans() throws IOException {
+        return mapper.writeValueAsBytes(loans);
+    }
+
+    @Benchmark
+    public List<LoansDto> decodeLoans() throws IOException {
+        return mapper.readValue(loansPayload, LOANS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WireFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
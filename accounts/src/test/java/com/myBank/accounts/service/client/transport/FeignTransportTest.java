@@ -0,0 +1,137 @@
+package com.myBank.accounts.service.client.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeignTransportTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                body = new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes();
+                exchange.getResponseHeaders().add("X-Was-Gzipped", "true");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+        pool.shutdownNow();
+    }
+
+    @Test
+    void largeBodiesAreGzippedAndConnectionsReused() throws IOException {
+        OkHttpClient client = client(8, Duration.ofSeconds(1));
+        String large = "4354437687,".repeat(500);
+
+        try (Response response = client.newCall(post("/echo", large)).execute()) {
+            assertEquals("true", response.header("X-Was-Gzipped"));
+            assertEquals(large, response.body().string());
+        }
+        try (Response response = client.newCall(post("/echo", "small")).execute()) {
+            assertNull(response.header("X-Was-Gzipped"));
+            assertEquals("small", response.body().string());
+        }
+
+        assertEquals(1, meterRegistry.get("feign.transport.connection.acquire").tag("connection", "new").timer().count());
+        assertEquals(1, meterRegistry.get("feign.transport.connection.acquire").tag("connection", "reused").timer().count());
+    }
+
+    @Test
+    void saturatedHostRejectsAfterAcquireTimeout() throws Exception {
+        OkHttpClient client = client(1, Duration.ofMillis(100));
+        Future<?> inFlight = pool.submit(() -> {
+            client.newCall(get("/slow")).execute().close();
+            return null;
+        });
+        waitUntilActive(1);
+
+        IOException ex = assertThrows(IOException.class, () -> client.newCall(get("/slow")).execute());
+        assertTrue(ex.getMessage().contains("saturated"), ex.getMessage());
+        assertEquals(1.0, meterRegistry.get("feign.transport.saturation").gauge().value());
+        assertEquals(1.0, meterRegistry.get("feign.transport.rejected").counter().count());
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        assertEquals(0.0, meterRegistry.get("feign.transport.saturation").gauge().value());
+    }
+
+    private OkHttpClient client(int maxRequestsPerHost, Duration acquireTimeout) {
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                .addInterceptor(new PerHostLimitInterceptor(maxRequestsPerHost, acquireTimeout, meterRegistry))
+                .addInterceptor(new GzipRequestInterceptor(1024))
+                .eventListenerFactory(ConnectionAcquireEventListener.factory(meterRegistry))
+                .build();
+    }
+
+    private void waitUntilActive(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("feign.transport.requests.active").gauge() == null
+                || meterRegistry.get("feign.transport.requests.active").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "request never went in flight");
+            Thread.sleep(5);
+        }
+    }
+
+    private Request get(String path) {
+        return new Request.Builder().url("http://127.0.0.1:" + server.getAddress().getPort() + path).build();
+    }
+
+    private Request post(String path, String body) {
+        return new Request.Builder()
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + path)
+                .post(RequestBody.create(body.getBytes(StandardCharsets.UTF_8), MediaType.get("text/plain")))
+                .build();
+    }
+}
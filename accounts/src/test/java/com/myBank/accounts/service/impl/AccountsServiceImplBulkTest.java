@@ -0,0 +1,194 @@
+package com.myBank.accounts.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.config.BulkOnboardingProperties;
+import com.myBank.accounts.config.ExportProperties;
+import com.myBank.accounts.dto.BulkCreateResultDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.dto.CustomerPageDto;
+import com.myBank.accounts.entity.Accounts;
+import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.entity.NumberSegment;
+import com.myBank.accounts.event.AccountsEventPublisher;
+import com.myBank.accounts.export.AccountsExporter;
+import com.myBank.accounts.repository.AccountsRepository;
+import com.myBank.accounts.repository.CustomerRepository;
+import com.myBank.accounts.repository.NumberSegmentRepository;
+import com.myBank.accounts.sequence.NumberAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs bulk onboarding against H2 through Hibernate and checks the per-row outcome and that the inserts are
+ * sent as JDBC batches rather than one statement per row.
+ */
+class AccountsServiceImplBulkTest {
+
+    private static final int ROWS = 250;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private AccountsServiceImpl accountsService;
+    private CustomerRepository customerRepository;
+    private Statistics statistics;
+    private ValidatorFactory validatorFactory;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.myBank.accounts.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.jdbc.batch_size", "100",
+                "hibernate.order_inserts", "true",
+                "hibernate.generate_statistics", "true"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        customerRepository = repositoryFactory.getRepository(CustomerRepository.class);
+        NumberSegmentRepository numberSegmentRepository = repositoryFactory.getRepository(NumberSegmentRepository.class);
+        transactionTemplate.executeWithoutResult(status ->
+                numberSegmentRepository.save(new NumberSegment("account_number", 10900000000L)));
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+
+        accountsService = new AccountsServiceImpl(repositoryFactory.getRepository(AccountsRepository.class),
+                customerRepository,
+                new NumberAllocator("account_number", 100, numberSegmentRepository, transactionTemplate),
+                entityManager, transactionTemplate, validatorFactory.getValidator(), new ObjectMapper(),
+                new BulkOnboardingProperties(),
+                new NearCache<>("accounts", 100, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                mock(AccountsEventPublisher.class),
+                new AccountsExporter(new JdbcTemplate(dataSource), new ExportProperties()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Customer existing = new Customer(null, "Existing Customer", "existing@example.com", "1000000007");
+            existing.setCreatedBy("TEST");
+            entityManager.persist(existing);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+        entityManagerFactoryBean.destroy();
+    }
+
+    @Test
+    void createsRowsInJdbcBatchesAndReportsEveryRow() {
+        StringBuilder body = new StringBuilder("name,email,mobileNumber\n");
+        for (int i = 0; i < ROWS; i++) {
+            body.append("\"Customer, No ").append(i).append("\",c").append(i).append("@example.com,")
+                    .append(1000000000L + i).append('\n');
+        }
+        body.append("Bad,not-an-email,123\n");
+        body.append("Customer Again,again@example.com,1000000001\n");
+
+        statistics.clear();
+        List<BulkCreateResultDto> results = createAccounts(body.toString(), MediaType.parseMediaType("text/csv"));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(ROWS + 2, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).getRow());
+        }
+        assertEquals(BulkCreateResultDto.ALREADY_EXISTS, results.get(7).getStatus());
+        assertEquals(BulkCreateResultDto.INVALID, results.get(ROWS).getStatus());
+        assertEquals(BulkCreateResultDto.DUPLICATE_ROW, results.get(ROWS + 1).getStatus());
+        long created = results.stream().filter(result -> BulkCreateResultDto.CREATED.equals(result.getStatus())).count();
+        assertEquals(ROWS - 1, created);
+        assertNotNull(results.get(0).getAccountNumber());
+        assertEquals("Customer, No 0", customerRepository.findByMobileNumber("1000000000").orElseThrow().getName());
+        assertEquals(ROWS, customerRepository.count());
+        assertTrue(statements < 30, "inserts were not batched, " + statements + " statements prepared");
+    }
+
+    @Test
+    void readsNdjsonAndReportsMalformedLines() {
+        String body = "{\"name\":\"Ndjson Customer\",\"email\":\"n@example.com\",\"mobileNumber\":\"2000000000\"}\n" +
+                "\n" +
+                "{not json\n";
+
+        List<BulkCreateResultDto> results = createAccounts(body, MediaType.APPLICATION_NDJSON);
+
+        assertEquals(2, results.size());
+        assertEquals(BulkCreateResultDto.CREATED, results.get(0).getStatus());
+        assertEquals(BulkCreateResultDto.INVALID, results.get(1).getStatus());
+        Accounts accounts = customerRepository.findWithAccountByMobileNumber("2000000000").orElseThrow().getAccounts();
+        assertEquals(results.get(0).getAccountNumber(), accounts.getAccountNumber());
+    }
+
+    @Test
+    void pagesAndExportsEveryCustomerOnceInCustomerIdOrder() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            body.append("Customer ").append(i).append(",c").append(i).append("@example.com,")
+                    .append(3000000000L + i).append('\n');
+        }
+        createAccounts(body.toString(), MediaType.parseMediaType("text/csv"));
+
+        List<CustomerDto> paged = new ArrayList<>();
+        Long cursor = 0L;
+        int pages = 0;
+        while (cursor != null) {
+            CustomerPageDto page = accountsService.listAccounts(cursor, 100);
+            paged.addAll(page.getCustomers());
+            cursor = page.getNextCursor();
+            pages++;
+        }
+        List<CustomerDto> exported = new ArrayList<>();
+        accountsService.exportAccounts(exported::add);
+
+        assertEquals(3, pages);
+        assertEquals(ROWS + 1, paged.size());
+        assertNull(paged.get(0).getAccountsDto(), "the existing customer has no account");
+        assertEquals("3000000000", paged.get(1).getMobileNumber());
+        assertNotNull(paged.get(1).getAccountsDto().getAccountNumber());
+        assertEquals(paged, exported);
+    }
+
+    private List<BulkCreateResultDto> createAccounts(String body, MediaType contentType) {
+        List<BulkCreateResultDto> results = new ArrayList<>();
+        accountsService.createAccounts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType,
+                results::addAll);
+        return results;
+    }
+}
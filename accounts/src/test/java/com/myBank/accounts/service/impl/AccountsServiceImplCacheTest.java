@@ -0,0 +1,112 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.dto.AccountsDto;
+import com.myBank.accounts.dto.CustomerDto;
+import com.myBank.accounts.entity.Accounts;
+import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.event.AccountsEventPublisher;
+import com.myBank.accounts.exception.ResourceNotFoundException;
+import com.myBank.accounts.repository.AccountsRepository;
+import com.myBank.accounts.repository.CustomerAccountView;
+import com.myBank.accounts.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountsServiceImplCacheTest {
+
+    private static final String MOBILE_NUMBER = "4354437687";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AccountsRepository accountsRepository = mock(AccountsRepository.class);
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final AccountsEventPublisher accountsEventPublisher = mock(AccountsEventPublisher.class);
+    private NearCache<CustomerDto> accountsNearCache;
+    private AccountsServiceImpl accountsService;
+    private Customer customer;
+    private Accounts accounts;
+
+    @BeforeEach
+    void setUp() {
+        accountsNearCache = new NearCache<>("accounts", 100, Duration.ofMinutes(1), meterRegistry);
+        accountsService = new AccountsServiceImpl(accountsRepository, customerRepository, null, null, null, null, null,
+                null, accountsNearCache, accountsEventPublisher, null);
+        customer = new Customer(1L, "Customer", "customer@example.com", MOBILE_NUMBER);
+        accounts = new Accounts();
+        accounts.setCustomerId(1L);
+        accounts.setAccountNumber(10900000001L);
+        when(customerRepository.findWithAccountByMobileNumber(MOBILE_NUMBER))
+                .thenAnswer(invocation -> Optional.of(new CustomerAccountView(customer, accounts)));
+        // stands in for the bus delivering the event back to this instance
+        doAnswer(invocation -> {
+            accountsNearCache.evict(invocation.getArgument(0));
+            return null;
+        }).when(accountsEventPublisher).publishAccountChanged(any());
+    }
+
+    @Test
+    void repeatedFetchesAreServedFromTheCache() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(10900000001L, accountsService.fetchAccount(MOBILE_NUMBER).getAccountsDto().getAccountNumber());
+        }
+
+        verify(customerRepository, times(1)).findWithAccountByMobileNumber(MOBILE_NUMBER);
+        assertEquals(4.0, meterRegistry.get("cache.gets").tags("cache", "accounts", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "accounts", "result", "miss").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.load.latency").tag("cache", "accounts").timer().count());
+    }
+
+    @Test
+    void updateAndDeleteInvalidateTheEntry() {
+        accountsService.fetchAccount(MOBILE_NUMBER);
+        when(accountsRepository.findById(10900000001L)).thenReturn(Optional.of(accounts));
+        when(accountsRepository.save(any())).thenReturn(accounts);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        CustomerDto update = new CustomerDto();
+        update.setName("Renamed Customer");
+        update.setEmail("customer@example.com");
+        update.setMobileNumber(MOBILE_NUMBER);
+        AccountsDto accountsDto = new AccountsDto();
+        accountsDto.setAccountNumber(10900000001L);
+        accountsDto.setAccountType("Savings");
+        accountsDto.setBranchAddress("Branch");
+        update.setAccountsDto(accountsDto);
+
+        accountsService.updateAccount(update);
+
+        assertEquals("Renamed Customer", accountsService.fetchAccount(MOBILE_NUMBER).getName());
+        verify(accountsEventPublisher).publishAccountChanged(MOBILE_NUMBER);
+
+        when(customerRepository.findByMobileNumber(MOBILE_NUMBER)).thenReturn(Optional.of(customer));
+        accountsService.deleteAccount(MOBILE_NUMBER);
+        when(customerRepository.findWithAccountByMobileNumber(MOBILE_NUMBER)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> accountsService.fetchAccount(MOBILE_NUMBER));
+        verify(customerRepository, times(3)).findWithAccountByMobileNumber(MOBILE_NUMBER);
+    }
+
+    @Test
+    void notFoundIsNotCached() {
+        when(customerRepository.findWithAccountByMobileNumber("1111111111")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> accountsService.fetchAccount("1111111111"));
+        assertThrows(ResourceNotFoundException.class, () -> accountsService.fetchAccount("1111111111"));
+
+        verify(customerRepository, times(2)).findWithAccountByMobileNumber("1111111111");
+        verify(accountsEventPublisher, never()).publishAccountChanged(any());
+    }
+}
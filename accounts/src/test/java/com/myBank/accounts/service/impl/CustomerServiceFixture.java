@@ -0,0 +1,110 @@
+package com.myBank.accounts.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myBank.accounts.cache.NearCache;
+import com.myBank.accounts.cache.SingleFlight;
+import com.myBank.accounts.cache.SnapshotStore;
+import com.myBank.accounts.config.CustomerDetailsProperties;
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.LoansDto;
+import com.myBank.accounts.entity.Accounts;
+import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.repository.CustomerAccountView;
+import com.myBank.accounts.repository.CustomerRepository;
+import com.myBank.accounts.service.client.CardsFeignClient;
+import com.myBank.accounts.service.client.LoansFeignClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * A {@link CustomerServiceImpl} over a mocked repository and Feign clients, shared by the tests of its features.
+ * The single-customer lookups are stubbed to answer after the given latencies; tests override what they need.
+ */
+public class CustomerServiceFixture implements AutoCloseable {
+
+    public static final String MOBILE_NUMBER = "4354437687";
+
+    public final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    public final CardsFeignClient cardsFeignClient = mock(CardsFeignClient.class);
+    public final LoansFeignClient loansFeignClient = mock(LoansFeignClient.class);
+    public final ExecutorService pool = Executors.newFixedThreadPool(8);
+    public final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    public final SnapshotStore<CardsDto> cardsSnapshotStore =
+            new SnapshotStore<>("cards.snapshot", 1_000_000, Duration.ofHours(1), new ObjectMapper(), meterRegistry);
+    public final SnapshotStore<LoansDto> loansSnapshotStore =
+            new SnapshotStore<>("loans.snapshot", 1_000_000, Duration.ofHours(1), new ObjectMapper(), meterRegistry);
+    public final NearCache<CardsDto> cardsNearCache;
+    public final NearCache<LoansDto> loansNearCache;
+    public final NearCache<Boolean> cardsAbsentCache = new NearCache<>("cards-absent", 100, Duration.ofMinutes(1), meterRegistry);
+    public final NearCache<Boolean> loansAbsentCache = new NearCache<>("loans-absent", 100, Duration.ofMinutes(1), meterRegistry);
+
+    /**
+     * @param nearCacheSize - 0 for near-caches that keep nothing, so every call reaches the stubbed downstreams
+     */
+    public CustomerServiceFixture(long nearCacheSize, long dbLatencyMillis, long downstreamLatencyMillis) {
+        cardsNearCache = new NearCache<>("cards", nearCacheSize, Duration.ofMinutes(1), meterRegistry);
+        loansNearCache = new NearCache<>("loans", nearCacheSize, Duration.ofMinutes(1), meterRegistry);
+        Customer customer = new Customer(1L, "Piyush Kumar", "piyush@example.com", MOBILE_NUMBER);
+        Accounts accounts = new Accounts(1L, 1234567890L, "Savings", "Pune");
+        when(customerRepository.findWithAccountByMobileNumber(anyString()))
+                .thenAnswer(invocation -> delayed(dbLatencyMillis, Optional.of(new CustomerAccountView(customer, accounts))));
+        when(loansFeignClient.fetchLoanDetails(anyString(), anyString()))
+                .thenAnswer(invocation -> delayed(downstreamLatencyMillis, ok(loans(invocation.getArgument(1)))));
+        when(cardsFeignClient.fetchCardDetails(anyString(), anyString()))
+                .thenAnswer(invocation -> delayed(downstreamLatencyMillis, ok(cards(invocation.getArgument(1)))));
+    }
+
+    public CustomerServiceImpl service(Duration timeout) {
+        return service(pool, timeout);
+    }
+
+    /**
+     * @param executor - e.g. {@code Runnable::run} to run the fan-out sequentially on the calling thread
+     */
+    public CustomerServiceImpl service(Executor executor, Duration timeout) {
+        return service(executor, timeout, timeout);
+    }
+
+    /**
+     * @param maxWait - how long a coalesced caller waits for the leader, the timeout in production
+     */
+    public CustomerServiceImpl service(Executor executor, Duration timeout, Duration maxWait) {
+        CustomerDetailsProperties properties = new CustomerDetailsProperties();
+        properties.setTimeout(timeout);
+        return new CustomerServiceImpl(customerRepository, cardsFeignClient, loansFeignClient, executor, properties,
+                cardsNearCache, loansNearCache, cardsSnapshotStore, loansSnapshotStore,
+                new SingleFlight<>("customer-details", maxWait, meterRegistry), cardsAbsentCache, loansAbsentCache);
+    }
+
+    public static CardsDto cards(String mobileNumber) {
+        CardsDto cardsDto = new CardsDto();
+        cardsDto.setMobileNumber(mobileNumber);
+        return cardsDto;
+    }
+
+    public static LoansDto loans(String mobileNumber) {
+        LoansDto loansDto = new LoansDto();
+        loansDto.setMobileNumber(mobileNumber);
+        return loansDto;
+    }
+
+    public static <T> T delayed(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
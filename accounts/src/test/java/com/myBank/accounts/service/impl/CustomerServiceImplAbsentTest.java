@@ -0,0 +1,47 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.cards;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerServiceImplAbsentTest {
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(0, 0, 20);
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void absentCardIsEmptyAndRememberedWithoutTrippingAnything() {
+        fixture.cardsSnapshotStore.record(MOBILE_NUMBER, cards(MOBILE_NUMBER));
+        when(fixture.cardsFeignClient.fetchCardDetails(anyString(), anyString()))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        CustomerServiceImpl service = fixture.service(Duration.ofSeconds(3));
+
+        CustomerDetailsDto first = service.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+        CustomerDetailsDto second = service.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+
+        assertNull(first.getCardsDto());
+        assertNull(first.getCardsFreshness());
+        assertNull(second.getCardsDto());
+        assertNotNull(second.getLoansDto());
+        assertTrue(fixture.cardsSnapshotStore.find(MOBILE_NUMBER).isEmpty(), "stale snapshot of a removed card was kept");
+        verify(fixture.cardsFeignClient, times(1)).fetchCardDetails(anyString(), anyString());
+    }
+}
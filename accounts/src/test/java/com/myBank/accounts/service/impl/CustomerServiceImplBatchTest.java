@@ -0,0 +1,104 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.entity.Accounts;
+import com.myBank.accounts.entity.Customer;
+import com.myBank.accounts.repository.CustomerAccountView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.cards;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.loans;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * One chunk mixing a mobile number served from the near-caches, one fetched from cards and loans, one that has
+ * neither a card nor a loan, and one without a customer.
+ */
+class CustomerServiceImplBatchTest {
+
+    private static final String CACHED = "4354437680";
+    private static final String FETCHED = "4354437681";
+    private static final String ABSENT = "4354437682";
+    private static final String UNKNOWN = "4354437683";
+    private static final List<String> MOBILE_NUMBERS = List.of(CACHED, FETCHED, ABSENT, UNKNOWN, FETCHED);
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(100, 0, 0);
+    private final CustomerServiceImpl service = fixture.service(Duration.ofSeconds(3));
+
+    @BeforeEach
+    void stubBatchLookups() {
+        when(fixture.customerRepository.findAllWithAccountByMobileNumberIn(anyCollection()))
+                .thenReturn(List.of(customerAccount(1L, CACHED), customerAccount(2L, FETCHED), customerAccount(3L, ABSENT)));
+        when(fixture.cardsFeignClient.fetchCardDetailsBatch(anyString(), eq(List.of(FETCHED, ABSENT, UNKNOWN))))
+                .thenReturn(ok(List.of(cards(FETCHED))));
+        when(fixture.loansFeignClient.fetchLoanDetailsBatch(anyString(), eq(List.of(FETCHED, ABSENT, UNKNOWN))))
+                .thenReturn(ok(List.of(loans(FETCHED))));
+        fixture.cardsNearCache.put(CACHED, cards(CACHED));
+        fixture.loansNearCache.put(CACHED, loans(CACHED));
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void chunkMixesCachedFetchedAndAbsentNumbersInOneCallPerDownstream() {
+        Map<String, CustomerDetailsDto> customerDetails = fetchBatch();
+
+        assertEquals(List.of(CACHED, FETCHED, ABSENT), List.copyOf(customerDetails.keySet()));
+        assertEquals(CACHED, customerDetails.get(CACHED).getCardsDto().getMobileNumber());
+        assertEquals(CACHED, customerDetails.get(CACHED).getLoansDto().getMobileNumber());
+        assertEquals(FETCHED, customerDetails.get(FETCHED).getCardsDto().getMobileNumber());
+        assertEquals(FETCHED, customerDetails.get(FETCHED).getLoansDto().getMobileNumber());
+        assertNotNull(customerDetails.get(ABSENT).getAccountsDto());
+        assertNull(customerDetails.get(ABSENT).getCardsDto());
+        assertNull(customerDetails.get(ABSENT).getLoansDto());
+        verify(fixture.cardsFeignClient, times(1)).fetchCardDetailsBatch(anyString(), eq(List.of(FETCHED, ABSENT, UNKNOWN)));
+        verify(fixture.loansFeignClient, times(1)).fetchLoanDetailsBatch(anyString(), eq(List.of(FETCHED, ABSENT, UNKNOWN)));
+    }
+
+    @Test
+    void nextBatchIsAnsweredFromTheNearAndAbsentCachesWithoutDownstreamCalls() {
+        fetchBatch();
+        Map<String, CustomerDetailsDto> customerDetails = fetchBatch();
+
+        assertEquals(FETCHED, customerDetails.get(FETCHED).getCardsDto().getMobileNumber());
+        assertNull(customerDetails.get(ABSENT).getCardsDto());
+        assertNull(customerDetails.get(ABSENT).getLoansDto());
+        verify(fixture.cardsFeignClient, times(1)).fetchCardDetailsBatch(anyString(), anyList());
+        verify(fixture.loansFeignClient, times(1)).fetchLoanDetailsBatch(anyString(), anyList());
+    }
+
+    private Map<String, CustomerDetailsDto> fetchBatch() {
+        List<CustomerDetailsDto> customerDetails = new ArrayList<>();
+        service.fetchCustomerDetailsBatch(MOBILE_NUMBERS, "batch", customerDetails::addAll);
+        return customerDetails.stream().collect(Collectors.toMap(CustomerDetailsDto::getMobileNumber,
+                Function.identity(), (first, second) -> first, LinkedHashMap::new));
+    }
+
+    private static CustomerAccountView customerAccount(long customerId, String mobileNumber) {
+        return new CustomerAccountView(new Customer(customerId, "Piyush Kumar", "piyush@example.com", mobileNumber),
+                new Accounts(customerId, 1234567890L + customerId, "Savings", "Pune"));
+    }
+}
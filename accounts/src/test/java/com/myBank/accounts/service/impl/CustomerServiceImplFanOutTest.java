@@ -0,0 +1,145 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.exception.LookupTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.cards;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.delayed;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.loans;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * Compares fetchCustomerDetails latency with stubbed slow repositories and downstreams, running the
+ * same service once on a caller-runs executor (the old sequential behaviour) and once on a pool.
+ */
+class CustomerServiceImplFanOutTest {
+
+    private static final long DB_LATENCY_MS = 40;
+    private static final long DOWNSTREAM_LATENCY_MS = 150;
+    private static final int ITERATIONS = 5;
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(0, DB_LATENCY_MS, DOWNSTREAM_LATENCY_MS);
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void parallelFanOutIsBoundedBySlowestCall() {
+        CustomerServiceImpl sequential = fixture.service(Runnable::run, Duration.ofSeconds(3));
+        CustomerServiceImpl parallel = fixture.service(Duration.ofSeconds(3));
+
+        CustomerDetailsDto customerDetailsDto = parallel.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+        assertNotNull(customerDetailsDto.getAccountsDto());
+        assertNotNull(customerDetailsDto.getLoansDto());
+        assertNotNull(customerDetailsDto.getCardsDto());
+
+        long sequentialMillis = averageMillis(sequential);
+        long parallelMillis = averageMillis(parallel);
+
+        assertTrue(sequentialMillis >= DB_LATENCY_MS + 2 * DOWNSTREAM_LATENCY_MS,
+                "sequential lookup took only " + sequentialMillis + "ms");
+        assertTrue(parallelMillis < DB_LATENCY_MS + 2 * DOWNSTREAM_LATENCY_MS - DOWNSTREAM_LATENCY_MS / 2,
+                "parallel lookup took " + parallelMillis + "ms against " + sequentialMillis + "ms sequentially");
+    }
+
+    @Test
+    void slowDownstreamIsDroppedAfterDeadline() {
+        when(fixture.cardsFeignClient.fetchCardDetails(anyString(), anyString()))
+                .thenAnswer(invocation -> delayed(1_000, ok(cards(MOBILE_NUMBER))));
+        CustomerServiceImpl parallel = fixture.service(Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        CustomerDetailsDto customerDetailsDto = parallel.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(customerDetailsDto.getLoansDto());
+        assertNull(customerDetailsDto.getCardsDto());
+        assertTrue(elapsedMillis < 1_000, "deadline was not applied, took " + elapsedMillis + "ms");
+        assertEquals(MOBILE_NUMBER, customerDetailsDto.getMobileNumber());
+    }
+
+    @Test
+    void slowAccountLookupFailsWithLookupTimeout() {
+        when(fixture.customerRepository.findWithAccountByMobileNumber(anyString()))
+                .thenAnswer(invocation -> delayed(1_000, Optional.empty()));
+        CustomerServiceImpl parallel = fixture.service(Duration.ofMillis(300));
+
+        LookupTimeoutException ex = assertThrows(LookupTimeoutException.class,
+                () -> parallel.fetchCustomerDetails(MOBILE_NUMBER, "bench"));
+        assertTrue(ex.getMessage().contains(MOBILE_NUMBER), ex.getMessage());
+        assertThrows(LookupTimeoutException.class,
+                () -> parallel.streamCustomerDetails(MOBILE_NUMBER, "bench", section -> { }));
+    }
+
+    @Test
+    void slowBatchAccountLookupFailsWithLookupTimeout() {
+        when(fixture.customerRepository.findAllWithAccountByMobileNumberIn(anyCollection()))
+                .thenAnswer(invocation -> delayed(1_000, List.of()));
+        CustomerServiceImpl parallel = fixture.service(Duration.ofMillis(300));
+
+        assertThrows(LookupTimeoutException.class,
+                () -> parallel.fetchCustomerDetailsBatch(List.of(MOBILE_NUMBER), "bench", chunk -> { }));
+    }
+
+    @Test
+    void rejectedAccountLookupFailsWithLookupTimeoutInsteadOfRunningOnTheCaller() {
+        CustomerServiceImpl saturated = fixture.service(task -> {
+            throw new RejectedExecutionException("pool saturated");
+        }, Duration.ofMillis(300));
+
+        assertThrows(LookupTimeoutException.class, () -> saturated.fetchCustomerDetails(MOBILE_NUMBER, "bench"));
+        assertThrows(LookupTimeoutException.class,
+                () -> saturated.fetchCustomerDetailsBatch(List.of(MOBILE_NUMBER), "bench", chunk -> { }));
+        verifyNoInteractions(fixture.customerRepository);
+    }
+
+    @Test
+    void rejectedDownstreamCallsAreAnsweredFromTheSnapshot() {
+        fixture.cardsSnapshotStore.record(MOBILE_NUMBER, cards(MOBILE_NUMBER));
+        fixture.loansSnapshotStore.record(MOBILE_NUMBER, loans(MOBILE_NUMBER));
+        AtomicInteger submitted = new AtomicInteger();
+        CustomerServiceImpl saturated = fixture.service(task -> {
+            if (submitted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("pool saturated");
+            }
+            fixture.pool.execute(task);
+        }, Duration.ofMillis(300));
+
+        CustomerDetailsDto customerDetailsDto = saturated.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+
+        assertNotNull(customerDetailsDto.getAccountsDto());
+        assertNotNull(customerDetailsDto.getCardsFreshness());
+        assertNotNull(customerDetailsDto.getLoansFreshness());
+        verifyNoInteractions(fixture.cardsFeignClient, fixture.loansFeignClient);
+    }
+
+    private long averageMillis(CustomerServiceImpl service) {
+        long totalNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            service.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+            totalNanos += System.nanoTime() - start;
+        }
+        return totalNanos / ITERATIONS / 1_000_000;
+    }
+}
@@ -0,0 +1,50 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import com.myBank.accounts.exception.LookupTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CustomerServiceImplSingleFlightTest {
+
+    private static final long DB_LATENCY_MS = 500;
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(0, DB_LATENCY_MS, 20);
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void waiterThatGivesUpOnTheLeaderFailsWithLookupTimeout() throws Exception {
+        CustomerServiceImpl service = fixture.service(fixture.pool, Duration.ofSeconds(3), Duration.ofMillis(100));
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<CustomerDetailsDto> leader = CompletableFuture.supplyAsync(() -> {
+            leaderStarted.countDown();
+            return service.fetchCustomerDetails(MOBILE_NUMBER, "leader");
+        });
+        assertTrue(leaderStarted.await(1, TimeUnit.SECONDS));
+        Thread.sleep(DB_LATENCY_MS / 5);
+
+        LookupTimeoutException ex = assertThrows(LookupTimeoutException.class,
+                () -> service.fetchCustomerDetails(MOBILE_NUMBER, "waiter"));
+
+        assertTrue(ex.getMessage().contains(MOBILE_NUMBER), ex.getMessage());
+        assertEquals(MOBILE_NUMBER, leader.get(2, TimeUnit.SECONDS).getMobileNumber());
+        verify(fixture.customerRepository, times(1)).findWithAccountByMobileNumber(anyString());
+    }
+}
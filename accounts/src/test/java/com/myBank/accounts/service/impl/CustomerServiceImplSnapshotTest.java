@@ -0,0 +1,43 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CardsDto;
+import com.myBank.accounts.dto.CustomerDetailsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.cards;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.delayed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.ResponseEntity.ok;
+
+class CustomerServiceImplSnapshotTest {
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(0, 0, 20);
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void slowDownstreamIsAnsweredFromSnapshotAfterDeadline() {
+        CardsDto lastKnownCards = cards(MOBILE_NUMBER);
+        fixture.cardsSnapshotStore.record(MOBILE_NUMBER, lastKnownCards);
+        when(fixture.cardsFeignClient.fetchCardDetails(anyString(), anyString()))
+                .thenAnswer(invocation -> delayed(1_000, ok(cards(MOBILE_NUMBER))));
+        CustomerServiceImpl service = fixture.service(Duration.ofMillis(300));
+
+        CustomerDetailsDto customerDetailsDto = service.fetchCustomerDetails(MOBILE_NUMBER, "bench");
+
+        assertSame(lastKnownCards, customerDetailsDto.getCardsDto());
+        assertEquals("SNAPSHOT", customerDetailsDto.getCardsFreshness().getSource());
+        assertNull(customerDetailsDto.getLoansFreshness());
+    }
+}
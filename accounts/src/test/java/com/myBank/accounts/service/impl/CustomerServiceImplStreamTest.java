@@ -0,0 +1,52 @@
+package com.myBank.accounts.service.impl;
+
+import com.myBank.accounts.dto.CustomerDetailsSectionDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.MOBILE_NUMBER;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.cards;
+import static com.myBank.accounts.service.impl.CustomerServiceFixture.delayed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.ResponseEntity.ok;
+
+class CustomerServiceImplStreamTest {
+
+    private static final long DOWNSTREAM_LATENCY_MS = 150;
+
+    private final CustomerServiceFixture fixture = new CustomerServiceFixture(0, 40, DOWNSTREAM_LATENCY_MS);
+
+    @AfterEach
+    void shutdownPool() {
+        fixture.close();
+    }
+
+    @Test
+    void streamSendsAccountFirstThenSectionsAsTheyArrive() {
+        when(fixture.cardsFeignClient.fetchCardDetails(anyString(), anyString()))
+                .thenAnswer(invocation -> delayed(2 * DOWNSTREAM_LATENCY_MS, ok(cards(MOBILE_NUMBER))));
+        CustomerServiceImpl service = fixture.service(Duration.ofSeconds(3));
+        List<String> sections = new ArrayList<>();
+        List<Long> arrivalMillis = new ArrayList<>();
+
+        long start = System.nanoTime();
+        service.streamCustomerDetails(MOBILE_NUMBER, "bench", section -> {
+            sections.add(section.getSection());
+            arrivalMillis.add((System.nanoTime() - start) / 1_000_000);
+        });
+
+        assertEquals(List.of(CustomerDetailsSectionDto.ACCOUNT, CustomerDetailsSectionDto.LOANS,
+                CustomerDetailsSectionDto.CARDS), sections);
+        assertTrue(arrivalMillis.get(0) < DOWNSTREAM_LATENCY_MS,
+                "account section waited for a downstream, sections arrived at " + arrivalMillis + "ms");
+        assertTrue(arrivalMillis.get(1) < 2 * DOWNSTREAM_LATENCY_MS,
+                "loans section waited for cards, sections arrived at " + arrivalMillis + "ms");
+    }
+}
@@ -1,5 +1,11 @@
 package com.myBank.cards;
 
+import com.myBank.cards.config.BatchProperties;
+import com.myBank.cards.config.CardSpendProperties;
+import com.myBank.cards.config.ExportProperties;
+import com.myBank.cards.config.IdempotencyProperties;
+import com.myBank.cards.config.NumberAllocatorProperties;
+import com.myBank.cards.config.PortfolioProperties;
 import com.myBank.cards.dto.CardContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -9,6 +15,7 @@ import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
@@ -16,7 +23,10 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 @EnableJpaRepositories("com.eazybytes.cards.repository")
 @EntityScan("com.eazybytes.cards.model")*/
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {CardContactInfoDto.class})
+@RemoteApplicationEventScan(basePackages = "com.myBank.cards.event")
+@EnableConfigurationProperties(value = {CardContactInfoDto.class, NumberAllocatorProperties.class,
+		IdempotencyProperties.class, CardSpendProperties.class, PortfolioProperties.class,
+		ExportProperties.class, BatchProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Cards microservice REST API Documentation",
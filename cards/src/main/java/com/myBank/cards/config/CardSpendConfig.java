@@ -0,0 +1,44 @@
+package com.myBank.cards.config;
+
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.portfolio.CardPortfolio;
+import com.myBank.cards.spend.CardSpendTally;
+import com.myBank.cards.spend.CardSpendWriteBehind;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class CardSpendConfig {
+
+    /**
+     * Started only when {@code card-spend.write-behind} is on; stopping it writes all pending spend to the table.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CardSpendWriteBehind cardSpendWriteBehind(CardSpendProperties cardSpendProperties, JdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager,
+                                                     CardsEventPublisher cardsEventPublisher,
+                                                     AuditorAware<String> auditAwareImpl, CardPortfolio cardPortfolio) {
+        CardSpendWriteBehind cardSpendWriteBehind = new CardSpendWriteBehind(cardSpendProperties, jdbcTemplate,
+                new TransactionTemplate(transactionManager), cardsEventPublisher, auditAwareImpl);
+        if (cardSpendWriteBehind.isEnabled()) {
+            cardPortfolio.beforeReconcile(cardSpendWriteBehind::flush);
+        }
+        return cardSpendWriteBehind;
+    }
+
+    /**
+     * Stopping it records the spend still pending in the portfolio.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CardSpendTally cardSpendTally(CardSpendProperties cardSpendProperties, JdbcTemplate jdbcTemplate,
+                                         CardPortfolio cardPortfolio, CardsEventPublisher cardsEventPublisher) {
+        CardSpendTally cardSpendTally = new CardSpendTally(jdbcTemplate, cardPortfolio, cardsEventPublisher,
+                cardSpendProperties.getTallyInterval());
+        cardPortfolio.beforeReconcile(cardSpendTally::flush);
+        return cardSpendTally;
+    }
+}
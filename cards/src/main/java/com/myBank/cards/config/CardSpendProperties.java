@@ -0,0 +1,54 @@
+package com.myBank.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "card-spend")
+@Getter
+@Setter
+public class CardSpendProperties {
+
+    /**
+     * Approve charges and refunds against an in-memory view of each card and write them to the cards table in
+     * periodic group commits instead of one UPDATE per request. Only safe when every request for a card reaches
+     * the same instance.
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * How often the net change of every card is written to the cards table.
+     */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /**
+     * Directory of the journal every approved spend is made durable in before it is approved.
+     */
+    private Path journalDirectory = Path.of("data", "card-spend-journal");
+
+    /**
+     * Size after which the journal moves on to a new segment file; flushed segments are deleted.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Row of card_spend_checkpoint recording the last journal entry written to the cards table. Must be unique
+     * per instance running in write-behind mode.
+     */
+    private String checkpointName = "cards";
+
+    /**
+     * How long the view of a card with no spend in flight or pending is kept before it is reloaded from the table.
+     */
+    private Duration viewExpiry = Duration.ofMinutes(1);
+
+    /**
+     * How often the spend applied straight to the cards table is recorded in the portfolio and announced with one
+     * change event per card owner, when write-behind is off.
+     */
+    private Duration tallyInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,17 @@
+package com.myBank.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "export")
+@Getter
+@Setter
+public class ExportProperties {
+
+    /**
+     * Rows fetched per round trip while streaming an export. Only honoured by MySQL with {@code useCursorFetch=true}
+     * on the datasource URL; without it the driver reads the whole result into memory.
+     */
+    private int fetchSize = 1000;
+}
@@ -0,0 +1,27 @@
+package com.myBank.cards.config;
+
+import com.myBank.cards.repository.NumberSegmentRepository;
+import com.myBank.cards.sequence.NumberAllocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class NumberAllocatorConfig {
+
+    /**
+     * Leases run in their own transaction so the row lock is released as soon as the block is taken, whatever
+     * transaction the caller is in.
+     */
+    @Bean
+    public NumberAllocator cardNumberAllocator(NumberAllocatorProperties numberAllocatorProperties,
+                                               NumberSegmentRepository numberSegmentRepository,
+                                               PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new NumberAllocator("card_number", numberAllocatorProperties.getBlockSize(), numberSegmentRepository,
+                transactionTemplate);
+    }
+}
@@ -0,0 +1,22 @@
+package com.myBank.cards.config;
+
+import com.myBank.cards.portfolio.CardPortfolio;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class PortfolioConfig {
+
+    /**
+     * Stopping it flushes the changes still pending, so they are not lost with the instance.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CardPortfolio cardPortfolio(PortfolioProperties portfolioProperties, JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager) {
+        return new CardPortfolio(jdbcTemplate, new TransactionTemplate(transactionManager),
+                portfolioProperties.getFlushInterval(), portfolioProperties.getReconcileInterval());
+    }
+}
@@ -0,0 +1,24 @@
+package com.myBank.cards.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "portfolio")
+@Getter
+@Setter
+public class PortfolioProperties {
+
+    /**
+     * How often the changes recorded by this instance are added to the summary table, i.e. how far behind the
+     * totals of other instances the portfolio can be.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * How often the summary table is rebuilt from a full scan of the cards.
+     */
+    private Duration reconcileInterval = Duration.ofHours(1);
+}
@@ -1,8 +1,15 @@
 package com.myBank.cards.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.myBank.cards.constants.CardsConstants;
 import com.myBank.cards.dto.CardContactInfoDto;
+import com.myBank.cards.dto.CardPortfolioDto;
+import com.myBank.cards.dto.CardTransactionDto;
 import com.myBank.cards.dto.CardsDto;
+import com.myBank.cards.dto.CardsPageDto;
 import com.myBank.cards.dto.ErrorResponseDto;
 import com.myBank.cards.dto.ResponseDto;
 import com.myBank.cards.service.ICardsService;
@@ -13,7 +20,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +36,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 /**
  * @author Eazy Bytes
@@ -43,8 +59,11 @@ public class CardsController {
 
     private final ICardsService iCardsService;
 
-    public CardsController(ICardsService iCardsService) {
+    private final ObjectMapper objectMapper;
+
+    public CardsController(ICardsService iCardsService, ObjectMapper objectMapper) {
         this.iCardsService = iCardsService;
+        this.objectMapper = objectMapper;
     }
 
     @Autowired
@@ -92,6 +111,10 @@ public class CardsController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found, without a body: the customer has no card"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -100,15 +123,124 @@ public class CardsController {
                     )
             )
     })
-    @GetMapping("/fetch")
+    @GetMapping(value = "/fetch", produces = {MediaType.APPLICATION_JSON_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
     public ResponseEntity<CardsDto> fetchCardDetails(@RequestHeader("mybank-correlation-id")
                                                          String correlationId,
                                                      @RequestParam
                                                                @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
                                                                String mobileNumber) {
         logger.debug("myBank-correlation-id found {}", correlationId);
-        CardsDto cardsDto = iCardsService.fetchCard(mobileNumber);
-        return ResponseEntity.status(HttpStatus.OK).body(cardsDto);
+        return iCardsService.fetchCard(mobileNumber)
+                .map(cardsDto -> ResponseEntity.status(HttpStatus.OK).body(cardsDto))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .header(CardsConstants.RESOURCE_ABSENT_HEADER, "true")
+                        .build());
+    }
+
+    @Operation(
+            summary = "Fetch Card Details Batch REST API",
+            description = "REST API to fetch card details for a list of mobile numbers in a single lookup"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(value = "/fetchBatch", produces = {MediaType.APPLICATION_JSON_VALUE, CardsConstants.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(@RequestHeader("mybank-correlation-id")
+                                                                   String correlationId,
+                                                               @RequestBody
+                                                               @NotEmpty(message = "Mobile numbers can not be empty")
+                                                               List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+                                                                       String> mobileNumbers) {
+        logger.debug("myBank-correlation-id found {}", correlationId);
+        List<CardsDto> cardsDtos = iCardsService.fetchCards(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(cardsDtos);
+    }
+
+    @Operation(
+            summary = "List Cards REST API",
+            description = "REST API to page through all cards in card id order. Pass the nextCursor of a page to " +
+                    "get the next one; every page costs the same however deep it is"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/list")
+    public ResponseEntity<CardsPageDto> listCards(@RequestParam(defaultValue = "0")
+                                                  @PositiveOrZero(message = "Cursor must be zero or greater")
+                                                  long cursor,
+                                                  @RequestParam(defaultValue = "100")
+                                                  @Min(value = 1, message = "Size must be at least 1")
+                                                  @Max(value = 1000, message = "Size must be at most 1000")
+                                                  int size) {
+        return ResponseEntity.status(HttpStatus.OK).body(iCardsService.listCards(cursor, size));
+    }
+
+    @Operation(
+            summary = "Export Cards REST API",
+            description = "REST API to stream all cards as newline-delimited JSON in card id order, read through " +
+                    "a single database cursor"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCards() {
+        ObjectWriter writer = objectMapper.writerFor(CardsDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody responseBody = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                iCardsService.exportCards(cardsDto -> {
+                    try {
+                        writer.writeValue(generator, cardsDto);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
     }
 
     @Operation(
@@ -146,6 +278,94 @@ public class CardsController {
         }
     }
 
+    @Operation(
+            summary = "Charge Card REST API",
+            description = "REST API to charge an amount to a card, only if that much of its limit is still available"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request, the available amount is too low",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/charge")
+    public ResponseEntity<ResponseDto> chargeCard(@Valid @RequestBody CardTransactionDto cardTransactionDto) {
+        iCardsService.chargeCard(cardTransactionDto);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+    }
+
+    @Operation(
+            summary = "Refund Card REST API",
+            description = "REST API to refund an amount previously charged to a card"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request, the amount used is lower than the refund",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/refund")
+    public ResponseEntity<ResponseDto> refundCard(@Valid @RequestBody CardTransactionDto cardTransactionDto) {
+        iCardsService.refundCard(cardTransactionDto);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+    }
+
+    @Operation(
+            summary = "Fetch Card Portfolio REST API",
+            description = "REST API to fetch the number of cards, total limit and amount used per card type, " +
+                    "without scanning the cards"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/portfolio")
+    public ResponseEntity<List<CardPortfolioDto>> fetchPortfolio() {
+        return ResponseEntity.status(HttpStatus.OK).body(iCardsService.fetchPortfolio());
+    }
+
     @Operation(
             summary = "Delete Card Details REST API",
             description = "REST API to delete Card details based on a mobile number"
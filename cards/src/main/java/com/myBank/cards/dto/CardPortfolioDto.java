@@ -0,0 +1,33 @@
+package com.myBank.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "CardPortfolio",
+        description = "Schema to hold the totals of all cards of one card type"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class CardPortfolioDto {
+
+    @Schema(
+            description = "Type of the cards", example = "Credit Card"
+    )
+    private String cardType;
+
+    @Schema(
+            description = "Number of cards", example = "1200"
+    )
+    private long cardCount;
+
+    @Schema(
+            description = "Sum of the total limits", example = "120000000"
+    )
+    private long totalLimit;
+
+    @Schema(
+            description = "Sum of the amounts used", example = "22000000"
+    )
+    private long amountUsed;
+}
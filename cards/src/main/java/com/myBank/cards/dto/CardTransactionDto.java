@@ -0,0 +1,30 @@
+package com.myBank.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "CardTransaction",
+        description = "Schema to hold an amount charged to or refunded on a card"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class CardTransactionDto {
+
+    @NotEmpty(message = "Card Number can not be a null or empty")
+    @Pattern(regexp="(^$|[0-9]{12})",message = "CardNumber must be 12 digits")
+    @Schema(
+            description = "Card Number of the customer", example = "100646930341"
+    )
+    private String cardNumber;
+
+    @Positive(message = "Amount should be greater than zero")
+    @Schema(
+            description = "Amount to charge or refund", example = "250"
+    )
+    private int amount;
+
+}
@@ -0,0 +1,25 @@
+package com.myBank.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(name = "CardsPage",
+        description = "Schema to hold one page of cards, in card id order"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class CardsPageDto {
+
+    @Schema(
+            description = "Cards of this page"
+    )
+    private List<CardsDto> cards;
+
+    @Schema(
+            description = "Cursor to pass to get the next page; null on the last page", example = "1200"
+    )
+    private Long nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.myBank.cards.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Broadcast over Spring Cloud Bus whenever the card of a mobile number is updated or deleted, so that
+ * services caching card details (e.g. the accounts near-cache) can drop their copy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CardChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+
+    public CardChangedEvent(Object source, String originService, Destination destination, String mobileNumber) {
+        super(source, originService, destination);
+        this.mobileNumber = mobileNumber;
+    }
+}
@@ -0,0 +1,24 @@
+package com.myBank.cards.event;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class CardsEventPublisher {
+
+    private ApplicationEventPublisher applicationEventPublisher;
+    private BusProperties busProperties;
+    private Destination.Factory destinationFactory;
+
+    /**
+     * @param mobileNumber - Mobile Number whose card details changed
+     */
+    public void publishCardChanged(String mobileNumber) {
+        applicationEventPublisher.publishEvent(new CardChangedEvent(this, busProperties.getId(),
+                destinationFactory.getDestination(null), mobileNumber));
+    }
+}
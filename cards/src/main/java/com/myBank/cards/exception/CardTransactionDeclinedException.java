@@ -0,0 +1,13 @@
+package com.myBank.cards.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class CardTransactionDeclinedException extends RuntimeException {
+
+    public CardTransactionDeclinedException(String message){
+        super(message);
+    }
+
+}
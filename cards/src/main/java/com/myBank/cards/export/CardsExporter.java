@@ -0,0 +1,47 @@
+package com.myBank.cards.export;
+
+import com.myBank.cards.config.ExportProperties;
+import com.myBank.cards.dto.CardsDto;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+/**
+ * Reads every card through one forward-only, read-only cursor of {@code export.fetch-size} rows, handing each row
+ * to the consumer as it is read. Unlike paging through JPA, nothing is kept in the persistence context and no
+ * query is repeated, so memory stays flat however many cards there are. The single statement also sees one
+ * consistent snapshot of the table.
+ */
+@Component
+@AllArgsConstructor
+public class CardsExporter {
+
+    private static final String SELECT_CARDS = "SELECT mobile_number, card_number, card_type, total_limit, " +
+            "amount_used, available_amount FROM cards ORDER BY card_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties exportProperties;
+
+    public void export(Consumer<CardsDto> cardConsumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_CARDS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportProperties.getFetchSize());
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            CardsDto cardsDto = new CardsDto();
+            cardsDto.setMobileNumber(resultSet.getString("mobile_number"));
+            cardsDto.setCardNumber(resultSet.getString("card_number"));
+            cardsDto.setCardType(resultSet.getString("card_type"));
+            cardsDto.setTotalLimit(resultSet.getInt("total_limit"));
+            cardsDto.setAmountUsed(resultSet.getInt("amount_used"));
+            cardsDto.setAvailableAmount(resultSet.getInt("available_amount"));
+            cardConsumer.accept(cardsDto);
+        });
+    }
+}
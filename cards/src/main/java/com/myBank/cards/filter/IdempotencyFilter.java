@@ -0,0 +1,224 @@
+package com.myBank.cards.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myBank.cards.config.IdempotencyProperties;
+import com.myBank.cards.dto.ErrorResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Makes the configured create endpoints safe to retry. The first POST carrying an {@code Idempotency-Key} runs
+ * normally and its response is remembered for {@code idempotency.time-to-live}; later requests with the same key
+ * and the same payload get that response replayed, marked with {@code Idempotent-Replayed: true}, without
+ * reaching the controller. A key reused with a different payload is rejected with 422, and a duplicate arriving
+ * while the first attempt is still running gets 409. Server errors are not remembered so that they can be retried.
+ * <p>
+ * Keys are held in memory per instance, bounded by {@code idempotency.maximum-size}.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Cache<String, IdempotentResponse> responses;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyProperties idempotencyProperties, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.getMaximumSize())
+                .expireAfterWrite(idempotencyProperties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !idempotencyProperties.getPaths().contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getServletPath() + ":" + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+
+        IdempotentResponse inProgress = IdempotentResponse.inProgress(fingerprint);
+        IdempotentResponse existing = responses.asMap().putIfAbsent(key, inProgress);
+        if (existing != null) {
+            replay(request, response, existing, fingerprint);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachingResponse);
+            completed = true;
+        } finally {
+            if (completed && cachingResponse.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                responses.asMap().replace(key, inProgress, new IdempotentResponse(fingerprint,
+                        cachingResponse.getStatus(), cachingResponse.getContentType(),
+                        cachingResponse.getContentAsByteArray()));
+            } else {
+                responses.asMap().remove(key, inProgress);
+            }
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, IdempotentResponse existing,
+                        String fingerprint) throws IOException {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        } else if (existing.body() == null) {
+            writeError(request, response, HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+        } else {
+            response.setStatus(existing.status());
+            if (existing.contentType() != null) {
+                response.setContentType(existing.contentType());
+            }
+            response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+            response.getOutputStream().write(existing.body());
+        }
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String message) throws IOException {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                "uri=" + request.getRequestURI(),
+                status,
+                message,
+                LocalDateTime.now()
+        );
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponseDto);
+    }
+
+    /**
+     * Hash of what the request asks for: query string and body, or the parameters of a form post.
+     */
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(request.getQueryString()).getBytes(StandardCharsets.UTF_8));
+            if (request.isForm()) {
+                Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+                parameters.forEach((name, values) -> digest.update(
+                        (name + "=" + Arrays.toString(values) + "&").getBytes(StandardCharsets.UTF_8)));
+            } else {
+                digest.update(request.body);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Outcome of the first request for a key; {@code body} is {@code null} while that request is running.
+     */
+    private record IdempotentResponse(String fingerprint, int status, String contentType, byte[] body) {
+
+        static IdempotentResponse inProgress(String fingerprint) {
+            return new IdempotentResponse(fingerprint, 0, null, null);
+        }
+    }
+
+    /**
+     * Reads the body once up front, so it can be fingerprinted and still be read by the controller. Form posts are
+     * left untouched, their parameters are parsed by the container.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = isForm() ? new byte[0] : request.getInputStream().readAllBytes();
+        }
+
+        private boolean isForm() {
+            return getContentType() != null
+                    && MediaType.APPLICATION_FORM_URLENCODED.isCompatibleWith(MediaType.parseMediaType(getContentType()));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (isForm()) {
+                return super.getInputStream();
+            }
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
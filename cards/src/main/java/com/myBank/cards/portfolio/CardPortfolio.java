@@ -0,0 +1,236 @@
+package com.myBank.cards.portfolio;
+
+import com.myBank.cards.dto.CardPortfolioDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Card count, total limit and amount used per card type, maintained incrementally so that nobody has to scan the
+ * {@code cards} table for them. Every write records its change in striped in-memory counters, which never make
+ * concurrent writers wait on each other. Every {@code portfolio.flush-interval} the change since the last flush is
+ * added to the {@code card_portfolio} table with one upsert per type, so the table holds the totals of all
+ * instances. {@link #portfolio()} reads the table plus what this instance has not flushed yet.
+ * <p>
+ * In write-behind mode the amount used includes spend approved but not written to the cards table yet. Every
+ * {@code portfolio.reconcile-interval} the table is replaced by a full scan to correct drift, e.g. from changes an
+ * instance lost when it stopped without flushing them. While the scan runs the summary rows are locked, so other
+ * instances cannot flush; changes they recorded but had not flushed yet are counted twice until the next
+ * reconciliation.
+ */
+public class CardPortfolio {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardPortfolio.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration flushInterval;
+    private final Duration reconcileInterval;
+    private final ConcurrentMap<String, Totals> totals = new ConcurrentHashMap<>();
+    private final List<Runnable> pendingSpendFlushes = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public CardPortfolio(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Duration flushInterval,
+                         Duration reconcileInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushInterval = flushInterval;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-portfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileInterval.toMillis(),
+                reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        flushQuietly();
+    }
+
+    /**
+     * Records a change of the cards of one type; negative values for cards removed from the type.
+     */
+    public void record(String cardType, long cards, long totalLimit, long amountUsed) {
+        Totals typeTotals = totals.computeIfAbsent(cardType, type -> new Totals());
+        typeTotals.cards.add(cards);
+        typeTotals.totalLimit.add(totalLimit);
+        typeTotals.amountUsed.add(amountUsed);
+    }
+
+    /**
+     * Registers a flush of spend that is either recorded here but not written to the cards table yet, or written
+     * but not recorded here yet. {@link #reconcile()} runs it before the scan, which would otherwise miss the
+     * former and have the latter added again once it is recorded.
+     */
+    public void beforeReconcile(Runnable pendingSpendFlush) {
+        pendingSpendFlushes.add(pendingSpendFlush);
+    }
+
+    /**
+     * @return the totals per card type, ordered by type
+     */
+    public List<CardPortfolioDto> portfolio() {
+        Map<String, CardPortfolioDto> portfolio = new TreeMap<>();
+        jdbcTemplate.query("SELECT card_type, card_count, total_limit, amount_used FROM card_portfolio",
+                rs -> {
+                    portfolio.put(rs.getString(1), new CardPortfolioDto(rs.getString(1), rs.getLong(2),
+                            rs.getLong(3), rs.getLong(4)));
+                });
+        totals.forEach((cardType, typeTotals) -> {
+            Snapshot pending = typeTotals.snapshot().minus(typeTotals.flushed);
+            CardPortfolioDto cardPortfolioDto = portfolio.computeIfAbsent(cardType,
+                    type -> new CardPortfolioDto(type, 0, 0, 0));
+            cardPortfolioDto.setCardCount(cardPortfolioDto.getCardCount() + pending.cards());
+            cardPortfolioDto.setTotalLimit(cardPortfolioDto.getTotalLimit() + pending.totalLimit());
+            cardPortfolioDto.setAmountUsed(cardPortfolioDto.getAmountUsed() + pending.amountUsed());
+        });
+        return new ArrayList<>(portfolio.values());
+    }
+
+    /**
+     * Adds the changes recorded since the last flush to the summary table in one transaction, in card type order
+     * so that instances flushing at the same time lock the rows in the same order. On failure the changes stay
+     * pending and are retried on the next flush.
+     */
+    public synchronized void flush() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        List<Object[]> changes = new ArrayList<>();
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        totals.forEach((cardType, typeTotals) -> snapshots.put(cardType, typeTotals.snapshot()));
+        snapshots.forEach((cardType, snapshot) -> {
+            Snapshot change = snapshot.minus(totals.get(cardType).flushed);
+            if (!change.isZero()) {
+                changes.add(new Object[]{cardType, change.cards(), change.totalLimit(), change.amountUsed(),
+                        updatedAt});
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO card_portfolio (card_type, card_count, total_limit, amount_used, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE card_count = card_count + VALUES(card_count), " +
+                        "total_limit = total_limit + VALUES(total_limit), " +
+                        "amount_used = amount_used + VALUES(amount_used), " +
+                        "updated_at = VALUES(updated_at)", changes));
+        snapshots.forEach((cardType, snapshot) -> totals.get(cardType).flushed = snapshot);
+    }
+
+    /**
+     * Replaces the summary table with a full scan of the cards. The {@link #beforeReconcile(Runnable) pending spend}
+     * is flushed first. Then the summary rows are locked and the totals recorded here are taken right before the
+     * scan; once the table is replaced, they count as flushed.
+     * <p>
+     * Not exact under concurrent writes, until the next reconciliation: a write that committed before the scan but
+     * was recorded after the totals were taken is counted twice, and spend approved in write-behind mode after the
+     * pending spend was flushed is missed.
+     *
+     * @return the number of card types whose totals in the table differed from the scan
+     */
+    public synchronized int reconcile() {
+        pendingSpendFlushes.forEach(Runnable::run);
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        int corrected = transactionTemplate.execute(status -> {
+            Map<String, Snapshot> summary = new TreeMap<>();
+            jdbcTemplate.query("SELECT card_type, card_count, total_limit, amount_used FROM card_portfolio " +
+                    "ORDER BY card_type FOR UPDATE", rs -> {
+                summary.put(rs.getString(1), new Snapshot(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            });
+            // taken under the lock and right before the scan, so that it holds the same changes as the scan
+            // except those whose write committed before the scan but were recorded after this
+            totals.forEach((cardType, typeTotals) -> snapshots.put(cardType, typeTotals.snapshot()));
+            Map<String, Snapshot> scanned = new TreeMap<>();
+            jdbcTemplate.query("SELECT card_type, COUNT(*), SUM(total_limit), SUM(amount_used) FROM cards " +
+                    "GROUP BY card_type", rs -> {
+                scanned.put(rs.getString(1), new Snapshot(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            });
+            jdbcTemplate.update("DELETE FROM card_portfolio");
+            jdbcTemplate.batchUpdate("INSERT INTO card_portfolio (card_type, card_count, total_limit, " +
+                            "amount_used, updated_at) VALUES (?, ?, ?, ?, ?)",
+                    scanned.entrySet().stream()
+                            .map(entry -> new Object[]{entry.getKey(), entry.getValue().cards(),
+                                    entry.getValue().totalLimit(), entry.getValue().amountUsed(), updatedAt})
+                            .toList());
+            summary.keySet().forEach(cardType -> scanned.putIfAbsent(cardType, Snapshot.ZERO));
+            return (int) scanned.entrySet().stream()
+                    .filter(entry -> !entry.getValue().equals(summary.getOrDefault(entry.getKey(), Snapshot.ZERO)))
+                    .count();
+        });
+        snapshots.forEach((cardType, snapshot) -> totals.get(cardType).flushed = snapshot);
+        if (corrected > 0) {
+            logger.info("Card portfolio reconciliation corrected {} card types", corrected);
+        }
+        return corrected;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not write the card portfolio, retrying on the next flush", ex);
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            logger.warn("Card portfolio reconciliation failed, retrying in {}", reconcileInterval, ex);
+        }
+    }
+
+    /**
+     * Running totals of everything recorded for one card type since start, and the part of it already flushed.
+     */
+    private static final class Totals {
+
+        private final LongAdder cards = new LongAdder();
+        private final LongAdder totalLimit = new LongAdder();
+        private final LongAdder amountUsed = new LongAdder();
+        private volatile Snapshot flushed = Snapshot.ZERO;
+
+        private Snapshot snapshot() {
+            return new Snapshot(cards.sum(), totalLimit.sum(), amountUsed.sum());
+        }
+    }
+
+    private record Snapshot(long cards, long totalLimit, long amountUsed) {
+
+        private static final Snapshot ZERO = new Snapshot(0, 0, 0);
+
+        private Snapshot minus(Snapshot other) {
+            return new Snapshot(cards - other.cards, totalLimit - other.totalLimit,
+                    amountUsed - other.amountUsed);
+        }
+
+        private boolean isZero() {
+            return equals(ZERO);
+        }
+    }
+}
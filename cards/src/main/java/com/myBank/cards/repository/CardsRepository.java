@@ -1,9 +1,16 @@
 package com.myBank.cards.repository;
 
 import com.myBank.cards.entity.Cards;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +20,38 @@ public interface CardsRepository extends JpaRepository<Cards, Long> {
 
     Optional<Cards> findByCardNumber(String cardNumber);
 
+    boolean existsByCardNumber(String cardNumber);
+
+    List<Cards> findAllByMobileNumberIn(Collection<String> mobileNumbers);
+
+    /**
+     * Keyset page: the cards after {@code cardId} in primary key order. Served by a range scan of the primary key,
+     * so every page costs the same however deep it is, unlike an OFFSET.
+     */
+    List<Cards> findByCardIdGreaterThanOrderByCardId(long cardId, Limit limit);
+
+    /**
+     * Moves {@code amount} from available to used in one statement, only if that much is available.
+     *
+     * @return 1 if the card was charged, 0 if it does not exist or has less than {@code amount} available
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cards c SET c.amountUsed = c.amountUsed + :amount, c.availableAmount = c.availableAmount - :amount, " +
+            "c.updatedAt = LOCAL DATETIME, c.updatedBy = :updatedBy " +
+            "WHERE c.cardNumber = :cardNumber AND c.availableAmount >= :amount")
+    int charge(@Param("cardNumber") String cardNumber, @Param("amount") int amount, @Param("updatedBy") String updatedBy);
+
+    /**
+     * Moves {@code amount} from used back to available in one statement, only if at least that much was used.
+     *
+     * @return 1 if the card was refunded, 0 if it does not exist or has less than {@code amount} used
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cards c SET c.amountUsed = c.amountUsed - :amount, c.availableAmount = c.availableAmount + :amount, " +
+            "c.updatedAt = LOCAL DATETIME, c.updatedBy = :updatedBy " +
+            "WHERE c.cardNumber = :cardNumber AND c.amountUsed >= :amount")
+    int refund(@Param("cardNumber") String cardNumber, @Param("amount") int amount, @Param("updatedBy") String updatedBy);
+
 }
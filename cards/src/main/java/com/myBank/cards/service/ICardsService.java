@@ -1,7 +1,14 @@
 package com.myBank.cards.service;
 
 
+import com.myBank.cards.dto.CardPortfolioDto;
+import com.myBank.cards.dto.CardTransactionDto;
 import com.myBank.cards.dto.CardsDto;
+import com.myBank.cards.dto.CardsPageDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ICardsService {
 
@@ -14,9 +21,30 @@ public interface ICardsService {
     /**
      *
      * @param mobileNumber - Input mobile Number
-     *  @return Card Details based on a given mobileNumber
+     *  @return Card Details based on a given mobileNumber, empty when the customer has no card
+     */
+    Optional<CardsDto> fetchCard(String mobileNumber);
+
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of every given mobileNumber that has a card, fetched in a single query
+     */
+    List<CardsDto> fetchCards(List<String> mobileNumbers);
+
+    /**
+     *
+     * @param cursor - nextCursor of the previous page, 0 for the first page
+     * @param size - Maximum number of cards in the page
+     * @return The cards after the cursor, in card id order
+     */
+    CardsPageDto listCards(long cursor, int size);
+
+    /**
+     *
+     * @param cardConsumer - Receives every card, in card id order, as it is read from the database
      */
-    CardsDto fetchCard(String mobileNumber);
+    void exportCards(Consumer<CardsDto> cardConsumer);
 
     /**
      *
@@ -25,6 +53,26 @@ public interface ICardsService {
      */
     boolean updateCard(CardsDto cardsDto);
 
+    /**
+     *
+     * @param cardTransactionDto - card number and amount to charge
+     * @return boolean indicating if the charge is successful or not
+     */
+    boolean chargeCard(CardTransactionDto cardTransactionDto);
+
+    /**
+     *
+     * @param cardTransactionDto - card number and amount to refund
+     * @return boolean indicating if the refund is successful or not
+     */
+    boolean refundCard(CardTransactionDto cardTransactionDto);
+
+    /**
+     *
+     * @return Number of cards, total limit and amount used per card type
+     */
+    List<CardPortfolioDto> fetchPortfolio();
+
     /**
      *
      * @param mobileNumber - Input Mobile Number
@@ -1,24 +1,47 @@
 package com.myBank.cards.service.impl;
 
+import com.myBank.cards.config.BatchProperties;
 import com.myBank.cards.constants.CardsConstants;
+import com.myBank.cards.dto.CardPortfolioDto;
+import com.myBank.cards.dto.CardTransactionDto;
 import com.myBank.cards.dto.CardsDto;
+import com.myBank.cards.dto.CardsPageDto;
 import com.myBank.cards.entity.Cards;
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.export.CardsExporter;
+import com.myBank.cards.exception.BatchSizeExceededException;
 import com.myBank.cards.exception.CardAlreadyExistsException;
+import com.myBank.cards.exception.CardTransactionDeclinedException;
 import com.myBank.cards.exception.ResourceNotFoundException;
 import com.myBank.cards.mapper.CardsMapper;
+import com.myBank.cards.portfolio.CardPortfolio;
 import com.myBank.cards.repository.CardsRepository;
+import com.myBank.cards.sequence.NumberAllocator;
+import com.myBank.cards.spend.CardSpendTally;
+import com.myBank.cards.spend.CardSpendWriteBehind;
 import com.myBank.cards.service.ICardsService;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
+import java.util.function.Consumer;
 
 @Service
 @AllArgsConstructor
 public class CardsServiceImpl implements ICardsService {
 
     private CardsRepository cardsRepository;
+    private NumberAllocator cardNumberAllocator;
+    private CardsEventPublisher cardsEventPublisher;
+    private AuditorAware<String> auditorAware;
+    private CardSpendWriteBehind cardSpendWriteBehind;
+    private CardSpendTally cardSpendTally;
+    private CardPortfolio cardPortfolio;
+    private CardsExporter cardsExporter;
+    private BatchProperties batchProperties;
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
@@ -29,7 +52,9 @@ public class CardsServiceImpl implements ICardsService {
         if(optionalCards.isPresent()){
             throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
         }
-        cardsRepository.save(createNewCard(mobileNumber));
+        Cards cards = cardsRepository.save(createNewCard(mobileNumber));
+        cardPortfolio.record(cards.getCardType(), 1, cards.getTotalLimit(), cards.getAmountUsed());
+        cardsEventPublisher.publishCardChanged(mobileNumber);
     }
 
     /**
@@ -38,8 +63,7 @@ public class CardsServiceImpl implements ICardsService {
      */
     private Cards createNewCard(String mobileNumber) {
         Cards newCard = new Cards();
-        long randomCardNumber = 100000000000L + new Random().nextInt(900000000);
-        newCard.setCardNumber(Long.toString(randomCardNumber));
+        newCard.setCardNumber(Long.toString(cardNumberAllocator.next()));
         newCard.setMobileNumber(mobileNumber);
         newCard.setCardType(CardsConstants.CREDIT_CARD);
         newCard.setTotalLimit(CardsConstants.NEW_CARD_LIMIT);
@@ -51,14 +75,52 @@ public class CardsServiceImpl implements ICardsService {
     /**
      *
      * @param mobileNumber - Input mobile Number
-     * @return Card Details based on a given mobileNumber
+     * @return Card Details based on a given mobileNumber, empty when the customer has no card. Many customers have
+     * none, so this is an ordinary outcome rather than a {@link ResourceNotFoundException}.
      */
     @Override
-    public CardsDto fetchCard(String mobileNumber) {
-        Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
-        );
-        return CardsMapper.mapToCardsDto(cards, new CardsDto());
+    public Optional<CardsDto> fetchCard(String mobileNumber) {
+        return cardsRepository.findByMobileNumber(mobileNumber)
+                .map(cards -> CardsMapper.mapToCardsDto(cards, new CardsDto()));
+    }
+
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers, at most {@code batch.max-size}
+     * @return Card Details of every given mobileNumber that has a card
+     */
+    @Override
+    public List<CardsDto> fetchCards(List<String> mobileNumbers) {
+        if (mobileNumbers.size() > batchProperties.getMaxSize()) {
+            throw new BatchSizeExceededException(mobileNumbers.size(), batchProperties.getMaxSize());
+        }
+        return cardsRepository.findAllByMobileNumberIn(mobileNumbers).stream()
+                .map(cards -> CardsMapper.mapToCardsDto(cards, new CardsDto()))
+                .toList();
+    }
+
+    /**
+     * Reads one row more than the page size, so the last page is recognised without an extra empty request.
+     *
+     * @param cursor - nextCursor of the previous page, 0 for the first page
+     * @param size - Maximum number of cards in the page
+     * @return The cards after the cursor, in card id order
+     */
+    @Override
+    public CardsPageDto listCards(long cursor, int size) {
+        List<Cards> cards = cardsRepository.findByCardIdGreaterThanOrderByCardId(cursor, Limit.of(size + 1));
+        boolean hasMore = cards.size() > size;
+        List<Cards> page = hasMore ? cards.subList(0, size) : cards;
+        return new CardsPageDto(page.stream().map(card -> CardsMapper.mapToCardsDto(card, new CardsDto())).toList(),
+                hasMore ? page.get(size - 1).getCardId() : null);
+    }
+
+    /**
+     * @param cardConsumer - Receives every card, in card id order, as it is read from the database
+     */
+    @Override
+    public void exportCards(Consumer<CardsDto> cardConsumer) {
+        cardsExporter.export(cardConsumer);
     }
 
     /**
@@ -68,23 +130,117 @@ public class CardsServiceImpl implements ICardsService {
      */
     @Override
     public boolean updateCard(CardsDto cardsDto) {
-        Cards cards = cardsRepository.findByCardNumber(cardsDto.getCardNumber()).orElseThrow(
-                () -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber()));
-        CardsMapper.mapToCards(cardsDto, cards);
-        cardsRepository.save(cards);
+        cardSpendTally.flush();
+        String previousMobileNumber = cardSpendWriteBehind.exclusively(cardsDto.getCardNumber(), () -> {
+            Cards cards = findByCardNumber(cardsDto.getCardNumber());
+            String mobileNumber = cards.getMobileNumber();
+            String cardType = cards.getCardType();
+            int totalLimit = cards.getTotalLimit();
+            int amountUsed = cards.getAmountUsed();
+            CardsMapper.mapToCards(cardsDto, cards);
+            cardsRepository.save(cards);
+            // recorded once the save succeeded, so a failed update leaves the portfolio as it was
+            cardPortfolio.record(cardType, -1, -totalLimit, -amountUsed);
+            cardPortfolio.record(cards.getCardType(), 1, cards.getTotalLimit(), cards.getAmountUsed());
+            return mobileNumber;
+        });
+        cardsEventPublisher.publishCardChanged(previousMobileNumber);
+        if (!previousMobileNumber.equals(cardsDto.getMobileNumber())) {
+            cardsEventPublisher.publishCardChanged(cardsDto.getMobileNumber());
+        }
         return  true;
     }
 
+    /**
+     * Applies the charge with a single conditional UPDATE, so concurrent charges of the same card can neither lose
+     * an update nor overdraw it, in one round trip. The card type and mobile number the portfolio and the change
+     * event need are looked up later by the {@link CardSpendTally}, once for all the spend of an interval; the card
+     * is only read here when the charge is declined, to tell a missing card from a short balance. In write-behind
+     * mode the charge is approved and journaled in memory instead and reaches the table with the next group commit.
+     *
+     * @param cardTransactionDto - card number and amount to charge
+     * @return boolean indicating if the charge is successful or not
+     */
+    @Override
+    public boolean chargeCard(CardTransactionDto cardTransactionDto) {
+        if (cardSpendWriteBehind.isEnabled()) {
+            String cardType = cardSpendWriteBehind.charge(cardTransactionDto.getCardNumber(), cardTransactionDto.getAmount());
+            cardPortfolio.record(cardType, 0, 0, cardTransactionDto.getAmount());
+            return true;
+        }
+        String cardNumber = cardTransactionDto.getCardNumber();
+        if (cardsRepository.charge(cardNumber, cardTransactionDto.getAmount(), currentAuditor()) == 0) {
+            throw declined(cardNumber, "Available amount is less than " + cardTransactionDto.getAmount()
+                    + " on card " + cardNumber);
+        }
+        cardSpendTally.record(cardNumber, cardTransactionDto.getAmount());
+        return true;
+    }
+
+    /**
+     * Applies the refund with a single conditional UPDATE, like {@link #chargeCard(CardTransactionDto)}.
+     *
+     * @param cardTransactionDto - card number and amount to refund
+     * @return boolean indicating if the refund is successful or not
+     */
+    @Override
+    public boolean refundCard(CardTransactionDto cardTransactionDto) {
+        if (cardSpendWriteBehind.isEnabled()) {
+            String cardType = cardSpendWriteBehind.refund(cardTransactionDto.getCardNumber(), cardTransactionDto.getAmount());
+            cardPortfolio.record(cardType, 0, 0, -cardTransactionDto.getAmount());
+            return true;
+        }
+        String cardNumber = cardTransactionDto.getCardNumber();
+        if (cardsRepository.refund(cardNumber, cardTransactionDto.getAmount(), currentAuditor()) == 0) {
+            throw declined(cardNumber, "Amount used is less than " + cardTransactionDto.getAmount()
+                    + " on card " + cardNumber);
+        }
+        cardSpendTally.record(cardNumber, -cardTransactionDto.getAmount());
+        return true;
+    }
+
+    /**
+     * @return totals per card type, maintained incrementally by every write rather than scanned from the cards
+     */
+    @Override
+    public List<CardPortfolioDto> fetchPortfolio() {
+        return cardPortfolio.portfolio();
+    }
+
+    private Cards findByCardNumber(String cardNumber) {
+        return cardsRepository.findByCardNumber(cardNumber).orElseThrow(
+                () -> new ResourceNotFoundException("Card", "CardNumber", cardNumber));
+    }
+
+    private RuntimeException declined(String cardNumber, String message) {
+        if (!cardsRepository.existsByCardNumber(cardNumber)) {
+            return new ResourceNotFoundException("Card", "CardNumber", cardNumber);
+        }
+        return new CardTransactionDeclinedException(message);
+    }
+
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
     /**
      * @param mobileNumber - Input MobileNumber
      * @return boolean indicating if the delete of card details is successful or not
      */
     @Override
     public boolean deleteCard(String mobileNumber) {
+        cardSpendTally.flush();
         Cards cards = cardsRepository.findByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
         );
-        cardsRepository.deleteById(cards.getCardId());
+        cardSpendWriteBehind.exclusively(cards.getCardNumber(), () -> {
+            // read again, as the spend pending in write-behind mode was only written to the row just now
+            Cards deleted = findByCardNumber(cards.getCardNumber());
+            cardsRepository.deleteById(deleted.getCardId());
+            cardPortfolio.record(deleted.getCardType(), -1, -deleted.getTotalLimit(), -deleted.getAmountUsed());
+            return deleted;
+        });
+        cardsEventPublisher.publishCardChanged(mobileNumber);
         return true;
     }
 
@@ -0,0 +1,122 @@
+package com.myBank.cards.spend;
+
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.portfolio.CardPortfolio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Net spend that charges and refunds applied straight to the cards table since the last flush, per card number.
+ * A charge is then a single conditional UPDATE: it needs neither the card type for the portfolio nor the mobile
+ * number for the change event. Every {@code card-spend.tally-interval} the pending cards are looked up in one
+ * query, their spend is recorded in the {@link CardPortfolio} by card type, and one change event is published per
+ * mobile number however many swipes it saw.
+ * <p>
+ * Updating or deleting a card must {@link #flush()} first, so that its pending spend is attributed to the card as
+ * it was when the spend was applied.
+ */
+public class CardSpendTally {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardSpendTally.class);
+
+    private static final int MAX_LOOKUP_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CardPortfolio cardPortfolio;
+    private final CardsEventPublisher cardsEventPublisher;
+    private final Duration tallyInterval;
+    private final Object pendingLock = new Object();
+    private Map<String, Long> pending = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public CardSpendTally(JdbcTemplate jdbcTemplate, CardPortfolio cardPortfolio,
+                          CardsEventPublisher cardsEventPublisher, Duration tallyInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cardPortfolio = cardPortfolio;
+        this.cardsEventPublisher = cardsEventPublisher;
+        this.tallyInterval = tallyInterval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-spend-tally");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, tallyInterval.toMillis(), tallyInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        flushQuietly();
+    }
+
+    /**
+     * Records spend already applied to the cards table; negative for a refund.
+     */
+    public void record(String cardNumber, long amountUsed) {
+        synchronized (pendingLock) {
+            pending.merge(cardNumber, amountUsed, Long::sum);
+        }
+    }
+
+    /**
+     * Records the pending spend in the portfolio and publishes the change events. Spend of cards deleted since it
+     * was applied is dropped, as the delete took it out of the portfolio together with the card. On failure the
+     * spend stays pending and is retried on the next flush.
+     */
+    public synchronized void flush() {
+        Map<String, Long> spend;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            spend = pending;
+            pending = new HashMap<>();
+        }
+        Map<String, Long> spendByType = new HashMap<>();
+        Set<String> mobileNumbers = new LinkedHashSet<>();
+        try {
+            List<String> cardNumbers = new ArrayList<>(spend.keySet());
+            for (int from = 0; from < cardNumbers.size(); from += MAX_LOOKUP_SIZE) {
+                List<String> chunk = cardNumbers.subList(from, Math.min(from + MAX_LOOKUP_SIZE, cardNumbers.size()));
+                jdbcTemplate.query("SELECT card_number, mobile_number, card_type FROM cards WHERE card_number IN ("
+                                + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                        rs -> {
+                            mobileNumbers.add(rs.getString(2));
+                            spendByType.merge(rs.getString(3), spend.get(rs.getString(1)), Long::sum);
+                        }, chunk.toArray());
+            }
+        } catch (RuntimeException ex) {
+            synchronized (pendingLock) {
+                spend.forEach((cardNumber, amountUsed) -> pending.merge(cardNumber, amountUsed, Long::sum));
+            }
+            throw ex;
+        }
+        spendByType.forEach((cardType, amountUsed) -> cardPortfolio.record(cardType, 0, 0, amountUsed));
+        mobileNumbers.forEach(cardsEventPublisher::publishCardChanged);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not tally card spend, retrying on the next flush", ex);
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.myBank.cards.spend;
+
+import com.myBank.cards.config.CardSpendProperties;
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.exception.CardTransactionDeclinedException;
+import com.myBank.cards.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind mode for card charges and refunds. A spend is approved against an in-memory view of the card's
+ * available and used amounts, so concurrent spend on a hot card never waits for its row lock. Before the caller is
+ * answered, the spend is appended to the {@link SpendJournal} by a single writer thread that forces each batch to
+ * disk at once. Every {@code card-spend.flush-interval} the net change of each card is written to the cards table
+ * with one batched UPDATE per card, in the same transaction as the journal checkpoint, so a restart replays exactly
+ * the entries that had not reached the table yet.
+ * <p>
+ * The side of the view a spend is checked against (available for a charge, used for a refund) is reserved right
+ * away and the other side is only credited once the spend is durable, so a spend that fails to be journaled can be
+ * given back without ever having been spendable.
+ */
+public class CardSpendWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardSpendWriteBehind.class);
+
+    private static final int MAX_BATCH_SIZE = 1_000;
+
+    private final CardSpendProperties cardSpendProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CardsEventPublisher cardsEventPublisher;
+    private final AuditorAware<String> auditorAware;
+
+    private final Map<String, CardView> views = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingSpend> queue = new LinkedBlockingQueue<>();
+    private final Object accumulatorLock = new Object();
+    private Map<String, Integer> accumulated = new HashMap<>();
+    private long accumulatedThrough;
+    private long nextSequence;
+    private SpendJournal journal;
+    private Thread writer;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public CardSpendWriteBehind(CardSpendProperties cardSpendProperties, JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate, CardsEventPublisher cardsEventPublisher,
+                                AuditorAware<String> auditorAware) {
+        this.cardSpendProperties = cardSpendProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cardsEventPublisher = cardsEventPublisher;
+        this.auditorAware = auditorAware;
+    }
+
+    public boolean isEnabled() {
+        return cardSpendProperties.isWriteBehind();
+    }
+
+    /**
+     * Replays the journal entries after the checkpoint, writes them to the cards table and starts accepting spend.
+     */
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        String checkpointName = cardSpendProperties.getCheckpointName();
+        jdbcTemplate.update("INSERT IGNORE INTO card_spend_checkpoint (name, last_sequence) VALUES (?, 0)", checkpointName);
+        long checkpoint = jdbcTemplate.queryForObject("SELECT last_sequence FROM card_spend_checkpoint WHERE name = ?",
+                Long.class, checkpointName);
+        journal = new SpendJournal(cardSpendProperties.getJournalDirectory(),
+                cardSpendProperties.getSegmentSize().toBytes());
+        long lastSequence = journal.replay(checkpoint,
+                entry -> accumulated.merge(entry.cardNumber(), entry.delta(), Integer::sum));
+        accumulatedThrough = lastSequence;
+        nextSequence = lastSequence + 1;
+        if (lastSequence > checkpoint) {
+            logger.info("Replaying card spend journal entries {} to {}", checkpoint + 1, lastSequence);
+        }
+        flush();
+        journal.open(nextSequence);
+
+        running = true;
+        writer = new Thread(this::writeLoop, "card-spend-journal");
+        writer.setDaemon(true);
+        writer.start();
+        long flushIntervalMillis = cardSpendProperties.getFlushInterval().toMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-spend-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting spend, waits for the journal writer to drain and writes everything still pending.
+     */
+    public void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join();
+        for (PendingSpend spend = queue.poll(); spend != null; spend = queue.poll()) {
+            settle(spend, false);
+            spend.done().completeExceptionally(new IllegalStateException("Card spend write-behind is not running"));
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(1, TimeUnit.MINUTES);
+        flush();
+        journal.close();
+    }
+
+    /**
+     * @return the type of the card
+     * @throws CardTransactionDeclinedException if less than {@code amount} is available
+     * @throws ResourceNotFoundException        if there is no card with this number
+     */
+    public String charge(String cardNumber, int amount) {
+        return submit(cardNumber, amount);
+    }
+
+    /**
+     * @return the type of the card
+     * @throws CardTransactionDeclinedException if less than {@code amount} is used
+     * @throws ResourceNotFoundException        if there is no card with this number
+     */
+    public String refund(String cardNumber, int amount) {
+        return submit(cardNumber, -amount);
+    }
+
+    /**
+     * Runs an update of the card, e.g. overwriting or deleting its row, while no spend of the card is approved.
+     * The card's view is retired under its monitor first, so no further spend can land on it, and the spend
+     * already approved against it is waited for and written to the table. The update therefore sees every approved
+     * spend in the row and no spend is applied on top of what it writes. Spend of the card arriving meanwhile waits
+     * and is then approved against a view loaded from the updated row. Runs the update directly when write-behind
+     * is off.
+     *
+     * @return what the update returns
+     */
+    public <T> T exclusively(String cardNumber, Supplier<T> update) {
+        if (!isEnabled()) {
+            return update.get();
+        }
+        CardView blocker = new CardView(null, null, 0, 0);
+        blocker.retired = true;
+        synchronized (blocker) {
+            CardView view = views.put(cardNumber, blocker);
+            if (view != null) {
+                retire(view);
+            }
+            flush();
+            try {
+                return update.get();
+            } finally {
+                views.remove(cardNumber, blocker);
+            }
+        }
+    }
+
+    /**
+     * Marks the view retired and waits until the spend in flight on it is journaled and accumulated.
+     */
+    private static void retire(CardView view) {
+        synchronized (view) {
+            view.retired = true;
+            boolean interrupted = false;
+            while (view.inFlight > 0) {
+                try {
+                    view.wait();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Writes the net change of every card accumulated since the last flush, together with the checkpoint, in one
+     * transaction. On failure the changes are kept and retried on the next flush.
+     */
+    public synchronized void flush() {
+        Map<String, Integer> deltas;
+        long through;
+        synchronized (accumulatorLock) {
+            if (accumulated.isEmpty()) {
+                return;
+            }
+            deltas = accumulated;
+            through = accumulatedThrough;
+            accumulated = new HashMap<>();
+        }
+        List<Map.Entry<String, Integer>> changes = deltas.entrySet().stream()
+                .filter(change -> change.getValue() != 0)
+                .toList();
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        String updatedBy = auditorAware.getCurrentAuditor().orElse(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("UPDATE cards SET amount_used = amount_used + ?, " +
+                                "available_amount = available_amount - ?, updated_at = ?, updated_by = ? WHERE card_number = ?",
+                        changes, MAX_BATCH_SIZE, (ps, change) -> {
+                            ps.setInt(1, change.getValue());
+                            ps.setInt(2, change.getValue());
+                            ps.setTimestamp(3, updatedAt);
+                            ps.setString(4, updatedBy);
+                            ps.setString(5, change.getKey());
+                        });
+                jdbcTemplate.update("UPDATE card_spend_checkpoint SET last_sequence = ? WHERE name = ?",
+                        through, cardSpendProperties.getCheckpointName());
+            });
+        } catch (RuntimeException ex) {
+            synchronized (accumulatorLock) {
+                deltas.forEach((cardNumber, delta) -> accumulated.merge(cardNumber, delta, Integer::sum));
+            }
+            throw ex;
+        }
+        journal.deleteThrough(through);
+        for (Map.Entry<String, Integer> change : changes) {
+            CardView view = views.get(change.getKey());
+            if (view != null && !view.retired) {
+                cardsEventPublisher.publishCardChanged(view.mobileNumber);
+            }
+        }
+        expireIdleViews();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not write card spend to the cards table, retrying on the next flush", ex);
+        }
+    }
+
+    private String submit(String cardNumber, int delta) {
+        if (!running) {
+            throw new IllegalStateException("Card spend write-behind is not running");
+        }
+        PendingSpend spend = new PendingSpend(cardNumber, delta, reserve(cardNumber, delta), new CompletableFuture<>());
+        queue.add(spend);
+        try {
+            spend.done().join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+        return spend.view().cardType;
+    }
+
+    private CardView reserve(String cardNumber, int delta) {
+        while (true) {
+            CardView view = views.computeIfAbsent(cardNumber, this::loadView);
+            synchronized (view) {
+                if (view.retired) {
+                    continue;
+                }
+                if (delta > 0 && view.available < delta) {
+                    throw new CardTransactionDeclinedException("Available amount is less than " + delta
+                            + " on card " + cardNumber);
+                }
+                if (delta < 0 && view.used < -delta) {
+                    throw new CardTransactionDeclinedException("Amount used is less than " + -delta
+                            + " on card " + cardNumber);
+                }
+                if (delta > 0) {
+                    view.available -= delta;
+                } else {
+                    view.used += delta;
+                }
+                view.inFlight++;
+                view.lastUsed = System.nanoTime();
+                return view;
+            }
+        }
+    }
+
+    private CardView loadView(String cardNumber) {
+        return jdbcTemplate.query("SELECT mobile_number, card_type, available_amount, amount_used FROM cards " +
+                        "WHERE card_number = ?",
+                rs -> {
+                    if (!rs.next()) {
+                        throw new ResourceNotFoundException("Card", "CardNumber", cardNumber);
+                    }
+                    return new CardView(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getInt(4));
+                }, cardNumber);
+    }
+
+    private void writeLoop() {
+        List<PendingSpend> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSpend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Unexpected failure of the card spend journal writer", ex);
+                batch.forEach(spend -> spend.done().completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingSpend> batch) {
+        List<SpendJournal.Entry> entries = new ArrayList<>(batch.size());
+        for (PendingSpend spend : batch) {
+            entries.add(new SpendJournal.Entry(nextSequence + entries.size(), spend.cardNumber(), spend.delta()));
+        }
+        try {
+            journal.append(entries);
+        } catch (IOException ex) {
+            logger.error("Could not journal {} card spend entries, declining them", batch.size(), ex);
+            for (PendingSpend spend : batch) {
+                settle(spend, false);
+                spend.done().completeExceptionally(new UncheckedIOException("Could not journal card spend", ex));
+            }
+            return;
+        }
+        nextSequence += entries.size();
+        synchronized (accumulatorLock) {
+            for (PendingSpend spend : batch) {
+                accumulated.merge(spend.cardNumber(), spend.delta(), Integer::sum);
+            }
+            accumulatedThrough = nextSequence - 1;
+        }
+        for (PendingSpend spend : batch) {
+            settle(spend, true);
+            spend.done().complete(null);
+        }
+    }
+
+    /**
+     * Credits the side of the view that was not reserved once the spend is durable, or gives the reservation back.
+     */
+    private static void settle(PendingSpend spend, boolean durable) {
+        CardView view = spend.view();
+        int delta = spend.delta();
+        synchronized (view) {
+            if (durable && delta > 0) {
+                view.used += delta;
+            } else if (durable) {
+                view.available -= delta;
+            } else if (delta > 0) {
+                view.available += delta;
+            } else {
+                view.used -= delta;
+            }
+            if (--view.inFlight == 0) {
+                view.notifyAll();
+            }
+        }
+    }
+
+    private void expireIdleViews() {
+        long expiredBefore = System.nanoTime() - cardSpendProperties.getViewExpiry().toNanos();
+        views.forEach((cardNumber, view) -> {
+            // a card being updated holds the monitor of its placeholder view until the update is done
+            if (view.retired) {
+                return;
+            }
+            synchronized (view) {
+                if (view.inFlight > 0 || view.lastUsed - expiredBefore > 0) {
+                    return;
+                }
+                synchronized (accumulatorLock) {
+                    if (accumulated.containsKey(cardNumber)) {
+                        return;
+                    }
+                }
+                view.retired = true;
+                views.remove(cardNumber, view);
+            }
+        });
+    }
+
+    /**
+     * What the card looks like including every spend approved so far. Guarded by its own monitor; {@code retired}
+     * is only ever set once, so it may also be read without it.
+     */
+    private static final class CardView {
+
+        private final String mobileNumber;
+        private final String cardType;
+        private int available;
+        private int used;
+        private int inFlight;
+        private long lastUsed = System.nanoTime();
+        private volatile boolean retired;
+
+        private CardView(String mobileNumber, String cardType, int available, int used) {
+            this.mobileNumber = mobileNumber;
+            this.cardType = cardType;
+            this.available = available;
+            this.used = used;
+        }
+    }
+
+    private record PendingSpend(String cardNumber, int delta, CardView view, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.myBank.cards.spend;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of approved card spend, split into segment files named after the sequence number of their
+ * first entry. Every {@link #append(List)} is forced to disk before it returns, so one fsync covers a whole batch.
+ * Each entry carries a checksum; replay stops at the first entry of a segment that is truncated or corrupt, which
+ * is where a crash interrupted the last write.
+ * <p>
+ * Appends and {@link #open(long)} must come from a single thread; {@link #deleteThrough(long)} may run concurrently.
+ */
+class SpendJournal implements Closeable {
+
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private FileChannel channel;
+    private boolean failed;
+
+    SpendJournal(Path directory, long segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(file -> segments.put(firstSequence(file), file));
+        }
+    }
+
+    /**
+     * Passes every entry after {@code afterSequence} to the consumer, oldest first.
+     *
+     * @return the sequence number of the last entry in the journal, or {@code afterSequence} if there is none after it
+     */
+    long replay(long afterSequence, Consumer<Entry> consumer) throws IOException {
+        long lastSequence = afterSequence;
+        for (Path segment : segments.values()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                for (Entry entry = read(in); entry != null; entry = read(in)) {
+                    if (entry.sequence() > lastSequence) {
+                        consumer.accept(entry);
+                        lastSequence = entry.sequence();
+                    }
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Starts a new segment for entries from {@code nextSequence} on, leaving any torn tail of the previous one behind.
+     */
+    void open(long nextSequence) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        Path segment = directory.resolve(String.format("%019d%s", nextSequence, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segments.put(nextSequence, segment);
+        failed = false;
+    }
+
+    /**
+     * Writes the entries and forces them to disk. If that fails, the partial write is cut off again so that the
+     * entries are never replayed; if even that fails, the journal refuses further appends.
+     */
+    void append(List<Entry> entries) throws IOException {
+        if (failed) {
+            throw new IOException("Journal is unusable after an earlier write failure");
+        }
+        if (channel.size() >= segmentSize) {
+            open(entries.get(0).sequence());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Entry entry : entries) {
+            write(out, entry);
+        }
+        long position = channel.size();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            try {
+                channel.truncate(position);
+                channel.force(false);
+            } catch (IOException truncateEx) {
+                failed = true;
+                ex.addSuppressed(truncateEx);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Deletes the segments holding only entries up to {@code sequence}. The segment being appended to is kept.
+     */
+    void deleteThrough(long sequence) {
+        if (segments.size() < 2) {
+            return;
+        }
+        for (Map.Entry<Long, Path> segment : segments.headMap(segments.lastKey()).entrySet()) {
+            Long nextFirstSequence = segments.higherKey(segment.getKey());
+            if (nextFirstSequence == null || nextFirstSequence - 1 > sequence) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segment.getValue());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            segments.remove(segment.getKey());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static void write(DataOutputStream out, Entry entry) throws IOException {
+        byte[] cardNumber = entry.cardNumber().getBytes(StandardCharsets.UTF_8);
+        out.writeLong(entry.sequence());
+        out.writeInt(entry.delta());
+        out.writeShort(cardNumber.length);
+        out.write(cardNumber);
+        out.writeLong(checksum(entry.sequence(), entry.delta(), cardNumber));
+    }
+
+    private static Entry read(DataInputStream in) throws IOException {
+        try {
+            long sequence = in.readLong();
+            int delta = in.readInt();
+            byte[] cardNumber = new byte[in.readUnsignedShort()];
+            in.readFully(cardNumber);
+            if (in.readLong() != checksum(sequence, delta, cardNumber)) {
+                return null;
+            }
+            return new Entry(sequence, new String(cardNumber, StandardCharsets.UTF_8), delta);
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    private static long checksum(long sequence, int delta, byte[] cardNumber) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(sequence).putInt(delta).flip());
+        crc.update(cardNumber);
+        return crc.getValue();
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * One approved spend: a positive {@code delta} is a charge, a negative one a refund.
+     */
+    record Entry(long sequence, String cardNumber, int delta) {
+    }
+}
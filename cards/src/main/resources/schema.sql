@@ -10,5 +10,31 @@ CREATE TABLE IF NOT EXISTS `cards` (
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
-  PRIMARY KEY (`card_id`)
-);
\ No newline at end of file
+  PRIMARY KEY (`card_id`),
+  UNIQUE KEY `uk_cards_card_number` (`card_number`),
+  KEY `idx_cards_mobile_number` (`mobile_number`)
+);
+
+CREATE TABLE IF NOT EXISTS `card_portfolio` (
+  `card_type` varchar(100) NOT NULL,
+  `card_count` bigint NOT NULL,
+  `total_limit` bigint NOT NULL,
+  `amount_used` bigint NOT NULL,
+  `updated_at` datetime NOT NULL,
+  PRIMARY KEY (`card_type`)
+);
+
+CREATE TABLE IF NOT EXISTS `number_segment` (
+  `name` varchar(50) NOT NULL,
+  `next_value` bigint NOT NULL,
+  PRIMARY KEY (`name`)
+);
+
+-- starts above the range of the randomly generated numbers issued before the allocator existed
+INSERT IGNORE INTO `number_segment` (`name`, `next_value`) VALUES ('card_number', 100900000000);
+
+CREATE TABLE IF NOT EXISTS `card_spend_checkpoint` (
+  `name` varchar(50) NOT NULL,
+  `last_sequence` bigint NOT NULL,
+  PRIMARY KEY (`name`)
+);
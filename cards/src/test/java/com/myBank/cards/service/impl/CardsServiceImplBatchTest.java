@@ -0,0 +1,48 @@
+package com.myBank.cards.service.impl;
+
+import com.myBank.cards.config.BatchProperties;
+import com.myBank.cards.dto.CardsDto;
+import com.myBank.cards.entity.Cards;
+import com.myBank.cards.exception.BatchSizeExceededException;
+import com.myBank.cards.repository.CardsRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CardsServiceImplBatchTest {
+
+    private final CardsRepository cardsRepository = mock(CardsRepository.class);
+    private final BatchProperties batchProperties = new BatchProperties();
+    private final CardsServiceImpl cardsService = new CardsServiceImpl(cardsRepository, null, null, null, null, null,
+            null, null, batchProperties);
+
+    @Test
+    void returnsTheCardsOfTheNumbersThatHaveOne() {
+        List<String> mobileNumbers = List.of("4354437687", "4354437688");
+        when(cardsRepository.findAllByMobileNumberIn(mobileNumbers))
+                .thenReturn(List.of(new Cards(1L, "4354437688", "100900000001", "Credit Card", 100_000, 0, 100_000)));
+
+        List<CardsDto> cardsDtos = cardsService.fetchCards(mobileNumbers);
+
+        assertEquals(List.of("4354437688"), cardsDtos.stream().map(CardsDto::getMobileNumber).toList());
+    }
+
+    @Test
+    void batchOverTheMaximumSizeIsRejectedWithoutQuerying() {
+        List<String> mobileNumbers = IntStream.rangeClosed(1, batchProperties.getMaxSize() + 1)
+                .mapToObj(i -> String.format("43544%05d", i))
+                .toList();
+
+        assertThrows(BatchSizeExceededException.class, () -> cardsService.fetchCards(mobileNumbers));
+        verify(cardsRepository, never()).findAllByMobileNumberIn(anyCollection());
+    }
+}
@@ -0,0 +1,196 @@
+package com.myBank.cards.service.impl;
+
+import com.myBank.cards.config.BatchProperties;
+import com.myBank.cards.config.CardSpendProperties;
+import com.myBank.cards.config.ExportProperties;
+import com.myBank.cards.dto.CardPortfolioDto;
+import com.myBank.cards.dto.CardTransactionDto;
+import com.myBank.cards.entity.Cards;
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.exception.CardTransactionDeclinedException;
+import com.myBank.cards.export.CardsExporter;
+import com.myBank.cards.exception.ResourceNotFoundException;
+import com.myBank.cards.portfolio.CardPortfolio;
+import com.myBank.cards.repository.CardsRepository;
+import com.myBank.cards.spend.CardSpendTally;
+import com.myBank.cards.spend.CardSpendWriteBehind;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.querydsl.EntityPathResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Hammers one hot card from many threads through the conditional UPDATEs and checks that every accepted charge and
+ * refund is reflected in the final balance and in the card portfolio, and that the card is never overdrawn.
+ */
+class CardsServiceImplChargeStressTest {
+
+    private static final String CARD_NUMBER = "100900000001";
+    private static final int LIMIT = 300;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 100;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private CardsServiceImpl cardsService;
+    private CardsRepository cardsRepository;
+    private ExecutorService executor;
+    private HikariDataSource dataSource;
+    private CardPortfolio cardPortfolio;
+    private CardSpendTally cardSpendTally;
+    private CardsEventPublisher cardsEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:charge;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+        dataSource.setMaximumPoolSize(THREADS);
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.myBank.cards.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("transactionManager", transactionManager);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        // the factory bean, unlike a bare JpaRepositoryFactory, honours the @Transactional of the modifying queries
+        JpaRepositoryFactoryBean<CardsRepository, Cards, Long> repositoryFactoryBean =
+                new JpaRepositoryFactoryBean<>(CardsRepository.class);
+        repositoryFactoryBean.setEntityManager(entityManager);
+        repositoryFactoryBean.setBeanFactory(beanFactory);
+        repositoryFactoryBean.setEntityPathResolver(beanFactory.getBeanProvider(EntityPathResolver.class));
+        repositoryFactoryBean.afterPropertiesSet();
+        cardsRepository = repositoryFactoryBean.getObject();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Cards cards = new Cards(null, "4354437687", CARD_NUMBER, "Credit Card", LIMIT, 0, LIMIT);
+            cards.setCreatedBy("TEST");
+            entityManager.persist(cards);
+        });
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS card_portfolio");
+        jdbcTemplate.execute("CREATE TABLE card_portfolio (card_type varchar(100) NOT NULL PRIMARY KEY, " +
+                "card_count bigint NOT NULL, total_limit bigint NOT NULL, amount_used bigint NOT NULL, " +
+                "updated_at datetime NOT NULL)");
+        cardPortfolio = new CardPortfolio(jdbcTemplate, transactionTemplate, Duration.ofSeconds(1), Duration.ofHours(1));
+        cardPortfolio.reconcile();
+        cardsEventPublisher = mock(CardsEventPublisher.class);
+        cardSpendTally = new CardSpendTally(jdbcTemplate, cardPortfolio, cardsEventPublisher, Duration.ofHours(1));
+        cardPortfolio.beforeReconcile(cardSpendTally::flush);
+        cardsService = new CardsServiceImpl(cardsRepository, null, cardsEventPublisher,
+                () -> Optional.of("TEST"), new CardSpendWriteBehind(new CardSpendProperties(), null, null, null, null),
+                cardSpendTally, cardPortfolio, new CardsExporter(jdbcTemplate, new ExportProperties()), new BatchProperties());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentChargesAndRefundsLoseNoUpdateAndNeverOverdraw() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                // {accepted charges, declined charges, accepted refunds, declined refunds}
+                int[] outcome = new int[4];
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    boolean refund = (thread + i) % 4 == 0;
+                    try {
+                        if (refund) {
+                            cardsService.refundCard(new CardTransactionDto(CARD_NUMBER, 1));
+                            outcome[2]++;
+                        } else {
+                            cardsService.chargeCard(new CardTransactionDto(CARD_NUMBER, 1));
+                            outcome[0]++;
+                        }
+                    } catch (CardTransactionDeclinedException ex) {
+                        outcome[refund ? 3 : 1]++;
+                    }
+                }
+                return outcome;
+            }));
+        }
+        start.countDown();
+        int[] total = new int[4];
+        for (Future<int[]> future : futures) {
+            int[] outcome = future.get(2, TimeUnit.MINUTES);
+            for (int i = 0; i < total.length; i++) {
+                total[i] += outcome[i];
+            }
+        }
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, total[0] + total[1] + total[2] + total[3]);
+
+        Cards cards = cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(total[0] - total[2], cards.getAmountUsed());
+        assertEquals(LIMIT, cards.getAmountUsed() + cards.getAvailableAmount());
+        assertEquals(LIMIT, cards.getTotalLimit());
+        cardSpendTally.flush();
+        // hundreds of charges and refunds of one card, one change event
+        verify(cardsEventPublisher, times(1)).publishCardChanged(anyString());
+        assertEquals(List.of(new CardPortfolioDto("Credit Card", 1, LIMIT, total[0] - total[2])), cardPortfolio.portfolio());
+        cardPortfolio.flush();
+        assertEquals(0, cardPortfolio.reconcile());
+        // three charges per refund against a limit far below the number of charges, so the limit was hit
+        assertTrue(total[1] > 0, "no charge was ever declined");
+    }
+
+    @Test
+    void declinesChargeAboveAvailableAndRefundAboveUsed() {
+        cardsService.chargeCard(new CardTransactionDto(CARD_NUMBER, LIMIT - 100));
+
+        assertThrows(CardTransactionDeclinedException.class,
+                () -> cardsService.chargeCard(new CardTransactionDto(CARD_NUMBER, 101)));
+        assertThrows(CardTransactionDeclinedException.class,
+                () -> cardsService.refundCard(new CardTransactionDto(CARD_NUMBER, LIMIT - 99)));
+        assertThrows(ResourceNotFoundException.class,
+                () -> cardsService.chargeCard(new CardTransactionDto("100900000002", 1)));
+
+        cardsService.refundCard(new CardTransactionDto(CARD_NUMBER, LIMIT - 100));
+        Cards cards = cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(0, cards.getAmountUsed());
+        assertEquals(LIMIT, cards.getAvailableAmount());
+    }
+}
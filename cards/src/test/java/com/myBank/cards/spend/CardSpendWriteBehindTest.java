@@ -0,0 +1,191 @@
+package com.myBank.cards.spend;
+
+import com.myBank.cards.config.CardSpendProperties;
+import com.myBank.cards.event.CardsEventPublisher;
+import com.myBank.cards.exception.CardTransactionDeclinedException;
+import com.myBank.cards.exception.ResourceNotFoundException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class CardSpendWriteBehindTest {
+
+    private static final String CARD_NUMBER = "100900000001";
+    private static final int LIMIT = 1_000;
+
+    @TempDir
+    Path journalDirectory;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final List<CardSpendWriteBehind> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:spend;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cards (card_id int AUTO_INCREMENT PRIMARY KEY, mobile_number varchar(15), " +
+                "card_number varchar(100), card_type varchar(100), total_limit int, amount_used int, available_amount int, " +
+                "updated_at timestamp, updated_by varchar(20))");
+        jdbcTemplate.execute("CREATE TABLE card_spend_checkpoint (name varchar(50) PRIMARY KEY, last_sequence bigint)");
+        jdbcTemplate.update("INSERT INTO cards (mobile_number, card_number, card_type, total_limit, amount_used, " +
+                "available_amount) VALUES ('4354437687', ?, 'Credit Card', ?, 0, ?)", CARD_NUMBER, LIMIT, LIMIT);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (CardSpendWriteBehind writeBehind : started) {
+            writeBehind.stop();
+        }
+        dataSource.close();
+    }
+
+    @Test
+    void approvesAgainstTheViewAndGroupCommitsTheNetChange() throws Exception {
+        CardSpendWriteBehind writeBehind = start(Duration.ofMillis(20));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger charged = new AtomicInteger();
+        AtomicInteger declined = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    writeBehind.charge(CARD_NUMBER, 1);
+                    charged.incrementAndGet();
+                } catch (CardTransactionDeclinedException ex) {
+                    declined.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        writeBehind.refund(CARD_NUMBER, 100);
+        writeBehind.flush();
+
+        assertEquals(LIMIT, charged.get());
+        assertEquals(500, declined.get());
+        assertEquals(LIMIT - 100, amountUsed());
+        assertEquals(100, availableAmount());
+        assertThrows(CardTransactionDeclinedException.class, () -> writeBehind.charge(CARD_NUMBER, 101));
+        assertThrows(CardTransactionDeclinedException.class, () -> writeBehind.refund(CARD_NUMBER, LIMIT));
+        assertThrows(ResourceNotFoundException.class, () -> writeBehind.charge("100900000002", 1));
+    }
+
+    @Test
+    void updatesOfTheCardNeitherLoseNorRepeatSpendApprovedConcurrently() throws Exception {
+        CardSpendWriteBehind writeBehind = start(Duration.ofMillis(5));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger charged = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 300; i++) {
+                    try {
+                        writeBehind.charge(CARD_NUMBER, 1);
+                        charged.incrementAndGet();
+                    } catch (CardTransactionDeclinedException ex) {
+                        // the card is full until the next update resets it
+                    }
+                }
+            }));
+        }
+        // each update settles what was spent so far and resets the card, as a client overwriting it would
+        int settled = 0;
+        for (int i = 0; i < 50; i++) {
+            settled += writeBehind.exclusively(CARD_NUMBER, () -> {
+                int used = amountUsed();
+                assertEquals(LIMIT, used + availableAmount());
+                jdbcTemplate.update("UPDATE cards SET amount_used = 0, available_amount = ? WHERE card_number = ?",
+                        LIMIT, CARD_NUMBER);
+                return used;
+            });
+            Thread.sleep(2);
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        writeBehind.flush();
+
+        assertEquals(charged.get(), settled + amountUsed());
+        assertEquals(LIMIT, amountUsed() + availableAmount());
+    }
+
+    @Test
+    void replaysApprovedSpendAfterACrashExactlyOnce() throws Exception {
+        CardSpendWriteBehind crashed = new CardSpendWriteBehind(properties(Duration.ofHours(1)), jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), mock(CardsEventPublisher.class),
+                () -> Optional.of("TEST"));
+        crashed.start();
+        for (int i = 0; i < 10; i++) {
+            crashed.charge(CARD_NUMBER, 7);
+        }
+        crashed.refund(CARD_NUMBER, 5);
+        // never stopped, so nothing reached the table
+        assertEquals(0, amountUsed());
+        try (Stream<Path> segments = Files.list(journalDirectory)) {
+            Path segment = segments.max(Path::compareTo).orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 0, 0, 0, 0, 42, 0, 0}, StandardOpenOption.APPEND);
+        }
+
+        start(Duration.ofHours(1));
+        assertEquals(65, amountUsed());
+        assertEquals(LIMIT - 65, availableAmount());
+
+        start(Duration.ofHours(1));
+        assertEquals(65, amountUsed());
+        assertTrue(jdbcTemplate.queryForObject("SELECT last_sequence FROM card_spend_checkpoint", Long.class) >= 11);
+    }
+
+    private CardSpendWriteBehind start(Duration flushInterval) throws Exception {
+        CardSpendWriteBehind writeBehind = new CardSpendWriteBehind(properties(flushInterval), jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), mock(CardsEventPublisher.class),
+                () -> Optional.of("TEST"));
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private CardSpendProperties properties(Duration flushInterval) {
+        CardSpendProperties properties = new CardSpendProperties();
+        properties.setWriteBehind(true);
+        properties.setFlushInterval(flushInterval);
+        properties.setJournalDirectory(journalDirectory);
+        return properties;
+    }
+
+    private int amountUsed() {
+        return jdbcTemplate.queryForObject("SELECT amount_used FROM cards WHERE card_number = ?", Integer.class, CARD_NUMBER);
+    }
+
+    private int availableAmount() {
+        return jdbcTemplate.queryForObject("SELECT available_amount FROM cards WHERE card_number = ?", Integer.class, CARD_NUMBER);
+    }
+}
@@ -1,24 +1,32 @@
 package com.myBank.gatewayserver;
 
+import com.myBank.gatewayserver.config.ConcurrencyLimitProperties;
+import com.myBank.gatewayserver.config.EdgeCacheProperties;
+import com.myBank.gatewayserver.config.HedgingProperties;
+import com.myBank.gatewayserver.config.RateLimitProperties;
+import com.myBank.gatewayserver.hedging.HedgingFilter;
+import com.myBank.gatewayserver.ratelimit.LocalRateLimiter;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
-import org.springframework.http.HttpMethod;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 
 @SpringBootApplication
+@EnableConfigurationProperties({RateLimitProperties.class, EdgeCacheProperties.class, HedgingProperties.class,
+		ConcurrencyLimitProperties.class})
+@RemoteApplicationEventScan(basePackages = "com.myBank.gatewayserver.event")
 public class GatewayserverApplication {
 
 	public static void main(String[] args) {
@@ -26,29 +34,25 @@ public class GatewayserverApplication {
 	}
 
 	@Bean
-	public RouteLocator myBankRouteConfig(RouteLocatorBuilder builder) {
+	public RouteLocator myBankRouteConfig(RouteLocatorBuilder builder, LocalRateLimiter localRateLimiter,
+										 HedgingFilter hedgingFilter) {
 
 		return builder.routes()
-				.route(p -> p
+				.route("accounts", p -> p
 						.path("/mybank/accounts/**")
 						.filters(f -> f.rewritePath("/mybank/accounts/(?<segment>.*)", "/${segment}")
-								.addResponseHeader("X-RESPONSE-TIME", LocalDateTime.now().toString())
 								.circuitBreaker(config -> config.setName("accountsCircuitBreaker")
 										.setFallbackUri("forward:/contactSupport")))
 						.uri("lb://ACCOUNTS"))
-				.route(p -> p
+				.route("loans", p -> p
 						.path("/mybank/loans/**")
 						.filters(f -> f.rewritePath("/mybank/loans/(?<segment>.*)", "/${segment}")
-								.addResponseHeader("X-RESPONSE-TIME", LocalDateTime.now().toString())
-								.retry(config -> config.setRetries(3)
-										.setMethods(HttpMethod.GET)
-										.setBackoff(Duration.ofMillis(1000), Duration.ofMillis(1000), 2, true)))
+								.filter(hedgingFilter))
 						.uri("lb://LOANS"))
-				.route(p -> p
+				.route("cards", p -> p
 						.path("/mybank/cards/**")
 						.filters(f -> f.rewritePath("/mybank/cards/(?<segment>.*)", "/${segment}")
-								.addResponseHeader("X-RESPONSE-TIME", LocalDateTime.now().toString())
-								.requestRateLimiter(config -> config.setRateLimiter(redisRateLimiter())
+								.requestRateLimiter(config -> config.setRateLimiter(localRateLimiter)
 										.setKeyResolver(userKeyResolver())))
 						.uri("lb://CARDS"))
 				.build();
@@ -61,14 +65,9 @@ public class GatewayserverApplication {
 				.timeLimiterConfig(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(4)).build()).build());
 	}
 
-	@Bean
-	public RedisRateLimiter redisRateLimiter() {
-		return new RedisRateLimiter(1, 1, 1);
-	}
-
 	@Bean
 	KeyResolver userKeyResolver() {
-		return exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst("use"))
+		return exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst("user"))
 				.defaultIfEmpty("anonymous");
 	}
 
@@ -0,0 +1,98 @@
+package com.myBank.gatewayserver.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses cached by the gateway, bounded by the total size of their bodies and expiring after the time to live of
+ * the rule that cached them. An entry is a future so that a response being fetched is already in the cache and
+ * concurrent requests for it wait instead of going upstream; a future completed with {@code null} is removed, and
+ * one evicted while being fetched is not put back when it completes. Hit, miss and eviction metrics are published
+ * as {@code cache.*} meters tagged with {@code cache=edge}.
+ */
+public class EdgeCache {
+
+    /**
+     * Rough per-entry cost of the key and headers, so that entries with tiny bodies still count.
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final AsyncCache<Key, Entry> cache;
+
+    public EdgeCache(long maximumBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> entry.body().length + ENTRY_OVERHEAD)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.timeToLive().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.timeToLive().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "edge");
+    }
+
+    /**
+     * Registers {@code pending} as the response of {@code key} unless there already is one.
+     *
+     * @return the cached or pending response, or {@code null} when {@code pending} was registered, in which case
+     * the caller must complete it, with {@code null} if the response turns out not to be cacheable
+     */
+    public CompletableFuture<Entry> getOrRegister(Key key, CompletableFuture<Entry> pending) {
+        return cache.asMap().putIfAbsent(key, pending);
+    }
+
+    public void evictRoute(String routeId) {
+        cache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+    }
+
+    /**
+     * Evicts the responses of a route for one mobile number. Walks all keys, which for the few thousand entries the
+     * cache holds is cheaper than keeping a second index up to date on every fetch.
+     */
+    public void evict(String routeId, String mobileNumber) {
+        cache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId)
+                && mobileNumber.equals(key.mobileNumber()));
+    }
+
+    public void clear() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * @param accept the Accept header, as cards and loans answer the same URL in JSON or Smile
+     * @param mobileNumber the {@code mobileNumber} query parameter, if any, for eviction on change events
+     */
+    public record Key(String routeId, String path, String query, String accept, String mobileNumber) {
+    }
+
+    /**
+     * A 200 response; {@code headers} exclude the per-request ones.
+     */
+    public record Entry(HttpHeaders headers, byte[] body, String etag, long storedAtMillis, Duration timeToLive) {
+
+        public long ageSeconds(long nowMillis) {
+            return TimeUnit.MILLISECONDS.toSeconds(Math.max(nowMillis - storedAtMillis, 0));
+        }
+    }
+}
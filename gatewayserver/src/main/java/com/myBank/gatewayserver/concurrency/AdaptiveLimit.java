@@ -0,0 +1,131 @@
+package com.myBank.gatewayserver.concurrency;
+
+import com.myBank.gatewayserver.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-flight limit of one route, adjusted from its latencies in the style of the gradient algorithm. The average
+ * latency of each window is compared with a long-term average of the windows: while it stays within the tolerance
+ * the limit grows by a queue allowance of its square root, and once it exceeds it, i.e. the backend is queueing,
+ * the limit shrinks in proportion, by at most half. Windows that used less than half the limit leave it unchanged,
+ * so that a quiet period does not inflate it.
+ * <p>
+ * Acquiring is a compare-and-set on the in-flight count and latencies are summed in adders; the limit is only
+ * recomputed by the thread that closes a window.
+ */
+class AdaptiveLimit {
+
+    private static final int LONG_RTT_WARMUP = 10;
+
+    private final ConcurrencyLimitProperties.Policy policy;
+    private final LongSupplier nanoClock;
+    private final long windowNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicBoolean closingWindow = new AtomicBoolean();
+    private volatile long windowStart;
+    private volatile int limit;
+
+    // only touched while closing a window
+    private double estimatedLimit;
+    private double longRtt;
+    private int longRttWindows;
+
+    AdaptiveLimit(ConcurrencyLimitProperties.Policy policy, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+        this.windowNanos = policy.getWindow().toNanos();
+        this.estimatedLimit = policy.getInitialLimit();
+        this.limit = policy.getInitialLimit();
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return whether the request may proceed, in which case it must be released
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                windowMaxInflight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    void release(long rttNanos) {
+        inflight.decrementAndGet();
+        windowRttNanos.add(rttNanos);
+        windowSamples.increment();
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= windowNanos && windowSamples.sum() >= policy.getMinWindowSamples()
+                && closingWindow.compareAndSet(false, true)) {
+            try {
+                closeWindow(now);
+            } finally {
+                closingWindow.set(false);
+            }
+        }
+    }
+
+    /**
+     * Releases a request whose latency says nothing about the backend, e.g. one the client gave up on.
+     */
+    void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    private void closeWindow(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rttNanos = windowRttNanos.sumThenReset();
+        int maxInflight = windowMaxInflight.getAndSet(inflight.get());
+        windowStart = now;
+        if (samples == 0) {
+            return;
+        }
+        double shortRtt = (double) rttNanos / samples;
+        updateLongRtt(shortRtt);
+        // recover quickly from a long-term average inflated by a past slowdown
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (maxInflight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, policy.getTolerance() * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - policy.getSmoothing()) + newLimit * policy.getSmoothing();
+        estimatedLimit = Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Plain average over the first windows, exponential average over {@code longWindow} windows after that.
+     */
+    private void updateLongRtt(double shortRtt) {
+        if (longRttWindows < LONG_RTT_WARMUP) {
+            longRttWindows++;
+            longRtt += (shortRtt - longRtt) / longRttWindows;
+        } else {
+            double factor = 2.0 / (policy.getLongWindow() + 1);
+            longRtt = longRtt * (1 - factor) + shortRtt * factor;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.myBank.gatewayserver.concurrency;
+
+import com.myBank.gatewayserver.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the requests in flight on each route with a {@code concurrency-limit} policy under an {@link AdaptiveLimit}
+ * learned from the route's latencies, so that a backend starting to queue gets less traffic before its request
+ * threads are all taken. Requests over the limit are answered at once with 503 and a {@code Retry-After} header.
+ * <p>
+ * Runs after {@link com.myBank.gatewayserver.filters.EdgeCacheFilter}, as cache hits never reach the backend.
+ * Publishes the {@code gateway.concurrency.limit} and {@code gateway.concurrency.inflight} gauges and the
+ * {@code gateway.concurrency.rejected} counter, tagged with the route id.
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final MeterProvider<Counter> rejectionCounters;
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties concurrencyLimitProperties, MeterRegistry meterRegistry) {
+        this(concurrencyLimitProperties, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(ConcurrencyLimitProperties concurrencyLimitProperties, MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        this.concurrencyLimitProperties = concurrencyLimitProperties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.rejectionCounters = Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected with 503 because the route's in-flight limit was reached")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ConcurrencyLimitProperties.Policy policy = route != null
+                ? concurrencyLimitProperties.getRoutes().get(route.getId()) : null;
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+        AdaptiveLimit limit = limits.computeIfAbsent(route.getId(), id -> register(id, policy));
+        if (!limit.tryAcquire()) {
+            rejectionCounters.withTags("route", route.getId()).increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(policy.getRetryAfter().toSeconds(), 1)));
+            return response.setComplete();
+        }
+        long start = nanoClock.getAsLong();
+        return chain.filter(exchange)
+                .doOnTerminate(() -> limit.release(nanoClock.getAsLong() - start))
+                .doOnCancel(limit::releaseWithoutSample);
+    }
+
+    private AdaptiveLimit register(String routeId, ConcurrencyLimitProperties.Policy policy) {
+        AdaptiveLimit limit = new AdaptiveLimit(policy, nanoClock);
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveLimit::limit)
+                .description("Current adaptive in-flight limit of the route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, AdaptiveLimit::inflight)
+                .description("Requests of the route currently in flight")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
@@ -0,0 +1,150 @@
+package com.myBank.gatewayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounds and tuning of the adaptive in-flight limit of each route.
+ */
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Policies by route id. Routes without one are not limited.
+     */
+    private Map<String, Policy> routes = new HashMap<>();
+
+    public Map<String, Policy> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Policy> routes) {
+        this.routes = routes;
+    }
+
+    public static class Policy {
+
+        /**
+         * In-flight limit until the first latencies have been observed.
+         */
+        private int initialLimit = 20;
+
+        private int minLimit = 5;
+
+        /**
+         * Should stay below what the route's instances can serve together, e.g. their Tomcat thread pools.
+         */
+        private int maxLimit = 200;
+
+        /**
+         * How much the recent latency may exceed the long-term one before the limit is reduced, e.g. 1.5 for 50%.
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * Weight of each new limit estimate, between 0 and 1.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Latencies are averaged over windows of at least this long and at least {@code minWindowSamples}.
+         */
+        private Duration window = Duration.ofSeconds(1);
+
+        private int minWindowSamples = 10;
+
+        /**
+         * Number of windows the long-term latency is averaged over.
+         */
+        private int longWindow = 600;
+
+        /**
+         * Sent in the {@code Retry-After} header of rejected requests, in whole seconds.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public Policy() {
+        }
+
+        public Policy(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMinWindowSamples() {
+            return minWindowSamples;
+        }
+
+        public void setMinWindowSamples(int minWindowSamples) {
+            this.minWindowSamples = minWindowSamples;
+        }
+
+        public int getLongWindow() {
+            return longWindow;
+        }
+
+        public void setLongWindow(int longWindow) {
+            this.longWindow = longWindow;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+}
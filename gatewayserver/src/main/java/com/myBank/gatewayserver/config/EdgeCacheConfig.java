@@ -0,0 +1,15 @@
+package com.myBank.gatewayserver.config;
+
+import com.myBank.gatewayserver.cache.EdgeCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EdgeCacheConfig {
+
+    @Bean
+    public EdgeCache edgeCache(EdgeCacheProperties edgeCacheProperties, MeterRegistry meterRegistry) {
+        return new EdgeCache(edgeCacheProperties.getMaximumSize().toBytes(), meterRegistry);
+    }
+}
@@ -0,0 +1,101 @@
+package com.myBank.gatewayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which GET responses the gateway caches, for how long, and how much memory the cache may take.
+ */
+@ConfigurationProperties(prefix = "edge-cache")
+public class EdgeCacheProperties {
+
+    /**
+     * Total size of the cached bodies.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Larger responses are passed through without being cached.
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    /**
+     * How long a request waits for a concurrent request of the same resource before going upstream itself.
+     */
+    private Duration coalesceTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Cached paths, the first matching rule applies. Paths are gateway paths, before the route rewrites them.
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    public DataSize getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(DataSize maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public Duration getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public void setCoalesceTimeout(Duration coalesceTimeout) {
+        this.coalesceTimeout = coalesceTimeout;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+
+        /**
+         * Path pattern, e.g. {@code /mybank/*}{@code /api/fetch}.
+         */
+        private String path;
+
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        public Rule() {
+        }
+
+        public Rule(String path, Duration timeToLive) {
+            this.path = path;
+            this.timeToLive = timeToLive;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+}
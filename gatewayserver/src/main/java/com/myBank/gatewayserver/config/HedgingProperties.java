@@ -0,0 +1,121 @@
+package com.myBank.gatewayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hedging policy of each route that hedges its requests.
+ */
+@ConfigurationProperties(prefix = "hedging")
+public class HedgingProperties {
+
+    /**
+     * Policies by route id. Routes without one are not hedged.
+     */
+    private Map<String, Policy> routes = new HashMap<>();
+
+    public Map<String, Policy> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Policy> routes) {
+        this.routes = routes;
+    }
+
+    public static class Policy {
+
+        /**
+         * Latency percentile of the route after which the request is hedged.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Lower bound of the hedge delay, so that a fast route is not hedged on noise.
+         */
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * Number of recent latencies the percentile is taken from.
+         */
+        private int window = 1000;
+
+        /**
+         * Latencies needed before the first hedge; requests are not hedged until then.
+         */
+        private int minSamples = 100;
+
+        /**
+         * Hedges allowed as a share of the requests, e.g. 0.1 for at most 10% extra load.
+         */
+        private double maxExtraLoad = 0.1;
+
+        /**
+         * Unused hedges that may be saved up for a burst of slow responses.
+         */
+        private int maxBurst = 10;
+
+        public Policy() {
+        }
+
+        public Policy(double percentile, Duration minDelay, int window, int minSamples, double maxExtraLoad,
+                      int maxBurst) {
+            this.percentile = percentile;
+            this.minDelay = minDelay;
+            this.window = window;
+            this.minSamples = minSamples;
+            this.maxExtraLoad = maxExtraLoad;
+            this.maxBurst = maxBurst;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public int getWindow() {
+            return window;
+        }
+
+        public void setWindow(int window) {
+            this.window = window;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public double getMaxExtraLoad() {
+            return maxExtraLoad;
+        }
+
+        public void setMaxExtraLoad(double maxExtraLoad) {
+            this.maxExtraLoad = maxExtraLoad;
+        }
+
+        public int getMaxBurst() {
+            return maxBurst;
+        }
+
+        public void setMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+        }
+    }
+}
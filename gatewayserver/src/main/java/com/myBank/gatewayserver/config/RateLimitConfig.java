@@ -0,0 +1,23 @@
+package com.myBank.gatewayserver.config;
+
+import com.myBank.gatewayserver.ratelimit.LocalRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Primary over the {@code RedisRateLimiter} the gateway still auto-configures, so the request rate limiter
+     * filter factory uses this one by default.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Primary
+    public LocalRateLimiter localRateLimiter(RateLimitProperties rateLimitProperties,
+                                             ObjectProvider<ReactiveStringRedisTemplate> redisTemplate) {
+        return new LocalRateLimiter(rateLimitProperties, redisTemplate.getIfAvailable());
+    }
+}
@@ -0,0 +1,165 @@
+package com.myBank.gatewayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quotas of the in-process rate limiter, per route and per client tier.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Quotas per route id, then per client tier. A tier without a quota of its own gets the default tier's.
+     */
+    private Map<String, Map<String, Quota>> routes = new HashMap<>();
+
+    /**
+     * Tier of each client, by the key the key resolver returns. Other clients are in the default tier.
+     */
+    private Map<String, String> clients = new HashMap<>();
+
+    private String defaultTier = "standard";
+
+    /**
+     * How long a bucket is kept once it has refilled. A bucket evicted and recreated starts full, which it would
+     * have been anyway, so this only bounds memory and never grants extra tokens.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * How often idle buckets are looked for.
+     */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    private RedisSync redisSync = new RedisSync();
+
+    public Map<String, Map<String, Quota>> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Map<String, Quota>> routes) {
+        this.routes = routes;
+    }
+
+    public Map<String, String> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, String> clients) {
+        this.clients = clients;
+    }
+
+    public String getDefaultTier() {
+        return defaultTier;
+    }
+
+    public void setDefaultTier(String defaultTier) {
+        this.defaultTier = defaultTier;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public RedisSync getRedisSync() {
+        return redisSync;
+    }
+
+    public void setRedisSync(RedisSync redisSync) {
+        this.redisSync = redisSync;
+    }
+
+    public static class Quota {
+
+        /**
+         * Tokens added to the bucket per second.
+         */
+        private int replenishRate = 1;
+
+        /**
+         * Most tokens the bucket holds, i.e. the largest burst allowed.
+         */
+        private int burstCapacity = 1;
+
+        /**
+         * Tokens one request takes.
+         */
+        private int requestedTokens = 1;
+
+        public Quota() {
+        }
+
+        public Quota(int replenishRate, int burstCapacity, int requestedTokens) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+            this.requestedTokens = requestedTokens;
+        }
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+
+    public static class RedisSync {
+
+        /**
+         * Whether instances share what their clients used through Redis. Requests never wait for Redis: each
+         * instance decides locally and takes in the usage seen on the other instances once per interval.
+         */
+        private boolean enabled = false;
+
+        private Duration interval = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+}
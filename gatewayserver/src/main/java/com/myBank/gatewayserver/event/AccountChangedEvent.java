@@ -0,0 +1,20 @@
+package com.myBank.gatewayserver.event;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Received over Spring Cloud Bus from the accounts microservice whenever the account of a mobile number is changed.
+ * The class name must match the one published by accounts.
+ */
+public class AccountChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+
+    public String getMobileNumber() {
+        return mobileNumber;
+    }
+
+    public void setMobileNumber(String mobileNumber) {
+        this.mobileNumber = mobileNumber;
+    }
+}
@@ -0,0 +1,56 @@
+package com.myBank.gatewayserver.event;
+
+import com.myBank.gatewayserver.cache.EdgeCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.bus.event.AckRemoteApplicationEvent;
+import org.springframework.cloud.bus.event.RefreshRemoteApplicationEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the gateway's cached responses when the services report a change. The route ids are the service names.
+ */
+@Component
+public class EdgeCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EdgeCacheInvalidationListener.class);
+
+    private final EdgeCache edgeCache;
+
+    public EdgeCacheInvalidationListener(EdgeCache edgeCache) {
+        this.edgeCache = edgeCache;
+    }
+
+    @EventListener
+    public void onCardChanged(CardChangedEvent event) {
+        logger.debug("Evicting cached cards responses for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        edgeCache.evict("cards", event.getMobileNumber());
+    }
+
+    @EventListener
+    public void onLoanChanged(LoanChangedEvent event) {
+        logger.debug("Evicting cached loans responses for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        edgeCache.evict("loans", event.getMobileNumber());
+    }
+
+    @EventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        logger.debug("Evicting cached accounts responses for {} on event from {}", event.getMobileNumber(), event.getOriginService());
+        edgeCache.evict("accounts", event.getMobileNumber());
+    }
+
+    /**
+     * A service acknowledges a bus refresh once it has applied it, so its contact-info and build-info are evicted
+     * only then; evicting on the refresh request itself could cache the old values again. Acknowledgements from
+     * other instances are only published locally with {@code spring.cloud.bus.trace.enabled}.
+     */
+    @EventListener
+    public void onAck(AckRemoteApplicationEvent event) {
+        if (RefreshRemoteApplicationEvent.class.equals(event.getEvent())) {
+            String service = event.getOriginService().split(":", 2)[0];
+            logger.debug("Evicting cached {} responses after it refreshed", service);
+            edgeCache.evictRoute(service);
+        }
+    }
+}
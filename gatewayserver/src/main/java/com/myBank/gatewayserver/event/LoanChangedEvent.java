@@ -0,0 +1,20 @@
+package com.myBank.gatewayserver.event;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Received over Spring Cloud Bus from the loans microservice whenever the loan of a mobile number is changed.
+ * The class name must match the one published by loans.
+ */
+public class LoanChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+
+    public String getMobileNumber() {
+        return mobileNumber;
+    }
+
+    public void setMobileNumber(String mobileNumber) {
+        this.mobileNumber = mobileNumber;
+    }
+}
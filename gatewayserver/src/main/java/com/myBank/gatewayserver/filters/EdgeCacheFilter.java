@@ -0,0 +1,239 @@
+package com.myBank.gatewayserver.filters;
+
+import com.myBank.gatewayserver.cache.EdgeCache;
+import com.myBank.gatewayserver.config.EdgeCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches the 200 responses of GET requests matching one of the {@code edge-cache.rules}, per route, path, query and
+ * Accept header. Every response to a cached path carries an ETag, generated from the body unless the service sent
+ * one, and a matching {@code If-None-Match} is answered with 304. Concurrent misses of the same resource share one
+ * upstream request. The {@code X-CACHE-STATUS} header tells whether the response came from the cache.
+ * <p>
+ * Runs right after {@link LatencyFilter}, before the route filters, so a hit is neither rate limited nor counted by
+ * the circuit breaker. As a hit does not reach {@link RequestTraceFilter} either, it echoes the request's
+ * {@link FilterUtility#CORRELATION_ID} itself, or generates one, like every other response. Entries are evicted on the services' change and refresh events, see
+ * {@link com.myBank.gatewayserver.event.EdgeCacheInvalidationListener}.
+ */
+@Component
+public class EdgeCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_STATUS_HEADER = "X-CACHE-STATUS";
+    public static final String HIT = "HIT";
+    public static final String MISS = "MISS";
+
+    private static final Set<String> PER_REQUEST_HEADERS = Set.of(FilterUtility.CORRELATION_ID.toLowerCase(),
+            CACHE_STATUS_HEADER.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase());
+
+    private final EdgeCache edgeCache;
+    private final EdgeCacheProperties edgeCacheProperties;
+    private final FilterUtility filterUtility;
+    private final List<CachedPath> cachedPaths;
+
+    public EdgeCacheFilter(EdgeCache edgeCache, EdgeCacheProperties edgeCacheProperties, FilterUtility filterUtility) {
+        this.edgeCache = edgeCache;
+        this.edgeCacheProperties = edgeCacheProperties;
+        this.filterUtility = filterUtility;
+        this.cachedPaths = edgeCacheProperties.getRules().stream()
+                .map(rule -> new CachedPath(PathPatternParser.defaultInstance.parse(rule.getPath()),
+                        rule.getTimeToLive()))
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (request.getMethod() != HttpMethod.GET || route == null) {
+            return chain.filter(exchange);
+        }
+        Duration timeToLive = timeToLive(request);
+        if (timeToLive == null) {
+            return chain.filter(exchange);
+        }
+        EdgeCache.Key key = new EdgeCache.Key(route.getId(), request.getPath().value(), request.getURI().getRawQuery(),
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT), request.getQueryParams().getFirst("mobileNumber"));
+        CompletableFuture<EdgeCache.Entry> pending = new CompletableFuture<>();
+        CompletableFuture<EdgeCache.Entry> cached = edgeCache.getOrRegister(key, pending);
+        if (cached == null) {
+            return fetch(exchange, chain, timeToLive, pending);
+        }
+        // suppress cancellation so that a waiting request going away does not cancel the shared future
+        return Mono.fromFuture(cached, true)
+                .map(Optional::of)
+                .timeout(edgeCacheProperties.getCoalesceTimeout(), Mono.empty())
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(entry -> entry.isPresent() ? serve(exchange, entry.get()) : passThrough(exchange, chain));
+    }
+
+    private Duration timeToLive(ServerHttpRequest request) {
+        for (CachedPath cachedPath : cachedPaths) {
+            if (cachedPath.pattern().matches(request.getPath().pathWithinApplication())) {
+                return cachedPath.timeToLive();
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Duration timeToLive,
+                             CompletableFuture<EdgeCache.Entry> pending) {
+        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, MISS);
+        CachingResponse response = new CachingResponse(exchange, timeToLive, pending);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> pending.complete(null));
+    }
+
+    private Mono<Void> passThrough(ServerWebExchange exchange, GatewayFilterChain chain) {
+        exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, MISS);
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, EdgeCache.Entry entry) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        boolean notModified = isNotModified(exchange.getRequest(), entry.etag());
+        if (!notModified) {
+            headers.putAll(entry.headers());
+        }
+        headers.setETag(entry.etag());
+        headers.set(HttpHeaders.AGE, String.valueOf(entry.ageSeconds(System.currentTimeMillis())));
+        headers.set(CACHE_STATUS_HEADER, HIT);
+        String correlationId = filterUtility.getCorrelationId(exchange.getRequest().getHeaders());
+        headers.set(FilterUtility.CORRELATION_ID, correlationId != null ? correlationId : UUID.randomUUID().toString());
+        if (notModified) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entry.body())));
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}.
+     */
+    private static boolean isNotModified(ServerHttpRequest request, String etag) {
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    private record CachedPath(PathPattern pattern, Duration timeToLive) {
+    }
+
+    /**
+     * Buffers a cacheable response body, completes the pending entry with it and then writes it, or a 304 when the
+     * request already has it. Anything else is written through and completes the entry with {@code null}.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final Duration timeToLive;
+        private final CompletableFuture<EdgeCache.Entry> pending;
+
+        CachingResponse(ServerWebExchange exchange, Duration timeToLive, CompletableFuture<EdgeCache.Entry> pending) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.timeToLive = timeToLive;
+            this.pending = pending;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                pending.complete(null);
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .defaultIfEmpty(bufferFactory().wrap(new byte[0]))
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return write(bytes);
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            pending.complete(null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private Mono<Void> write(byte[] bytes) {
+            if (bytes.length > edgeCacheProperties.getMaxEntrySize().toBytes()) {
+                pending.complete(null);
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }
+            HttpHeaders headers = getHeaders();
+            String etag = headers.getETag() != null ? headers.getETag()
+                    : "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            headers.setETag(etag);
+            HttpHeaders cachedHeaders = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!PER_REQUEST_HEADERS.contains(name.toLowerCase())) {
+                    cachedHeaders.addAll(name, values);
+                }
+            });
+            pending.complete(new EdgeCache.Entry(HttpHeaders.readOnlyHttpHeaders(cachedHeaders), bytes, etag,
+                    System.currentTimeMillis(), timeToLive));
+            if (isNotModified(request, etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable() {
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return HttpStatus.OK.isSameCodeAs(getStatusCode())
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && headers.getContentLength() <= edgeCacheProperties.getMaxEntrySize().toBytes()
+                    && (cacheControl == null || !(cacheControl.contains(CacheControl.noStore().getHeaderValue())
+                    || cacheControl.contains("private")));
+        }
+    }
+}
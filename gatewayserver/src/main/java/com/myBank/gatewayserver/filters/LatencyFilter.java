@@ -0,0 +1,80 @@
+package com.myBank.gatewayserver.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every exchange from the moment the gateway starts filtering it. The time until the response is committed
+ * is written to the {@code X-RESPONSE-TIME} header in milliseconds; the time until the exchange completes, body
+ * included, is recorded in the {@code gateway.route.latency} timer tagged with the route id, the method and the
+ * outcome. The timer keeps a decaying histogram per tag set and publishes its p50, p99 and p999, available under
+ * {@code /actuator/metrics/gateway.route.latency}. Runs first so the time spent in the other filters is included.
+ */
+@Component
+public class LatencyFilter implements GlobalFilter, Ordered {
+
+    public static final String RESPONSE_TIME_HEADER = "X-RESPONSE-TIME";
+
+    private static final String UNROUTED = "none";
+
+    private final MeterProvider<Timer> latencyTimers;
+
+    public LatencyFilter(MeterRegistry meterRegistry) {
+        this.latencyTimers = Timer.builder("gateway.route.latency")
+                .description("Time from the gateway receiving a request until the response is completed")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        exchange.getResponse().beforeCommit(() -> {
+            double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+            exchange.getResponse().getHeaders().set(RESPONSE_TIME_HEADER, String.format("%.3fms", elapsedMillis));
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+            latencyTimers.withTags(
+                    "route", route != null ? route.getId() : UNROUTED,
+                    "method", exchange.getRequest().getMethod().name(),
+                    "outcome", outcome(statusCode)
+            ).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private static String outcome(HttpStatusCode statusCode) {
+        if (statusCode == null) {
+            return "UNKNOWN";
+        }
+        if (statusCode.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (statusCode.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        if (statusCode.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return statusCode.is3xxRedirection() ? "REDIRECTION" : "INFORMATIONAL";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,37 @@
+package com.myBank.gatewayserver.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps hedges at a share of the requests: each request deposits that share of a hedge, each hedge withdraws a
+ * whole one, and at most {@code maxBurst} unused hedges are kept. Amounts are in thousandths of a hedge.
+ */
+class HedgeBudget {
+
+    private static final long HEDGE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+
+    HedgeBudget(double maxExtraLoad, int maxBurst) {
+        this.deposit = Math.round(maxExtraLoad * HEDGE);
+        this.capacity = maxBurst * HEDGE;
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(current + amount, capacity));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < HEDGE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - HEDGE)) {
+                return true;
+            }
+        }
+    }
+}
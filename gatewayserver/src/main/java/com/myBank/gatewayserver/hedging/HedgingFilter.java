@@ -0,0 +1,326 @@
+package com.myBank.gatewayserver.hedging;
+
+import com.myBank.gatewayserver.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedges the safe requests of the routes with a {@code hedging} policy: when the instance the load balancer chose
+ * has not answered within the route's recent latency percentile, the same request is sent to another instance and
+ * whichever answers first is used, the other one being cancelled. A request that fails before the delay is also
+ * sent again once it elapses. Hedges are capped at a share of the requests by a {@link HedgeBudget}, and none are
+ * sent until the route has enough latencies to learn the percentile from.
+ * <p>
+ * Each attempt runs the rest of the chain on its own copy of the exchange, with its own attributes and a response
+ * that only collects status and headers, since the routing filter completes once the response headers arrive. The
+ * winner's attributes, status and headers are then copied to the exchange, so the body is written from its
+ * connection as usual. Only GET, HEAD and OPTIONS are hedged as they carry no body to send twice.
+ * <p>
+ * Publishes {@code gateway.hedge.requests} tagged with the route and whether the request was hedged,
+ * {@code gateway.hedge.wins} tagged with which attempt answered first and the current {@code gateway.hedge.delay}.
+ */
+@Component
+public class HedgingFilter implements GatewayFilter {
+
+    static final String NOT_HEDGED = "not_hedged";
+    static final String HEDGED = "hedged";
+    static final String BUDGET_EXHAUSTED = "budget_exhausted";
+    static final String NO_OTHER_INSTANCE = "no_other_instance";
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final HedgingProperties hedgingProperties;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final MeterRegistry meterRegistry;
+    private final MeterProvider<Counter> requestCounters;
+    private final MeterProvider<Counter> winCounters;
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+
+    public HedgingFilter(HedgingProperties hedgingProperties, ReactiveDiscoveryClient discoveryClient,
+                         MeterRegistry meterRegistry) {
+        this.hedgingProperties = hedgingProperties;
+        this.discoveryClient = discoveryClient;
+        this.meterRegistry = meterRegistry;
+        this.requestCounters = Counter.builder("gateway.hedge.requests")
+                .description("Requests of hedged routes, by whether a hedge was sent or why not")
+                .withRegistry(meterRegistry);
+        this.winCounters = Counter.builder("gateway.hedge.wins")
+                .description("Hedged requests, by the attempt that answered first")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HedgingProperties.Policy policy = route != null ? hedgingProperties.getRoutes().get(route.getId()) : null;
+        if (policy == null || !SAFE_METHODS.contains(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+        RouteHedging routeHedging = routes.computeIfAbsent(route.getId(), id -> new RouteHedging(id, policy));
+        routeHedging.budget.deposit();
+        Attempt primary = new Attempt(exchange, route);
+        Mono<Attempt> primaryResult = primary.run(chain);
+        long delayNanos = routeHedging.delayNanos();
+        if (delayNanos < 0) {
+            requestCounters.withTags("route", route.getId(), "outcome", NOT_HEDGED).increment();
+            return primaryResult.doOnNext(attempt -> answer(exchange, routeHedging, primary, attempt)).then();
+        }
+
+        AtomicReference<String> outcome = new AtomicReference<>(NOT_HEDGED);
+        AtomicReference<Attempt> winner = new AtomicReference<>();
+        Mono<Attempt> hedgeResult = Mono.delay(Duration.ofNanos(delayNanos))
+                .flatMap(tick -> hedge(exchange, chain, route, routeHedging, primary, outcome));
+        Runnable recordOutcome = () -> {
+            requestCounters.withTags("route", route.getId(), "outcome", outcome.get()).increment();
+            if (HEDGED.equals(outcome.get()) && winner.get() != null) {
+                winCounters.withTags("route", route.getId(),
+                        "winner", winner.get() == primary ? "primary" : "hedge").increment();
+            }
+        };
+        return Mono.firstWithValue(claim(primaryResult, winner), claim(hedgeResult, winner))
+                .onErrorMap(NoSuchElementException.class, HedgingFilter::firstFailure)
+                .doOnNext(attempt -> answer(exchange, routeHedging, primary, attempt))
+                .doOnTerminate(recordOutcome)
+                .doOnCancel(recordOutcome)
+                .then();
+    }
+
+    /**
+     * Answers with the attempt that answered first and records the latency of the request, measured from the
+     * primary's start. When a hedge wins this is a lower bound of the primary's latency, so the slow side of the
+     * distribution stays in the window and the percentile does not drift down as more requests are hedged.
+     * Requests cancelled before any attempt answered are not recorded as their latency was cut short.
+     */
+    private static void answer(ServerWebExchange exchange, RouteHedging routeHedging, Attempt primary, Attempt attempt) {
+        routeHedging.window.record(primary.elapsedNanos());
+        attempt.copyTo(exchange);
+    }
+
+    private Mono<Attempt> hedge(ServerWebExchange exchange, GatewayFilterChain chain, Route route,
+                                RouteHedging routeHedging, Attempt primary, AtomicReference<String> outcome) {
+        if (!"lb".equals(route.getUri().getScheme())) {
+            outcome.set(NO_OTHER_INSTANCE);
+            return Mono.empty();
+        }
+        Response<ServiceInstance> chosen = primary.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        ServiceInstance primaryInstance = chosen != null ? chosen.getServer() : null;
+        return discoveryClient.getInstances(route.getUri().getHost())
+                .filter(instance -> primaryInstance == null || !sameInstance(instance, primaryInstance))
+                .collectList()
+                .flatMap(others -> {
+                    if (others.isEmpty()) {
+                        outcome.set(NO_OTHER_INSTANCE);
+                        return Mono.empty();
+                    }
+                    if (!routeHedging.budget.tryWithdraw()) {
+                        outcome.set(BUDGET_EXHAUSTED);
+                        return Mono.empty();
+                    }
+                    outcome.set(HEDGED);
+                    ServiceInstance instance = others.get(ThreadLocalRandom.current().nextInt(others.size()));
+                    Route pinned = Route.async()
+                            .id(route.getId())
+                            .uri(instance.getUri())
+                            .order(route.getOrder())
+                            .asyncPredicate(route.getPredicate())
+                            .replaceFilters(route.getFilters())
+                            .metadata(route.getMetadata())
+                            .build();
+                    return new Attempt(exchange, pinned).run(chain);
+                });
+    }
+
+    /**
+     * Lets only the first attempt to answer through; an attempt answering later releases its connection.
+     */
+    private static Mono<Attempt> claim(Mono<Attempt> attempt, AtomicReference<Attempt> winner) {
+        return attempt.flatMap(answered -> {
+            if (winner.compareAndSet(null, answered)) {
+                return Mono.just(answered);
+            }
+            answered.discard();
+            return Mono.empty();
+        });
+    }
+
+    private static boolean sameInstance(ServiceInstance instance, ServiceInstance other) {
+        return instance.getHost().equals(other.getHost()) && instance.getPort() == other.getPort();
+    }
+
+    /**
+     * When no attempt answers, fails with the primary's error rather than Reactor's.
+     */
+    private static Throwable firstFailure(NoSuchElementException ex) {
+        Throwable[] failures = ex.getSuppressed();
+        return failures.length > 0 ? failures[0] : ex;
+    }
+
+    private class RouteHedging {
+
+        private final LatencyWindow window;
+        private final HedgeBudget budget;
+        private final long minDelayNanos;
+
+        RouteHedging(String routeId, HedgingProperties.Policy policy) {
+            this.window = new LatencyWindow(policy.getWindow(), policy.getPercentile(), policy.getMinSamples());
+            this.budget = new HedgeBudget(policy.getMaxExtraLoad(), policy.getMaxBurst());
+            this.minDelayNanos = policy.getMinDelay().toNanos();
+            Gauge.builder("gateway.hedge.delay", this, routeHedging -> routeHedging.delayNanos() / 1_000_000.0)
+                    .description("Time after which a request is hedged, learned from the route's recent latencies")
+                    .baseUnit("milliseconds")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * @return the hedge delay, or {@code -1} while the percentile is not known yet
+         */
+        long delayNanos() {
+            long percentileNanos = window.percentileNanos();
+            return percentileNanos < 0 ? -1 : Math.max(percentileNanos, minDelayNanos);
+        }
+    }
+
+    /**
+     * One attempt at the request, seeing the exchange through its own attributes and a response of its own.
+     */
+    private static class Attempt extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final DetachedResponse response;
+        private final long startNanos = System.nanoTime();
+
+        Attempt(ServerWebExchange exchange, Route route) {
+            super(exchange);
+            this.attributes = Collections.synchronizedMap(new HashMap<>(exchange.getAttributes()));
+            this.attributes.put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+            this.response = new DetachedResponse(exchange.getResponse());
+        }
+
+        Mono<Attempt> run(GatewayFilterChain chain) {
+            return chain.filter(this).thenReturn(this);
+        }
+
+        long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        void copyTo(ServerWebExchange exchange) {
+            synchronized (attributes) {
+                attributes.forEach((name, value) -> {
+                    if (!ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR.equals(name)) {
+                        exchange.getAttributes().put(name, value);
+                    }
+                });
+            }
+            ServerHttpResponse target = exchange.getResponse();
+            if (response.getStatusCode() != null) {
+                target.setStatusCode(response.getStatusCode());
+            }
+            target.getHeaders().putAll(response.getHeaders());
+            response.getCookies().values().forEach(cookies -> cookies.forEach(target::addCookie));
+        }
+
+        void discard() {
+            Object connection = attributes.get(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+            if (connection instanceof Connection clientConnection) {
+                clientConnection.dispose();
+            }
+        }
+    }
+
+    /**
+     * Keeps the status, headers and cookies set on it instead of passing them on; nothing is written to it.
+     */
+    private static class DetachedResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>();
+        private HttpStatusCode statusCode;
+
+        DetachedResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode statusCode) {
+            this.statusCode = statusCode;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean setRawStatusCode(Integer statusCode) {
+            this.statusCode = statusCode != null ? HttpStatusCode.valueOf(statusCode) : null;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Integer getRawStatusCode() {
+            return statusCode != null ? statusCode.value() : null;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return cookies;
+        }
+
+        @Override
+        public void addCookie(ResponseCookie cookie) {
+            cookies.add(cookie.getName(), cookie);
+        }
+    }
+}
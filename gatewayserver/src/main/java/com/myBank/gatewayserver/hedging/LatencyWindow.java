@@ -0,0 +1,51 @@
+package com.myBank.gatewayserver.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent latencies of a route in a ring buffer. Recording claims a slot with one atomic increment; the
+ * percentile is recomputed by the thread recording every tenth of the window rather than on each read, so reading
+ * it is a volatile load.
+ */
+class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int minSamples;
+    private final int recomputeEvery;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int window, double percentile, int minSamples) {
+        this.samples = new AtomicLongArray(window);
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, window);
+        this.recomputeEvery = Math.max(window / 10, 1);
+    }
+
+    void record(long nanos) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % samples.length()), nanos);
+        if (count >= minSamples && (count == minSamples || count % recomputeEvery == 0)) {
+            recompute((int) Math.min(count, samples.length()));
+        }
+    }
+
+    /**
+     * @return the percentile of the recent latencies, or {@code -1} until enough have been recorded
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        percentileNanos = sorted[Math.max((int) Math.ceil(percentile * size) - 1, 0)];
+    }
+}
@@ -0,0 +1,192 @@
+package com.myBank.gatewayserver.ratelimit;
+
+import com.myBank.gatewayserver.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter deciding in memory, with one token bucket per route and client. Buckets live in a
+ * {@link ConcurrentHashMap}, whose bins are locked independently and whose reads take no lock, and a request is a
+ * single compare-and-set on its bucket, so clients do not contend with each other and nothing waits on Redis.
+ * Quotas come from {@link RateLimitProperties} by route and by the client's tier; buckets that have refilled and
+ * stayed unused for the idle timeout are dropped.
+ * <p>
+ * With Redis sync enabled the tokens granted by each instance are added to a shared counter per bucket once per
+ * interval, and what the other instances granted since the previous sync is taken from the local bucket. Between
+ * two syncs a client can therefore exceed its quota by what the other instances grant it in one interval.
+ */
+public class LocalRateLimiter implements RateLimiter<RateLimitProperties.Quota> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRateLimiter.class);
+
+    private static final String REDIS_KEY_PREFIX = "rate-limit:";
+
+    private final RateLimitProperties rateLimitProperties;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LongSupplier nanoClock;
+    private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param redisTemplate used for Redis sync, may be {@code null} when it is disabled
+     */
+    public LocalRateLimiter(RateLimitProperties rateLimitProperties, ReactiveStringRedisTemplate redisTemplate) {
+        this(rateLimitProperties, redisTemplate, System::nanoTime);
+    }
+
+    LocalRateLimiter(RateLimitProperties rateLimitProperties, ReactiveStringRedisTemplate redisTemplate,
+                     LongSupplier nanoClock) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.redisTemplate = redisTemplate;
+        this.nanoClock = nanoClock;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = rateLimitProperties.getSweepInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        RateLimitProperties.RedisSync redisSync = rateLimitProperties.getRedisSync();
+        if (redisSync.isEnabled()) {
+            if (redisTemplate == null) {
+                throw new IllegalStateException("rate-limit.redis-sync.enabled requires Redis");
+            }
+            long syncMillis = redisSync.getInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::syncQuietly, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        BucketKey key = new BucketKey(routeId, id);
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            RateLimitProperties.Quota quota = quota(routeId, id);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(quota, now));
+        }
+        RateLimitProperties.Quota quota = bucket.quota();
+        long remaining = bucket.tryAcquire(quota.getRequestedTokens(), now);
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(RedisRateLimiter.REMAINING_HEADER,
+                String.valueOf(remaining >= 0 ? remaining : bucket.available(now)));
+        headers.put(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(quota.getReplenishRate()));
+        headers.put(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(quota.getBurstCapacity()));
+        headers.put(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(quota.getRequestedTokens()));
+        return Mono.just(new Response(remaining >= 0, headers));
+    }
+
+    private RateLimitProperties.Quota quota(String routeId, String id) {
+        Map<String, RateLimitProperties.Quota> tiers = rateLimitProperties.getRoutes().get(routeId);
+        if (tiers == null) {
+            throw new IllegalArgumentException("No rate limit configuration found for route " + routeId);
+        }
+        String tier = rateLimitProperties.getClients().getOrDefault(id, rateLimitProperties.getDefaultTier());
+        RateLimitProperties.Quota quota = tiers.getOrDefault(tier, tiers.get(rateLimitProperties.getDefaultTier()));
+        if (quota == null) {
+            throw new IllegalArgumentException("No rate limit quota for tier " + tier + " of route " + routeId);
+        }
+        return quota;
+    }
+
+    /**
+     * Drops the buckets that have been full for longer than the idle timeout. A request racing with the removal
+     * may still take a token from the dropped bucket, at worst letting one more request through for a client
+     * that was idle anyway.
+     */
+    void evictIdle() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = rateLimitProperties.getIdleTimeout().toNanos();
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+    }
+
+    /**
+     * Adds what each bucket granted since the last sync to its shared counter and takes what the other instances
+     * granted from the bucket. The first sync of a bucket only learns where the counter stands.
+     */
+    void sync() {
+        Duration timeout = rateLimitProperties.getRedisSync().getInterval();
+        Duration expiry = timeout.multipliedBy(10);
+        buckets.forEach((key, bucket) -> {
+            long granted = bucket.unsynced.sumThenReset();
+            String redisKey = REDIS_KEY_PREFIX + key.routeId() + ":" + key.id();
+            Long global;
+            try {
+                global = redisTemplate.opsForValue().increment(redisKey, granted).block(timeout);
+                redisTemplate.expire(redisKey, expiry).block(timeout);
+            } catch (RuntimeException ex) {
+                bucket.unsynced.add(granted);
+                throw ex;
+            }
+            if (global == null) {
+                return;
+            }
+            long remote = global - bucket.lastSeenGlobal - granted;
+            if (bucket.lastSeenGlobal >= 0 && remote > 0) {
+                bucket.charge(remote, nanoClock.getAsLong());
+            }
+            bucket.lastSeenGlobal = global;
+        });
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            logger.warn("Rate limit sync with Redis failed, limiting locally until the next sync", ex);
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * The default tier's quota of each route.
+     */
+    @Override
+    public Map<String, RateLimitProperties.Quota> getConfig() {
+        Map<String, RateLimitProperties.Quota> config = new HashMap<>();
+        rateLimitProperties.getRoutes().forEach((routeId, tiers) -> {
+            RateLimitProperties.Quota quota = tiers.get(rateLimitProperties.getDefaultTier());
+            if (quota != null) {
+                config.put(routeId, quota);
+            }
+        });
+        return config;
+    }
+
+    @Override
+    public Class<RateLimitProperties.Quota> getConfigClass() {
+        return RateLimitProperties.Quota.class;
+    }
+
+    @Override
+    public RateLimitProperties.Quota newConfig() {
+        return new RateLimitProperties.Quota();
+    }
+
+    private record BucketKey(String routeId, String id) {
+    }
+}
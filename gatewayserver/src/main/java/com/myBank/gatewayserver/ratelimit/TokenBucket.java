@@ -0,0 +1,82 @@
+package com.myBank.gatewayserver.ratelimit;
+
+import com.myBank.gatewayserver.config.RateLimitProperties;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A token bucket kept as a single timestamp: the time at which it would be full again, in the style of the generic
+ * cell rate algorithm. Taking tokens moves that time forward by one emission interval per token and is refused when
+ * it would end up further ahead of now than the burst allows, so a request is one compare-and-set without locks and
+ * without a refill task.
+ */
+class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimitProperties.Quota quota;
+    private final long emissionInterval;
+    private final long tolerance;
+    private final AtomicLong fullAt;
+
+    /**
+     * Tokens granted here and not yet reported to Redis.
+     */
+    final LongAdder unsynced = new LongAdder();
+
+    /**
+     * Shared usage counter as last read from Redis, only touched by the sync task.
+     */
+    long lastSeenGlobal = -1;
+
+    TokenBucket(RateLimitProperties.Quota quota, long now) {
+        this.quota = quota;
+        this.emissionInterval = NANOS_PER_SECOND / quota.getReplenishRate();
+        this.tolerance = emissionInterval * quota.getBurstCapacity();
+        this.fullAt = new AtomicLong(now);
+    }
+
+    RateLimitProperties.Quota quota() {
+        return quota;
+    }
+
+    /**
+     * @return the tokens left after taking {@code tokens}, or {@code -1} when there are not enough
+     */
+    long tryAcquire(int tokens, long now) {
+        long cost = emissionInterval * tokens;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return -1;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                unsynced.add(tokens);
+                return (tolerance - ahead) / emissionInterval;
+            }
+        }
+    }
+
+    /**
+     * @return the tokens that could be taken right now
+     */
+    long available(long now) {
+        long ahead = Math.max(fullAt.get() - now, 0);
+        return (tolerance - ahead) / emissionInterval;
+    }
+
+    /**
+     * Takes tokens used elsewhere, emptying the bucket at most.
+     */
+    void charge(long tokens, long now) {
+        long cost = emissionInterval * Math.min(tokens, quota.getBurstCapacity());
+        fullAt.accumulateAndGet(now, (current, at) -> Math.min(Math.max(current, at) + cost, at + tolerance));
+    }
+
+    boolean isIdle(long now, long idleNanos) {
+        return now - fullAt.get() > idleNanos;
+    }
+}
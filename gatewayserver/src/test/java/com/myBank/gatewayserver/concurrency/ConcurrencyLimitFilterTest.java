@@ -0,0 +1,101 @@
+package com.myBank.gatewayserver.concurrency;
+
+import com.myBank.gatewayserver.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the limit with a fake clock, so that windows close on the latencies the test reports rather than on real
+ * time.
+ */
+class ConcurrencyLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void growsWhileLatencyIsSteadyAndShrinksOnceTheBackendQueues() {
+        AdaptiveLimit limit = new AdaptiveLimit(new ConcurrencyLimitProperties.Policy(10, 5, 100), clock::get);
+
+        runWindows(limit, 30, Duration.ofMillis(10));
+        int grown = limit.limit();
+        assertTrue(grown > 20, "limit only grew to " + grown);
+
+        runWindows(limit, 10, Duration.ofMillis(50));
+        int shrunk = limit.limit();
+        assertTrue(shrunk < grown * 0.6, "limit only shrank from " + grown + " to " + shrunk);
+        assertTrue(shrunk >= 5);
+        assertEquals(0, limit.inflight());
+    }
+
+    @Test
+    void rejectsRequestsOverTheLimitWithRetryAfter() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setRoutes(Map.of("accounts", new ConcurrencyLimitProperties.Policy(2, 1, 10)));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, meterRegistry, clock::get);
+        List<Sinks.Empty<Void>> upstream = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            Sinks.Empty<Void> response = Sinks.empty();
+            upstream.add(response);
+            filter.filter(exchange("accounts"), exchange -> response.asMono()).subscribe();
+        }
+        assertEquals(2, meterRegistry.get("gateway.concurrency.inflight").tags("route", "accounts").gauge().value());
+
+        MockServerWebExchange rejected = exchange("accounts");
+        filter.filter(rejected, exchange -> {
+            throw new AssertionError("request over the limit reached the backend");
+        }).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("gateway.concurrency.rejected").tags("route", "accounts").counter().count());
+
+        upstream.forEach(Sinks.Empty::tryEmitEmpty);
+        MockServerWebExchange admitted = exchange("accounts");
+        filter.filter(admitted, exchange -> Mono.empty()).block();
+        assertNull(admitted.getResponse().getStatusCode());
+        assertEquals(0, meterRegistry.get("gateway.concurrency.inflight").tags("route", "accounts").gauge().value());
+        assertEquals(2, meterRegistry.get("gateway.concurrency.limit").tags("route", "accounts").gauge().value());
+    }
+
+    /**
+     * Fills the limit in each window and answers every request after the given latency.
+     */
+    private void runWindows(AdaptiveLimit limit, int windows, Duration latency) {
+        for (int w = 0; w < windows; w++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+            for (int i = 0; i < acquired; i++) {
+                limit.release(latency.toNanos());
+            }
+        }
+    }
+
+    private MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("lb://ACCOUNTS").predicate(serverWebExchange -> true).build());
+        return exchange;
+    }
+}
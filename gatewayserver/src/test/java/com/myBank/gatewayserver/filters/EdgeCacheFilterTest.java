@@ -0,0 +1,126 @@
+package com.myBank.gatewayserver.filters;
+
+import com.myBank.gatewayserver.cache.EdgeCache;
+import com.myBank.gatewayserver.config.EdgeCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks hits, misses, ETag revalidation, coalescing of concurrent misses and eviction, against a chain standing in
+ * for the route.
+ */
+class EdgeCacheFilterTest {
+
+    private static final String FETCH = "/mybank/cards/api/fetch?mobileNumber=1234567890";
+
+    private final EdgeCache edgeCache = new EdgeCache(1024 * 1024, new SimpleMeterRegistry());
+    private final EdgeCacheFilter edgeCacheFilter = new EdgeCacheFilter(edgeCache, properties(), new FilterUtility());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void servesRepeatedGetsFromTheCacheAndRevalidatesWithTheEtag() {
+        MockServerWebExchange miss = exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        MockServerWebExchange hit = exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        String etag = miss.getResponse().getHeaders().getETag();
+        MockServerWebExchange revalidated = exchange(MockServerHttpRequest.get(FETCH).ifNoneMatch(etag), Duration.ZERO);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(EdgeCacheFilter.MISS, miss.getResponse().getHeaders().getFirst(EdgeCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(EdgeCacheFilter.HIT, hit.getResponse().getHeaders().getFirst(EdgeCacheFilter.CACHE_STATUS_HEADER));
+        assertNotNull(etag);
+        assertEquals(etag, hit.getResponse().getHeaders().getETag());
+        assertEquals(body(miss), body(hit));
+        assertEquals(MediaType.APPLICATION_JSON, hit.getResponse().getHeaders().getContentType());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals("", body(revalidated));
+    }
+
+    @Test
+    void hitsCarryTheRequestsCorrelationIdOrAGeneratedOne() {
+        exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        MockServerWebExchange traced = exchange(MockServerHttpRequest.get(FETCH)
+                .header(FilterUtility.CORRELATION_ID, "trace-1"), Duration.ZERO);
+        MockServerWebExchange untraced = exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        String etag = traced.getResponse().getHeaders().getETag();
+        MockServerWebExchange revalidated = exchange(MockServerHttpRequest.get(FETCH).ifNoneMatch(etag)
+                .header(FilterUtility.CORRELATION_ID, "trace-2"), Duration.ZERO);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("trace-1", traced.getResponse().getHeaders().getFirst(FilterUtility.CORRELATION_ID));
+        assertNotNull(untraced.getResponse().getHeaders().getFirst(FilterUtility.CORRELATION_ID));
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals("trace-2", revalidated.getResponse().getHeaders().getFirst(FilterUtility.CORRELATION_ID));
+    }
+
+    @Test
+    void coalescesConcurrentMissesIntoOneUpstreamRequest() {
+        List<MockServerWebExchange> exchanges = List.of(
+                MockServerWebExchange.from(MockServerHttpRequest.get(FETCH)),
+                MockServerWebExchange.from(MockServerHttpRequest.get(FETCH)),
+                MockServerWebExchange.from(MockServerHttpRequest.get(FETCH)));
+        Mono.when(exchanges.stream().map(exchange -> filter(exchange, Duration.ofMillis(100))).toList()).block();
+
+        assertEquals(1, upstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("{\"call\":1}", body(exchange));
+        }
+    }
+
+    @Test
+    void goesUpstreamAgainAfterTheMobileNumberChangedOrForOtherPaths() {
+        exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        edgeCache.evict("cards", "1234567890");
+        MockServerWebExchange refetched = exchange(MockServerHttpRequest.get(FETCH), Duration.ZERO);
+        exchange(MockServerHttpRequest.get("/mybank/cards/api/list"), Duration.ZERO);
+        exchange(MockServerHttpRequest.get("/mybank/cards/api/list"), Duration.ZERO);
+
+        assertEquals(4, upstreamCalls.get());
+        assertEquals("{\"call\":2}", body(refetched));
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, Duration upstreamLatency) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter(exchange, upstreamLatency).block();
+        return exchange;
+    }
+
+    private Mono<Void> filter(MockServerWebExchange exchange, Duration upstreamLatency) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("cards").uri("lb://CARDS").predicate(serverWebExchange -> true).build());
+        GatewayFilterChain upstream = chained -> Mono.delay(upstreamLatency).then(Mono.defer(() -> {
+            int call = upstreamCalls.incrementAndGet();
+            chained.getResponse().setStatusCode(HttpStatus.OK);
+            chained.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+            return chained.getResponse().writeWith(Mono.just(chained.getResponse().bufferFactory().wrap(body)));
+        }));
+        return edgeCacheFilter.filter(exchange, upstream);
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    private static EdgeCacheProperties properties() {
+        EdgeCacheProperties edgeCacheProperties = new EdgeCacheProperties();
+        edgeCacheProperties.setRules(List.of(new EdgeCacheProperties.Rule("/mybank/*/api/fetch", Duration.ofMinutes(1))));
+        return edgeCacheProperties;
+    }
+}
@@ -0,0 +1,61 @@
+package com.myBank.gatewayserver.filters;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every exchange gets its own response time header and is recorded in the per-route timer.
+ */
+class LatencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LatencyFilter latencyFilter = new LatencyFilter(meterRegistry);
+
+    @Test
+    void writesTheElapsedTimeOfEachExchangeAndRecordsItPerRoute() {
+        String first = exchange(Duration.ofMillis(50));
+        String second = exchange(Duration.ZERO);
+
+        assertTrue(parseMillis(first) >= 50, first);
+        assertTrue(parseMillis(second) > 0, second);
+        assertNotEquals(first, second);
+        Timer timer = meterRegistry.get("gateway.route.latency")
+                .tags("route", "loans", "method", "GET", "outcome", "SUCCESS").timer();
+        assertEquals(2, timer.count());
+        assertTrue(timer.max(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(List.of(0.5, 0.99, 0.999), Arrays.stream(timer.takeSnapshot().percentileValues())
+                .map(ValueAtPercentile::percentile).toList());
+    }
+
+    private String exchange(Duration downstreamLatency) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/mybank/loans/api/fetch"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("loans").uri("lb://LOANS").predicate(serverWebExchange -> true).build());
+        latencyFilter.filter(exchange, chained -> Mono.delay(downstreamLatency).then(Mono.defer(() -> {
+            chained.getResponse().setStatusCode(HttpStatus.OK);
+            return chained.getResponse().setComplete();
+        }))).block();
+        return exchange.getResponse().getHeaders().getFirst(LatencyFilter.RESPONSE_TIME_HEADER);
+    }
+
+    private static double parseMillis(String header) {
+        return Double.parseDouble(header.substring(0, header.length() - "ms".length()));
+    }
+}
@@ -0,0 +1,188 @@
+package com.myBank.gatewayserver.hedging;
+
+import com.myBank.gatewayserver.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the filter against a chain standing in for the load balancer and two loans instances, the one the load
+ * balancer picks answering as slowly as the test asks.
+ */
+class HedgingFilterTest {
+
+    private static final ServiceInstance PRIMARY = new DefaultServiceInstance("loans-1", "LOANS", "loans-1", 8090, false);
+    private static final ServiceInstance OTHER = new DefaultServiceInstance("loans-2", "LOANS", "loans-2", 8090, false);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private Duration primaryLatency = Duration.ofMillis(5);
+
+    @Test
+    void answersFromAnotherInstanceWhenThePrimaryIsSlowerThanThePercentile() {
+        HedgingFilter hedgingFilter = hedgingFilter(1.0);
+        warmUp(hedgingFilter);
+        double hedgedBefore = count("gateway.hedge.requests", "outcome", HedgingFilter.HEDGED);
+        double hedgeWinsBefore = count("gateway.hedge.wins", "winner", "hedge");
+
+        primaryLatency = Duration.ofSeconds(2);
+        long start = System.nanoTime();
+        MockServerWebExchange exchange = exchange(hedgingFilter, MockServerHttpRequest.get("/api/fetch"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("loans-2", exchange.getResponse().getHeaders().getFirst("X-INSTANCE"));
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertTrue(elapsedMillis < 1000, "waited " + elapsedMillis + "ms for the slow instance");
+        assertEquals(hedgedBefore + 1, count("gateway.hedge.requests", "outcome", HedgingFilter.HEDGED));
+        assertEquals(hedgeWinsBefore + 1, count("gateway.hedge.wins", "winner", "hedge"));
+        assertTrue(meterRegistry.get("gateway.hedge.delay").tags("route", "loans").gauge().value() >= 1);
+    }
+
+    @Test
+    void waitsForThePrimaryOnceTheExtraLoadBudgetIsSpent() {
+        HedgingFilter hedgingFilter = hedgingFilter(0.0);
+        warmUp(hedgingFilter);
+
+        double exhaustedBefore = count("gateway.hedge.requests", "outcome", HedgingFilter.BUDGET_EXHAUSTED);
+
+        primaryLatency = Duration.ofMillis(500);
+        MockServerWebExchange exchange = exchange(hedgingFilter, MockServerHttpRequest.get("/api/fetch"));
+
+        assertEquals("loans-1", exchange.getResponse().getHeaders().getFirst("X-INSTANCE"));
+        assertEquals(exhaustedBefore + 1, count("gateway.hedge.requests", "outcome", HedgingFilter.BUDGET_EXHAUSTED));
+    }
+
+    @Test
+    void hedgedRequestsKeepTheSlowPrimaryInThePercentile() {
+        HedgingFilter hedgingFilter = hedgingFilter(1.0);
+        primaryLatency = Duration.ofMillis(50);
+        warmUp(hedgingFilter);
+
+        primaryLatency = Duration.ofSeconds(2);
+        for (int i = 0; i < 10; i++) {
+            exchange(hedgingFilter, MockServerHttpRequest.get("/api/fetch"));
+        }
+
+        double delayMillis = meterRegistry.get("gateway.hedge.delay").tags("route", "loans").gauge().value();
+        assertTrue(delayMillis >= 50, "hedge delay drifted down to the hedges' latency: " + delayMillis + "ms");
+    }
+
+    @Test
+    void learnsNothingFromRequestsCancelledBeforeTheyAnswered() {
+        HedgingFilter hedgingFilter = hedgingFilter(1.0);
+
+        primaryLatency = Duration.ofSeconds(2);
+        for (int i = 0; i < 10; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/fetch"));
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route());
+            hedgingFilter.filter(exchange, upstream()).timeout(Duration.ofMillis(20), Mono.empty()).block();
+        }
+
+        assertTrue(meterRegistry.get("gateway.hedge.delay").tags("route", "loans").gauge().value() < 0,
+                "cancelled requests were recorded as latencies");
+    }
+
+    /**
+     * Warm-up requests slower than the percentile are hedged too, so the tests compare counts before and after.
+     */
+    private double count(String name, String tag, String value) {
+        Counter counter = meterRegistry.find(name).tags("route", "loans", tag, value).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void neverHedgesRequestsThatAreNotSafe() {
+        HedgingFilter hedgingFilter = hedgingFilter(1.0);
+        warmUp(hedgingFilter);
+        upstreamCalls.set(0);
+
+        primaryLatency = Duration.ofMillis(100);
+        exchange(hedgingFilter, MockServerHttpRequest.post("/api/create"));
+
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    /**
+     * Fills the window twice over, so that the slow first requests of a cold JVM are not part of the percentile.
+     */
+    private void warmUp(HedgingFilter hedgingFilter) {
+        for (int i = 0; i < 20; i++) {
+            exchange(hedgingFilter, MockServerHttpRequest.get("/api/fetch"));
+        }
+    }
+
+    private HedgingFilter hedgingFilter(double maxExtraLoad) {
+        HedgingProperties hedgingProperties = new HedgingProperties();
+        hedgingProperties.setRoutes(Map.of("loans",
+                new HedgingProperties.Policy(0.9, Duration.ofMillis(1), 10, 10, maxExtraLoad, 10)));
+        return new HedgingFilter(hedgingProperties, new StaticDiscoveryClient(), meterRegistry);
+    }
+
+    private MockServerWebExchange exchange(HedgingFilter hedgingFilter, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route());
+        hedgingFilter.filter(exchange, upstream()).block();
+        return exchange;
+    }
+
+    private static Route route() {
+        return Route.async().id("loans").uri("lb://LOANS").predicate(serverWebExchange -> true).build();
+    }
+
+    /**
+     * Picks the primary instance for load-balanced attempts, as the load balancer filter would, and answers with the
+     * name of the instance.
+     */
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            Route route = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            boolean loadBalanced = "lb".equals(route.getUri().getScheme());
+            if (loadBalanced) {
+                exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR,
+                        new DefaultResponse(PRIMARY));
+            }
+            return Mono.delay(loadBalanced ? primaryLatency : Duration.ofMillis(5)).then(Mono.fromRunnable(() -> {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                exchange.getResponse().getHeaders().set("X-INSTANCE", loadBalanced ? "loans-1" : route.getUri().getHost());
+            }));
+        };
+    }
+
+    private static class StaticDiscoveryClient implements ReactiveDiscoveryClient {
+
+        @Override
+        public String description() {
+            return "static";
+        }
+
+        @Override
+        public Flux<ServiceInstance> getInstances(String serviceId) {
+            return Flux.just(PRIMARY, OTHER);
+        }
+
+        @Override
+        public Flux<String> getServices() {
+            return Flux.just("LOANS");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.myBank.gatewayserver.ratelimit;
+
+import com.myBank.gatewayserver.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setRoutes(Map.of("cards", Map.of(
+                "standard", new RateLimitProperties.Quota(1, 2, 1),
+                "premium", new RateLimitProperties.Quota(10, 20, 1))));
+        rateLimitProperties.setClients(Map.of("partner", "premium"));
+        rateLimitProperties.setIdleTimeout(Duration.ofMinutes(10));
+        rateLimiter = new LocalRateLimiter(rateLimitProperties, null, clock::get);
+    }
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheReplenishRate() {
+        assertTrue(isAllowed("alice"));
+        RateLimiter.Response second = rateLimiter.isAllowed("cards", "alice").block();
+        assertTrue(second.isAllowed());
+        assertEquals("0", second.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertFalse(isAllowed("alice"));
+        assertTrue(isAllowed("bob"), "clients have their own buckets");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(isAllowed("alice"));
+        assertFalse(isAllowed("alice"));
+    }
+
+    @Test
+    void givesEachTierItsOwnQuota() {
+        int allowed = 0;
+        for (int i = 0; i < 30; i++) {
+            allowed += isAllowed("partner") ? 1 : 0;
+        }
+        assertEquals(20, allowed);
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.isAllowed("loans", "alice"));
+    }
+
+    @Test
+    void grantsExactlyTheBurstToConcurrentRequests() throws InterruptedException {
+        int threads = 8;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (isAllowed("partner")) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(20, allowed.get());
+    }
+
+    @Test
+    void evictsOnlyBucketsIdleSinceTheyRefilled() {
+        isAllowed("alice");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        isAllowed("bob");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(6));
+
+        rateLimiter.evictIdle();
+
+        assertEquals(1, rateLimiter.bucketCount());
+        assertTrue(isAllowed("bob"));
+    }
+
+    private boolean isAllowed(String id) {
+        return rateLimiter.isAllowed("cards", id).block().isAllowed();
+    }
+}
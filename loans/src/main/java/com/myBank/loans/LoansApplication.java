@@ -1,5 +1,12 @@
 package com.myBank.loans;
 
+import com.myBank.loans.config.AmortizationScheduleProperties;
+import com.myBank.loans.config.BatchProperties;
+import com.myBank.loans.config.ExportProperties;
+import com.myBank.loans.config.IdempotencyProperties;
+import com.myBank.loans.config.LoanLedgerProperties;
+import com.myBank.loans.config.NumberAllocatorProperties;
+import com.myBank.loans.config.PortfolioProperties;
 import com.myBank.loans.dto.LoanContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -10,11 +17,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {LoanContactInfoDto.class})
+@RemoteApplicationEventScan(basePackages = "com.myBank.loans.event")
+@EnableConfigurationProperties(value = {LoanContactInfoDto.class, NumberAllocatorProperties.class,
+		IdempotencyProperties.class, LoanLedgerProperties.class, AmortizationScheduleProperties.class,
+		PortfolioProperties.class, ExportProperties.class, BatchProperties.class})
 @OpenAPIDefinition(
 		info = @Info(
 				title = "Loans microservice REST API Documentation",
@@ -0,0 +1,23 @@
+package com.myBank.loans.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "amortization-schedule")
+@Getter
+@Setter
+public class AmortizationScheduleProperties {
+
+    /**
+     * Maximum number of schedules cached. A 30-year schedule takes about 12 KB.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a schedule stays cached after it was last requested.
+     */
+    private Duration timeToLive = Duration.ofMinutes(30);
+}
@@ -0,0 +1,17 @@
+package com.myBank.loans.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "batch")
+@Getter
+@Setter
+public class BatchProperties {
+
+    /**
+     * Largest number of mobile numbers accepted by a single batch lookup. Accounts, the only caller, sends at most
+     * its {@code customer-details.batch-chunk-size} per call, so this should not be lower than that.
+     */
+    private int maxSize = 100;
+}
@@ -0,0 +1,25 @@
+package com.myBank.loans.config;
+
+import com.myBank.loans.ledger.LoanLedgerCompactor;
+import com.myBank.loans.repository.LoanPaymentRepository;
+import com.myBank.loans.repository.LoansRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class LoanLedgerConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public LoanLedgerCompactor loanLedgerCompactor(LoanLedgerProperties loanLedgerProperties,
+                                                   LoanPaymentRepository loanPaymentRepository,
+                                                   LoansRepository loansRepository,
+                                                   PlatformTransactionManager transactionManager,
+                                                   AuditorAware<String> auditAwareImpl) {
+        return new LoanLedgerCompactor(loanPaymentRepository, loansRepository, new TransactionTemplate(transactionManager),
+                auditAwareImpl, loanLedgerProperties.getCompactionInterval(),
+                loanLedgerProperties.getCompactionBatchSize());
+    }
+}
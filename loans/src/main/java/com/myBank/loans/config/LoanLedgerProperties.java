@@ -0,0 +1,24 @@
+package com.myBank.loans.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-ledger")
+@Getter
+@Setter
+public class LoanLedgerProperties {
+
+    /**
+     * Delay between the end of one compaction run and the start of the next. Reads are exact either way; a longer
+     * interval only leaves more payments to sum on every read.
+     */
+    private Duration compactionInterval = Duration.ofSeconds(1);
+
+    /**
+     * Payments locked and rolled up per transaction.
+     */
+    private int compactionBatchSize = 1000;
+}
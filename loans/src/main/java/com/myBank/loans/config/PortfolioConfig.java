@@ -0,0 +1,22 @@
+package com.myBank.loans.config;
+
+import com.myBank.loans.portfolio.LoanPortfolio;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class PortfolioConfig {
+
+    /**
+     * Stopping it flushes the changes still pending, so they are not lost with the instance.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public LoanPortfolio loanPortfolio(PortfolioProperties portfolioProperties, JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager) {
+        return new LoanPortfolio(jdbcTemplate, new TransactionTemplate(transactionManager),
+                portfolioProperties.getFlushInterval(), portfolioProperties.getReconcileInterval());
+    }
+}
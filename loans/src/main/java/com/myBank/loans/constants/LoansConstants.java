@@ -15,6 +15,9 @@ public final class LoansConstants {
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+    public static final String  APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // marks a 404 answering that the mobile number has no loan, as opposed to e.g. an unknown path
+    public static final String  RESOURCE_ABSENT_HEADER = "mybank-resource-absent";
     // public static final String  STATUS_500 = "500";
     // public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
 
@@ -1,9 +1,17 @@
 package com.myBank.loans.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.myBank.loans.constants.LoansConstants;
+import com.myBank.loans.dto.AmortizationScheduleDto;
 import com.myBank.loans.dto.ErrorResponseDto;
 import com.myBank.loans.dto.LoanContactInfoDto;
+import com.myBank.loans.dto.LoanPaymentDto;
+import com.myBank.loans.dto.LoanPortfolioDto;
 import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.dto.LoansPageDto;
 import com.myBank.loans.dto.ResponseDto;
 import com.myBank.loans.service.ILoansService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,7 +21,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +40,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * @author Eazy Bytes
@@ -43,6 +64,8 @@ public class LoansController {
 
     private ILoansService iLoansService;
 
+    private ObjectMapper objectMapper;
+
     @Value("${build.version}")
     private String buildVersion;
 
@@ -52,8 +75,9 @@ public class LoansController {
     @Autowired
     private LoanContactInfoDto loanContactInfoDto;
 
-    public LoansController(ILoansService iLoansService) {
+    public LoansController(ILoansService iLoansService, ObjectMapper objectMapper) {
         this.iLoansService = iLoansService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(
@@ -93,6 +117,10 @@ public class LoansController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found, without a body: the customer has no loan"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -102,15 +130,220 @@ public class LoansController {
             )
     }
     )
-    @GetMapping("/fetch")
+    @GetMapping(value = "/fetch", produces = {MediaType.APPLICATION_JSON_VALUE, LoansConstants.APPLICATION_SMILE_VALUE})
     public ResponseEntity<LoansDto> fetchLoanDetails(@RequestHeader("mybank-correlation-id")
                                                          String correlationId,
                                                      @RequestParam
                                                                @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
                                                                String mobileNumber) {
         logger.debug("myBank-correlation-id found {}", correlationId);
-        LoansDto loansDto = iLoansService.fetchLoan(mobileNumber);
-        return ResponseEntity.status(HttpStatus.OK).body(loansDto);
+        return iLoansService.fetchLoan(mobileNumber)
+                .map(loansDto -> ResponseEntity.status(HttpStatus.OK).body(loansDto))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .header(LoansConstants.RESOURCE_ABSENT_HEADER, "true")
+                        .build());
+    }
+
+    @Operation(
+            summary = "Fetch Loan Details Batch REST API",
+            description = "REST API to fetch loan details for a list of mobile numbers in a single lookup"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(value = "/fetchBatch", produces = {MediaType.APPLICATION_JSON_VALUE, LoansConstants.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<LoansDto>> fetchLoanDetailsBatch(@RequestHeader("mybank-correlation-id")
+                                                                   String correlationId,
+                                                               @RequestBody
+                                                               @NotEmpty(message = "Mobile numbers can not be empty")
+                                                               List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+                                                                       String> mobileNumbers) {
+        logger.debug("myBank-correlation-id found {}", correlationId);
+        List<LoansDto> loansDtos = iLoansService.fetchLoans(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(loansDtos);
+    }
+
+    @Operation(
+            summary = "List Loans REST API",
+            description = "REST API to page through all loans in loan id order. Pass the nextCursor of a page to " +
+                    "get the next one; every page costs the same however deep it is"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/list")
+    public ResponseEntity<LoansPageDto> listLoans(@RequestParam(defaultValue = "0")
+                                                  @PositiveOrZero(message = "Cursor must be zero or greater")
+                                                  long cursor,
+                                                  @RequestParam(defaultValue = "100")
+                                                  @Min(value = 1, message = "Size must be at least 1")
+                                                  @Max(value = 1000, message = "Size must be at most 1000")
+                                                  int size) {
+        return ResponseEntity.status(HttpStatus.OK).body(iLoansService.listLoans(cursor, size));
+    }
+
+    @Operation(
+            summary = "Export Loans REST API",
+            description = "REST API to stream all loans as newline-delimited JSON in loan id order, read through " +
+                    "a single database cursor"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLoans() {
+        ObjectWriter writer = objectMapper.writerFor(LoansDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody responseBody = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                iLoansService.exportLoans(loansDto -> {
+                    try {
+                        writer.writeValue(generator, loansDto);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    @Operation(
+            summary = "Fetch Amortization Schedule REST API",
+            description = "REST API to fetch the equated monthly installment schedule repaying the outstanding amount " +
+                    "of the loan of a mobile number"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(value = "/schedule", produces = {MediaType.APPLICATION_JSON_VALUE, LoansConstants.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<AmortizationScheduleDto> fetchAmortizationSchedule(@RequestParam
+                                                                             @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+                                                                             String mobileNumber,
+                                                                             @RequestParam
+                                                                             @DecimalMin(value = "0", message = "Annual interest rate can not be negative")
+                                                                             @DecimalMax(value = "50", message = "Annual interest rate can not exceed 50")
+                                                                             @Digits(integer = 2, fraction = 2, message = "Annual interest rate can have at most 2 decimals")
+                                                                             BigDecimal annualInterestRate,
+                                                                             @RequestParam
+                                                                             @Min(value = 1, message = "Tenure must be at least 1 month")
+                                                                             @Max(value = 480, message = "Tenure can not exceed 480 months")
+                                                                             int tenureMonths) {
+        AmortizationScheduleDto amortizationScheduleDto =
+                iLoansService.fetchSchedule(mobileNumber, annualInterestRate, tenureMonths);
+        return ResponseEntity.status(HttpStatus.OK).body(amortizationScheduleDto);
+    }
+
+    @Operation(
+            summary = "Fetch Loan Portfolio REST API",
+            description = "REST API to fetch the number of loans, total loan and outstanding amount per loan type, " +
+                    "without scanning the loans"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/portfolio")
+    public ResponseEntity<List<LoanPortfolioDto>> fetchPortfolio() {
+        return ResponseEntity.status(HttpStatus.OK).body(iLoansService.fetchPortfolio());
+    }
+
+    @Operation(
+            summary = "Post Loan Payments REST API",
+            description = "REST API to post repayments against loans; they are appended to the repayment ledger and " +
+                    "show up in the loan details right away"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request, the payments exceed the outstanding amount of a loan",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/postPayments")
+    public ResponseEntity<ResponseDto> postPayments(@RequestBody
+                                                    @NotEmpty(message = "Payments can not be empty")
+                                                    List<@Valid LoanPaymentDto> loanPaymentDtos) {
+        iLoansService.postPayments(loanPaymentDtos);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ResponseDto(LoansConstants.STATUS_200, LoansConstants.MESSAGE_200));
     }
 
     @Operation(
@@ -0,0 +1,61 @@
+package com.myBank.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Schema(name = "AmortizationSchedule",
+        description = "Schema to hold the equated monthly installment schedule of a loan, one array element per " +
+                "month. Amounts in the schedule are in hundredths of the currency unit"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class AmortizationScheduleDto {
+
+    @Schema(
+            description = "Loan Number of the customer", example = "548732457654"
+    )
+    private String loanNumber;
+
+    @Schema(
+            description = "Outstanding amount the schedule repays, in whole currency units", example = "99000"
+    )
+    private int outstandingAmount;
+
+    @Schema(
+            description = "Nominal annual interest rate in percent", example = "8.5"
+    )
+    private BigDecimal annualInterestRate;
+
+    @Schema(
+            description = "Number of monthly installments", example = "360"
+    )
+    private int tenureMonths;
+
+    @Schema(
+            description = "Total interest paid over the schedule, in hundredths"
+    )
+    private long totalInterest;
+
+    @Schema(
+            description = "Amount due each month, in hundredths"
+    )
+    private long[] installments;
+
+    @Schema(
+            description = "Part of each installment repaying the principal, in hundredths"
+    )
+    private long[] principal;
+
+    @Schema(
+            description = "Part of each installment paying interest, in hundredths"
+    )
+    private long[] interest;
+
+    @Schema(
+            description = "Principal still owed after each installment, in hundredths"
+    )
+    private long[] closingBalance;
+}
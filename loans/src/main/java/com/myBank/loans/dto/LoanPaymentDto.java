@@ -0,0 +1,30 @@
+package com.myBank.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "LoanPayment",
+        description = "Schema to hold a repayment posted against a loan"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class LoanPaymentDto {
+
+    @NotEmpty(message = "Loan Number can not be a null or empty")
+    @Pattern(regexp="(^$|[0-9]{12})",message = "LoanNumber must be 12 digits")
+    @Schema(
+            description = "Loan Number of the customer", example = "548732457654"
+    )
+    private String loanNumber;
+
+    @Positive(message = "Payment amount should be greater than zero")
+    @Schema(
+            description = "Amount repaid", example = "1500"
+    )
+    private int amount;
+
+}
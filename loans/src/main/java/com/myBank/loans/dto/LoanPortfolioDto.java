@@ -0,0 +1,33 @@
+package com.myBank.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "LoanPortfolio",
+        description = "Schema to hold the totals of all loans of one loan type"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class LoanPortfolioDto {
+
+    @Schema(
+            description = "Type of the loans", example = "Home Loan"
+    )
+    private String loanType;
+
+    @Schema(
+            description = "Number of loans", example = "1200"
+    )
+    private long loanCount;
+
+    @Schema(
+            description = "Sum of the total loan amounts", example = "120000000"
+    )
+    private long totalLoan;
+
+    @Schema(
+            description = "Sum of the outstanding amounts, including payments not compacted yet", example = "98000000"
+    )
+    private long outstandingAmount;
+}
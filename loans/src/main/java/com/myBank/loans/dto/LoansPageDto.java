@@ -0,0 +1,25 @@
+package com.myBank.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(name = "LoansPage",
+        description = "Schema to hold one page of loans, in loan id order"
+)
+@Data @AllArgsConstructor @NoArgsConstructor
+public class LoansPageDto {
+
+    @Schema(
+            description = "Loans of this page"
+    )
+    private List<LoansDto> loans;
+
+    @Schema(
+            description = "Cursor to pass to get the next page; null on the last page", example = "1200"
+    )
+    private Long nextCursor;
+}
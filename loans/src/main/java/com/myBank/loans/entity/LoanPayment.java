@@ -0,0 +1,26 @@
+package com.myBank.loans.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One repayment posted against a loan. Rows are only ever inserted and then flagged as compacted once their amount
+ * has been rolled up into the {@link Loans} row, so the table keeps the full repayment history.
+ */
+@Entity
+@Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+public class LoanPayment extends BaseEntity {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "loan_payment_id")
+	@TableGenerator(name = "loan_payment_id", table = "number_segment", pkColumnName = "name",
+			valueColumnName = "next_value", pkColumnValue = "loan_payment_id", allocationSize = 100)
+	private Long paymentId;
+
+	private String loanNumber;
+
+	private int amount;
+
+	private boolean compacted;
+
+}
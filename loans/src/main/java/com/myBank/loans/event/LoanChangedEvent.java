@@ -0,0 +1,24 @@
+package com.myBank.loans.event;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Broadcast over Spring Cloud Bus whenever the loan of a mobile number is updated or deleted, so that
+ * services caching loan details (e.g. the accounts near-cache) can drop their copy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class LoanChangedEvent extends RemoteApplicationEvent {
+
+    private String mobileNumber;
+
+    public LoanChangedEvent(Object source, String originService, Destination destination, String mobileNumber) {
+        super(source, originService, destination);
+        this.mobileNumber = mobileNumber;
+    }
+}
@@ -0,0 +1,24 @@
+package com.myBank.loans.event;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class LoansEventPublisher {
+
+    private ApplicationEventPublisher applicationEventPublisher;
+    private BusProperties busProperties;
+    private Destination.Factory destinationFactory;
+
+    /**
+     * @param mobileNumber - Mobile Number whose loan details changed
+     */
+    public void publishLoanChanged(String mobileNumber) {
+        applicationEventPublisher.publishEvent(new LoanChangedEvent(this, busProperties.getId(),
+                destinationFactory.getDestination(null), mobileNumber));
+    }
+}
@@ -0,0 +1,12 @@
+package com.myBank.loans.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchSizeExceededException extends RuntimeException {
+
+    public BatchSizeExceededException(int batchSize, int maxBatchSize) {
+        super(String.format("Batch of %d mobile numbers exceeds the maximum batch size of %d", batchSize, maxBatchSize));
+    }
+}
@@ -0,0 +1,13 @@
+package com.myBank.loans.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class LoanPaymentRejectedException extends RuntimeException {
+
+    public LoanPaymentRejectedException(String message){
+        super(message);
+    }
+
+}
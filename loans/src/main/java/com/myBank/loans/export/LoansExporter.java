@@ -0,0 +1,52 @@
+package com.myBank.loans.export;
+
+import com.myBank.loans.config.ExportProperties;
+import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.entity.Loans;
+import com.myBank.loans.mapper.LoansMapper;
+import com.myBank.loans.repository.LoanBalanceView;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+/**
+ * Reads every loan through one forward-only, read-only cursor of {@code export.fetch-size} rows, handing each row
+ * to the consumer as it is read, so memory stays flat however many loans there are. Balances include the payments
+ * not compacted into the loans yet, summed in the same statement so they come from the same snapshot.
+ */
+@Component
+@AllArgsConstructor
+public class LoansExporter {
+
+    private static final String SELECT_LOANS = "SELECT l.mobile_number, l.loan_number, l.loan_type, l.total_loan, " +
+            "l.amount_paid, l.outstanding_amount, (SELECT COALESCE(SUM(p.amount), 0) FROM loan_payment p " +
+            "WHERE p.compacted = false AND p.loan_number = l.loan_number) AS uncompacted_payments " +
+            "FROM loans l ORDER BY l.loan_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties exportProperties;
+
+    public void export(Consumer<LoansDto> loanConsumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_LOANS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportProperties.getFetchSize());
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            Loans loans = new Loans();
+            loans.setMobileNumber(resultSet.getString("mobile_number"));
+            loans.setLoanNumber(resultSet.getString("loan_number"));
+            loans.setLoanType(resultSet.getString("loan_type"));
+            loans.setTotalLoan(resultSet.getInt("total_loan"));
+            loans.setAmountPaid(resultSet.getInt("amount_paid"));
+            loans.setOutstandingAmount(resultSet.getInt("outstanding_amount"));
+            LoanBalanceView loanBalanceView = new LoanBalanceView(loans, resultSet.getLong("uncompacted_payments"));
+            loanConsumer.accept(LoansMapper.mapToLoansDto(loanBalanceView, new LoansDto()));
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.myBank.loans.ledger;
+
+import com.myBank.loans.entity.LoanPayment;
+import com.myBank.loans.repository.LoanPaymentRepository;
+import com.myBank.loans.repository.LoansRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls the payments of the append-only ledger up into the {@code loans} rows. Each batch locks the oldest
+ * uncompacted payments, applies their sum to every loan with one update per loan and flags them compacted, all in
+ * one transaction, so a payment is counted either by its ledger row or by the loan row and never by both. Loans
+ * are updated in loan number order so that concurrent compactors lock them in the same order.
+ */
+public class LoanLedgerCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanLedgerCompactor.class);
+
+    private static final String COMPACTOR = "LEDGER_COMPACTOR";
+
+    private final LoanPaymentRepository loanPaymentRepository;
+    private final LoansRepository loansRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditorAware<String> auditorAware;
+    private final Duration compactionInterval;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public LoanLedgerCompactor(LoanPaymentRepository loanPaymentRepository, LoansRepository loansRepository,
+                               TransactionTemplate transactionTemplate, AuditorAware<String> auditorAware,
+                               Duration compactionInterval, int batchSize) {
+        this.loanPaymentRepository = loanPaymentRepository;
+        this.loansRepository = loansRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.auditorAware = auditorAware;
+        this.compactionInterval = compactionInterval;
+        this.batchSize = batchSize;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-ledger-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = compactionInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::compactQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Compacts batches until no uncompacted payment is left.
+     *
+     * @return the number of payments compacted
+     */
+    public int compact() {
+        int compacted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> compactBatch());
+            compacted += batch;
+        } while (batch == batchSize);
+        return compacted;
+    }
+
+    private int compactBatch() {
+        List<LoanPayment> payments = loanPaymentRepository.findUncompactedForUpdate(PageRequest.of(0, batchSize));
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> amountsByLoanNumber = new TreeMap<>();
+        for (LoanPayment payment : payments) {
+            amountsByLoanNumber.merge(payment.getLoanNumber(), (long) payment.getAmount(), Long::sum);
+        }
+        String updatedBy = auditorAware.getCurrentAuditor().orElse(COMPACTOR);
+        amountsByLoanNumber.forEach((loanNumber, amount) -> loansRepository.applyPayments(loanNumber, amount, updatedBy));
+        loanPaymentRepository.markCompacted(payments.stream().map(LoanPayment::getPaymentId).toList());
+        return payments.size();
+    }
+
+    private void compactQuietly() {
+        try {
+            int compacted = compact();
+            if (compacted > 0) {
+                logger.debug("Compacted {} loan payments", compacted);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Loan ledger compaction failed, retrying in {}", compactionInterval, ex);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.myBank.loans.mapper;
 
 import com.myBank.loans.dto.LoansDto;
 import com.myBank.loans.entity.Loans;
+import com.myBank.loans.repository.LoanBalanceView;
 
 public class LoansMapper {
 
@@ -15,6 +16,13 @@ public class LoansMapper {
         return loansDto;
     }
 
+    public static LoansDto mapToLoansDto(LoanBalanceView loanBalanceView, LoansDto loansDto) {
+        mapToLoansDto(loanBalanceView.getLoans(), loansDto);
+        loansDto.setAmountPaid(loanBalanceView.getAmountPaid());
+        loansDto.setOutstandingAmount(loanBalanceView.getOutstandingAmount());
+        return loansDto;
+    }
+
     public static Loans mapToLoans(LoansDto loansDto, Loans loans) {
         loans.setLoanNumber(loansDto.getLoanNumber());
         loans.setLoanType(loansDto.getLoanType());
@@ -0,0 +1,222 @@
+package com.myBank.loans.portfolio;
+
+import com.myBank.loans.dto.LoanPortfolioDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loan count, total loan and outstanding amount per loan type, maintained incrementally so that nobody has to scan
+ * the {@code loans} table for them. Every write records its change in striped in-memory counters, which never make
+ * concurrent writers wait on each other. Every {@code portfolio.flush-interval} the change since the last flush is
+ * added to the {@code loan_portfolio} table with one upsert per type, so the table holds the totals of all
+ * instances. {@link #portfolio()} reads the table plus what this instance has not flushed yet.
+ * <p>
+ * The outstanding amount includes payments not compacted into the loans yet. Every
+ * {@code portfolio.reconcile-interval} the table is replaced by a full scan to correct drift, e.g. from changes an
+ * instance lost when it stopped without flushing them. While the scan runs the summary rows are locked, so other instances cannot
+ * flush; changes they recorded but had not flushed yet are counted twice until the next reconciliation.
+ */
+public class LoanPortfolio {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanPortfolio.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration flushInterval;
+    private final Duration reconcileInterval;
+    private final ConcurrentMap<String, Totals> totals = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public LoanPortfolio(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Duration flushInterval,
+                         Duration reconcileInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushInterval = flushInterval;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-portfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileInterval.toMillis(),
+                reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        flushQuietly();
+    }
+
+    /**
+     * Records a change of the loans of one type; negative values for loans removed from the type.
+     */
+    public void record(String loanType, long loans, long totalLoan, long outstandingAmount) {
+        Totals typeTotals = totals.computeIfAbsent(loanType, type -> new Totals());
+        typeTotals.loans.add(loans);
+        typeTotals.totalLoan.add(totalLoan);
+        typeTotals.outstandingAmount.add(outstandingAmount);
+    }
+
+    /**
+     * @return the totals per loan type, ordered by type
+     */
+    public List<LoanPortfolioDto> portfolio() {
+        Map<String, LoanPortfolioDto> portfolio = new TreeMap<>();
+        jdbcTemplate.query("SELECT loan_type, loan_count, total_loan, outstanding_amount FROM loan_portfolio",
+                rs -> {
+                    portfolio.put(rs.getString(1), new LoanPortfolioDto(rs.getString(1), rs.getLong(2),
+                            rs.getLong(3), rs.getLong(4)));
+                });
+        totals.forEach((loanType, typeTotals) -> {
+            Snapshot pending = typeTotals.snapshot().minus(typeTotals.flushed);
+            LoanPortfolioDto loanPortfolioDto = portfolio.computeIfAbsent(loanType,
+                    type -> new LoanPortfolioDto(type, 0, 0, 0));
+            loanPortfolioDto.setLoanCount(loanPortfolioDto.getLoanCount() + pending.loans());
+            loanPortfolioDto.setTotalLoan(loanPortfolioDto.getTotalLoan() + pending.totalLoan());
+            loanPortfolioDto.setOutstandingAmount(loanPortfolioDto.getOutstandingAmount() + pending.outstandingAmount());
+        });
+        return new ArrayList<>(portfolio.values());
+    }
+
+    /**
+     * Adds the changes recorded since the last flush to the summary table in one transaction, in loan type order
+     * so that instances flushing at the same time lock the rows in the same order. On failure the changes stay
+     * pending and are retried on the next flush.
+     */
+    public synchronized void flush() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        List<Object[]> changes = new ArrayList<>();
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        totals.forEach((loanType, typeTotals) -> snapshots.put(loanType, typeTotals.snapshot()));
+        snapshots.forEach((loanType, snapshot) -> {
+            Snapshot change = snapshot.minus(totals.get(loanType).flushed);
+            if (!change.isZero()) {
+                changes.add(new Object[]{loanType, change.loans(), change.totalLoan(), change.outstandingAmount(),
+                        updatedAt});
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO loan_portfolio (loan_type, loan_count, total_loan, outstanding_amount, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE loan_count = loan_count + VALUES(loan_count), " +
+                        "total_loan = total_loan + VALUES(total_loan), " +
+                        "outstanding_amount = outstanding_amount + VALUES(outstanding_amount), " +
+                        "updated_at = VALUES(updated_at)", changes));
+        snapshots.forEach((loanType, snapshot) -> totals.get(loanType).flushed = snapshot);
+    }
+
+    /**
+     * Replaces the summary table with a full scan of the loans and the uncompacted payments. The summary rows are
+     * locked first and the totals recorded here are taken right before the scan; once the table is replaced, they
+     * count as flushed. Not exact under concurrent writes: a write that committed before the scan but was recorded
+     * after the totals were taken is counted twice until the next reconciliation.
+     *
+     * @return the number of loan types whose totals in the table differed from the scan
+     */
+    public synchronized int reconcile() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        int corrected = transactionTemplate.execute(status -> {
+            Map<String, Snapshot> summary = new TreeMap<>();
+            jdbcTemplate.query("SELECT loan_type, loan_count, total_loan, outstanding_amount FROM loan_portfolio " +
+                    "ORDER BY loan_type FOR UPDATE", rs -> {
+                summary.put(rs.getString(1), new Snapshot(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            });
+            // taken under the lock and right before the scan, so that it holds the same changes as the scan
+            // except those whose write committed before the scan but were recorded after this
+            totals.forEach((loanType, typeTotals) -> snapshots.put(loanType, typeTotals.snapshot()));
+            Map<String, Snapshot> scanned = new TreeMap<>();
+            jdbcTemplate.query("SELECT l.loan_type, COUNT(*), SUM(l.total_loan), " +
+                    "SUM(l.outstanding_amount) - COALESCE(SUM(p.amount), 0) FROM loans l LEFT JOIN " +
+                    "(SELECT loan_number, SUM(amount) AS amount FROM loan_payment WHERE compacted = false " +
+                    "GROUP BY loan_number) p ON p.loan_number = l.loan_number GROUP BY l.loan_type", rs -> {
+                scanned.put(rs.getString(1), new Snapshot(rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            });
+            jdbcTemplate.update("DELETE FROM loan_portfolio");
+            jdbcTemplate.batchUpdate("INSERT INTO loan_portfolio (loan_type, loan_count, total_loan, " +
+                            "outstanding_amount, updated_at) VALUES (?, ?, ?, ?, ?)",
+                    scanned.entrySet().stream()
+                            .map(entry -> new Object[]{entry.getKey(), entry.getValue().loans(),
+                                    entry.getValue().totalLoan(), entry.getValue().outstandingAmount(), updatedAt})
+                            .toList());
+            summary.keySet().forEach(loanType -> scanned.putIfAbsent(loanType, Snapshot.ZERO));
+            return (int) scanned.entrySet().stream()
+                    .filter(entry -> !entry.getValue().equals(summary.getOrDefault(entry.getKey(), Snapshot.ZERO)))
+                    .count();
+        });
+        snapshots.forEach((loanType, snapshot) -> totals.get(loanType).flushed = snapshot);
+        if (corrected > 0) {
+            logger.info("Loan portfolio reconciliation corrected {} loan types", corrected);
+        }
+        return corrected;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not write the loan portfolio, retrying on the next flush", ex);
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            logger.warn("Loan portfolio reconciliation failed, retrying in {}", reconcileInterval, ex);
+        }
+    }
+
+    /**
+     * Running totals of everything recorded for one loan type since start, and the part of it already flushed.
+     */
+    private static final class Totals {
+
+        private final LongAdder loans = new LongAdder();
+        private final LongAdder totalLoan = new LongAdder();
+        private final LongAdder outstandingAmount = new LongAdder();
+        private volatile Snapshot flushed = Snapshot.ZERO;
+
+        private Snapshot snapshot() {
+            return new Snapshot(loans.sum(), totalLoan.sum(), outstandingAmount.sum());
+        }
+    }
+
+    private record Snapshot(long loans, long totalLoan, long outstandingAmount) {
+
+        private static final Snapshot ZERO = new Snapshot(0, 0, 0);
+
+        private Snapshot minus(Snapshot other) {
+            return new Snapshot(loans - other.loans, totalLoan - other.totalLoan,
+                    outstandingAmount - other.outstandingAmount);
+        }
+
+        private boolean isZero() {
+            return equals(ZERO);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.myBank.loans.repository;
+
+import com.myBank.loans.entity.Loans;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A loan together with the sum of its payments not yet compacted into it, read by a single statement so both come
+ * from the same snapshot of the database.
+ */
+@Getter
+@AllArgsConstructor
+public class LoanBalanceView {
+
+    private Loans loans;
+
+    private long uncompactedPayments;
+
+    public int getAmountPaid() {
+        return Math.toIntExact(loans.getAmountPaid() + uncompactedPayments);
+    }
+
+    public int getOutstandingAmount() {
+        return Math.toIntExact(loans.getOutstandingAmount() - uncompactedPayments);
+    }
+}
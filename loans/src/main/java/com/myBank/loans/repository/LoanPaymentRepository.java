@@ -0,0 +1,31 @@
+package com.myBank.loans.repository;
+
+import com.myBank.loans.entity.LoanPayment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LoanPaymentRepository extends JpaRepository<LoanPayment, Long> {
+
+    /**
+     * Locks the oldest payments not yet compacted, so that concurrent compactors never roll up the same payment.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM LoanPayment p WHERE p.compacted = false ORDER BY p.paymentId")
+    List<LoanPayment> findUncompactedForUpdate(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE LoanPayment p SET p.compacted = true WHERE p.paymentId IN :paymentIds")
+    int markCompacted(@Param("paymentIds") Collection<Long> paymentIds);
+}
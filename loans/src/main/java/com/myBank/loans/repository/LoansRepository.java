@@ -1,16 +1,75 @@
 package com.myBank.loans.repository;
 
 import com.myBank.loans.entity.Loans;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LoansRepository extends JpaRepository<Loans, Long> {
 
+    /**
+     * Sum of the payments of loan {@code l} that are not compacted into it yet.
+     */
+    String UNCOMPACTED_PAYMENTS = "(SELECT COALESCE(SUM(p.amount), 0) FROM LoanPayment p " +
+            "WHERE p.loanNumber = l.loanNumber AND p.compacted = false)";
+
     Optional<Loans> findByMobileNumber(String mobileNumber);
 
     Optional<Loans> findByLoanNumber(String loanNumber);
 
+    List<Loans> findAllByMobileNumberIn(Collection<String> mobileNumbers);
+
+    @Query("SELECT new com.myBank.loans.repository.LoanBalanceView(l, " + UNCOMPACTED_PAYMENTS + ") " +
+            "FROM Loans l WHERE l.mobileNumber = :mobileNumber")
+    Optional<LoanBalanceView> findWithBalanceByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+    @Query("SELECT new com.myBank.loans.repository.LoanBalanceView(l, " + UNCOMPACTED_PAYMENTS + ") " +
+            "FROM Loans l WHERE l.mobileNumber IN :mobileNumbers")
+    List<LoanBalanceView> findAllWithBalanceByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    @Query("SELECT new com.myBank.loans.repository.LoanBalanceView(l, " + UNCOMPACTED_PAYMENTS + ") " +
+            "FROM Loans l WHERE l.loanNumber IN :loanNumbers")
+    List<LoanBalanceView> findAllWithBalanceByLoanNumberIn(@Param("loanNumbers") Collection<String> loanNumbers);
+
+    /**
+     * Keyset page: the loans after {@code loanId} in primary key order. Served by a range scan of the primary key,
+     * so every page costs the same however deep it is, unlike an OFFSET.
+     */
+    @Query("SELECT new com.myBank.loans.repository.LoanBalanceView(l, " + UNCOMPACTED_PAYMENTS + ") " +
+            "FROM Loans l WHERE l.loanId > :loanId ORDER BY l.loanId")
+    List<LoanBalanceView> findAllWithBalanceByLoanIdGreaterThan(@Param("loanId") long loanId, Limit limit);
+
+    /**
+     * Rolls compacted payments up into the loan. Only the balance columns are written, so this never conflicts
+     * with {@link #updateTerms}.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Loans l SET l.amountPaid = l.amountPaid + :amount, l.outstandingAmount = l.outstandingAmount - :amount, " +
+            "l.updatedAt = LOCAL DATETIME, l.updatedBy = :updatedBy WHERE l.loanNumber = :loanNumber")
+    int applyPayments(@Param("loanNumber") String loanNumber, @Param("amount") long amount,
+                      @Param("updatedBy") String updatedBy);
+
+    /**
+     * Updates everything but the balances, which only change through posted payments. A change of the total loan
+     * moves the outstanding amount by the same difference; it is assigned first so it still sees the old total.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Loans l SET l.outstandingAmount = l.outstandingAmount + (:totalLoan - l.totalLoan), " +
+            "l.totalLoan = :totalLoan, l.loanType = :loanType, l.mobileNumber = :mobileNumber, " +
+            "l.updatedAt = LOCAL DATETIME, l.updatedBy = :updatedBy WHERE l.loanNumber = :loanNumber")
+    int updateTerms(@Param("loanNumber") String loanNumber, @Param("loanType") String loanType,
+                    @Param("mobileNumber") String mobileNumber, @Param("totalLoan") int totalLoan,
+                    @Param("updatedBy") String updatedBy);
+
 }
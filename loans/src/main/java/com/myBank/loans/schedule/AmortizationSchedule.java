@@ -0,0 +1,26 @@
+package com.myBank.loans.schedule;
+
+/**
+ * An equated monthly installment schedule held column-wise in primitive arrays, one element per installment, so a
+ * 30-year schedule is four arrays rather than 360 objects. Amounts are in hundredths of the currency unit. Instances
+ * are shared through the schedule cache and must not be modified.
+ *
+ * @param installments    amount due each month; only the last one differs, absorbing the rounding
+ * @param principal       part of each installment repaying the principal
+ * @param interest        part of each installment paying interest
+ * @param closingBalance  principal still owed after each installment
+ */
+public record AmortizationSchedule(long[] installments, long[] principal, long[] interest, long[] closingBalance) {
+
+    public int months() {
+        return installments.length;
+    }
+
+    public long totalInterest() {
+        long totalInterest = 0;
+        for (long monthlyInterest : interest) {
+            totalInterest += monthlyInterest;
+        }
+        return totalInterest;
+    }
+}
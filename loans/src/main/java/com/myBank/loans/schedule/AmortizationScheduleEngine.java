@@ -0,0 +1,74 @@
+package com.myBank.loans.schedule;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myBank.loans.config.AmortizationScheduleProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes equated monthly installment schedules and caches them. The cache key includes the outstanding amount, so
+ * any payment or change of the total loan misses the cache and the schedules of the previous balance simply age out.
+ */
+@Component
+public class AmortizationScheduleEngine {
+
+    private final Cache<ScheduleKey, AmortizationSchedule> schedules;
+
+    public AmortizationScheduleEngine(AmortizationScheduleProperties amortizationScheduleProperties,
+                                      MeterRegistry meterRegistry) {
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(amortizationScheduleProperties.getMaximumSize())
+                .expireAfterAccess(amortizationScheduleProperties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, schedules, "amortization-schedule");
+    }
+
+    /**
+     * @param loanNumber              loan the schedule is for
+     * @param outstandingAmount       principal to repay, in whole currency units
+     * @param annualRateBasisPoints   nominal annual interest rate in hundredths of a percent
+     * @param months                  number of monthly installments
+     */
+    public AmortizationSchedule schedule(String loanNumber, int outstandingAmount, int annualRateBasisPoints, int months) {
+        return schedules.get(new ScheduleKey(loanNumber, outstandingAmount, annualRateBasisPoints, months),
+                key -> compute(key.outstandingAmount() * 100L, key.annualRateBasisPoints(), key.months()));
+    }
+
+    /**
+     * Fills the schedule in one pass with no allocation beyond the four arrays. Each month's interest is rounded to
+     * the nearest hundredth and the last installment repays whatever principal is left, so the principal column
+     * always sums to exactly {@code principalMinor}.
+     *
+     * @param principalMinor         principal in hundredths of the currency unit
+     * @param annualRateBasisPoints  nominal annual interest rate in hundredths of a percent
+     * @param months                 number of monthly installments, at least one
+     */
+    public static AmortizationSchedule compute(long principalMinor, int annualRateBasisPoints, int months) {
+        long[] installments = new long[months];
+        long[] principal = new long[months];
+        long[] interest = new long[months];
+        long[] closingBalance = new long[months];
+
+        double monthlyRate = annualRateBasisPoints / 120_000.0;
+        long installment = monthlyRate == 0
+                ? (principalMinor + months - 1) / months
+                : Math.round(principalMinor * monthlyRate / -Math.expm1(-months * Math.log1p(monthlyRate)));
+        long balance = principalMinor;
+        for (int month = 0; month < months; month++) {
+            long monthlyInterest = Math.round(balance * monthlyRate);
+            long repaid = month == months - 1 ? balance : Math.min(balance, installment - monthlyInterest);
+            balance -= repaid;
+            installments[month] = repaid + monthlyInterest;
+            principal[month] = repaid;
+            interest[month] = monthlyInterest;
+            closingBalance[month] = balance;
+        }
+        return new AmortizationSchedule(installments, principal, interest, closingBalance);
+    }
+
+    private record ScheduleKey(String loanNumber, int outstandingAmount, int annualRateBasisPoints, int months) {
+    }
+}
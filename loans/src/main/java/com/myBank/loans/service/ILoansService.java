@@ -1,7 +1,16 @@
 package com.myBank.loans.service;
 
 
+import com.myBank.loans.dto.AmortizationScheduleDto;
+import com.myBank.loans.dto.LoanPaymentDto;
+import com.myBank.loans.dto.LoanPortfolioDto;
 import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.dto.LoansPageDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ILoansService {
 
@@ -16,7 +25,49 @@ public interface ILoansService {
      * @param mobileNumber - Input mobile Number
      *  @return Loan Details based on a given mobileNumber
      */
-    LoansDto fetchLoan(String mobileNumber);
+    Optional<LoansDto> fetchLoan(String mobileNumber);
+
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of every given mobileNumber that has a loan, fetched in a single query
+     */
+    List<LoansDto> fetchLoans(List<String> mobileNumbers);
+
+    /**
+     *
+     * @param cursor - nextCursor of the previous page, 0 for the first page
+     * @param size - Maximum number of loans in the page
+     * @return The loans after the cursor, in loan id order
+     */
+    LoansPageDto listLoans(long cursor, int size);
+
+    /**
+     *
+     * @param loanConsumer - Receives every loan, in loan id order, as it is read from the database
+     */
+    void exportLoans(Consumer<LoansDto> loanConsumer);
+
+    /**
+     *
+     * @param mobileNumber - Input mobile Number
+     * @param annualInterestRate - Nominal annual interest rate in percent
+     * @param tenureMonths - Number of monthly installments
+     * @return Installment schedule repaying the outstanding amount of the loan of the given mobileNumber
+     */
+    AmortizationScheduleDto fetchSchedule(String mobileNumber, BigDecimal annualInterestRate, int tenureMonths);
+
+    /**
+     *
+     * @return Number of loans, total loan and outstanding amount per loan type
+     */
+    List<LoanPortfolioDto> fetchPortfolio();
+
+    /**
+     *
+     * @param loanPaymentDtos - Payments to append to the repayment ledger
+     */
+    void postPayments(List<LoanPaymentDto> loanPaymentDtos);
 
     /**
      *
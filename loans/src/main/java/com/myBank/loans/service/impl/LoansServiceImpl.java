@@ -1,24 +1,56 @@
 package com.myBank.loans.service.impl;
 
+import com.myBank.loans.config.BatchProperties;
 import com.myBank.loans.constants.LoansConstants;
+import com.myBank.loans.dto.AmortizationScheduleDto;
+import com.myBank.loans.dto.LoanPaymentDto;
+import com.myBank.loans.dto.LoanPortfolioDto;
 import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.dto.LoansPageDto;
+import com.myBank.loans.entity.LoanPayment;
 import com.myBank.loans.entity.Loans;
+import com.myBank.loans.event.LoansEventPublisher;
+import com.myBank.loans.exception.BatchSizeExceededException;
 import com.myBank.loans.exception.LoanAlreadyExistsException;
+import com.myBank.loans.export.LoansExporter;
+import com.myBank.loans.exception.LoanPaymentRejectedException;
 import com.myBank.loans.exception.ResourceNotFoundException;
 import com.myBank.loans.mapper.LoansMapper;
+import com.myBank.loans.portfolio.LoanPortfolio;
+import com.myBank.loans.repository.LoanBalanceView;
+import com.myBank.loans.repository.LoanPaymentRepository;
 import com.myBank.loans.repository.LoansRepository;
+import com.myBank.loans.sequence.NumberAllocator;
+import com.myBank.loans.schedule.AmortizationSchedule;
+import com.myBank.loans.schedule.AmortizationScheduleEngine;
 import com.myBank.loans.service.ILoansService;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class LoansServiceImpl implements ILoansService {
 
     private LoansRepository loansRepository;
+    private NumberAllocator loanNumberAllocator;
+    private LoansEventPublisher loansEventPublisher;
+    private LoanPaymentRepository loanPaymentRepository;
+    private AuditorAware<String> auditorAware;
+    private AmortizationScheduleEngine amortizationScheduleEngine;
+    private LoanPortfolio loanPortfolio;
+    private LoansExporter loansExporter;
+    private BatchProperties batchProperties;
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
@@ -29,7 +61,9 @@ public class LoansServiceImpl implements ILoansService {
         if(optionalLoans.isPresent()){
             throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
         }
-        loansRepository.save(createNewLoan(mobileNumber));
+        Loans loans = loansRepository.save(createNewLoan(mobileNumber));
+        loanPortfolio.record(loans.getLoanType(), 1, loans.getTotalLoan(), loans.getOutstandingAmount());
+        loansEventPublisher.publishLoanChanged(mobileNumber);
     }
 
     /**
@@ -38,8 +72,7 @@ public class LoansServiceImpl implements ILoansService {
      */
     private Loans createNewLoan(String mobileNumber) {
         Loans newLoan = new Loans();
-        long randomLoanNumber = 100000000000L + new Random().nextInt(900000000);
-        newLoan.setLoanNumber(Long.toString(randomLoanNumber));
+        newLoan.setLoanNumber(Long.toString(loanNumberAllocator.next()));
         newLoan.setMobileNumber(mobileNumber);
         newLoan.setLoanType(LoansConstants.HOME_LOAN);
         newLoan.setTotalLoan(LoansConstants.NEW_LOAN_LIMIT);
@@ -51,27 +84,148 @@ public class LoansServiceImpl implements ILoansService {
     /**
      *
      * @param mobileNumber - Input mobile Number
-     * @return Loan Details based on a given mobileNumber
+     * @return Loan Details based on a given mobileNumber, including payments not compacted into the loan yet; empty
+     * when the customer has no loan. Many customers have none, so this is an ordinary outcome rather than a
+     * {@link ResourceNotFoundException}.
      */
     @Override
-    public LoansDto fetchLoan(String mobileNumber) {
-        Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
+    public Optional<LoansDto> fetchLoan(String mobileNumber) {
+        return loansRepository.findWithBalanceByMobileNumber(mobileNumber)
+                .map(loanBalanceView -> LoansMapper.mapToLoansDto(loanBalanceView, new LoansDto()));
+    }
+
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers, at most {@code batch.max-size}
+     * @return Loan Details of every given mobileNumber that has a loan, including payments not compacted yet
+     */
+    @Override
+    public List<LoansDto> fetchLoans(List<String> mobileNumbers) {
+        if (mobileNumbers.size() > batchProperties.getMaxSize()) {
+            throw new BatchSizeExceededException(mobileNumbers.size(), batchProperties.getMaxSize());
+        }
+        return loansRepository.findAllWithBalanceByMobileNumberIn(mobileNumbers).stream()
+                .map(loanBalanceView -> LoansMapper.mapToLoansDto(loanBalanceView, new LoansDto()))
+                .toList();
+    }
+
+    /**
+     * Reads one row more than the page size, so the last page is recognised without an extra empty request.
+     *
+     * @param cursor - nextCursor of the previous page, 0 for the first page
+     * @param size - Maximum number of loans in the page
+     * @return The loans after the cursor, in loan id order, including payments not compacted into them yet
+     */
+    @Override
+    public LoansPageDto listLoans(long cursor, int size) {
+        List<LoanBalanceView> loans = loansRepository.findAllWithBalanceByLoanIdGreaterThan(cursor, Limit.of(size + 1));
+        boolean hasMore = loans.size() > size;
+        List<LoanBalanceView> page = hasMore ? loans.subList(0, size) : loans;
+        return new LoansPageDto(page.stream()
+                .map(loanBalanceView -> LoansMapper.mapToLoansDto(loanBalanceView, new LoansDto())).toList(),
+                hasMore ? page.get(size - 1).getLoans().getLoanId() : null);
+    }
+
+    /**
+     * @param loanConsumer - Receives every loan, in loan id order, as it is read from the database
+     */
+    @Override
+    public void exportLoans(Consumer<LoansDto> loanConsumer) {
+        loansExporter.export(loanConsumer);
+    }
+
+    /**
+     * The schedule repays the outstanding amount including payments not compacted yet, and is served from the
+     * schedule cache until that amount changes.
+     *
+     * @param mobileNumber - Input mobile Number
+     * @param annualInterestRate - Nominal annual interest rate in percent, with at most two decimals
+     * @param tenureMonths - Number of monthly installments
+     * @return Installment schedule of the loan of the given mobileNumber
+     */
+    @Override
+    public AmortizationScheduleDto fetchSchedule(String mobileNumber, BigDecimal annualInterestRate, int tenureMonths) {
+        LoanBalanceView loanBalanceView = loansRepository.findWithBalanceByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
         );
-        return LoansMapper.mapToLoansDto(loans, new LoansDto());
+        String loanNumber = loanBalanceView.getLoans().getLoanNumber();
+        int outstandingAmount = loanBalanceView.getOutstandingAmount();
+        AmortizationSchedule schedule = amortizationScheduleEngine.schedule(loanNumber, outstandingAmount,
+                annualInterestRate.movePointRight(2).intValueExact(), tenureMonths);
+        return new AmortizationScheduleDto(loanNumber, outstandingAmount, annualInterestRate, tenureMonths,
+                schedule.totalInterest(), schedule.installments(), schedule.principal(), schedule.interest(),
+                schedule.closingBalance());
     }
 
     /**
+     * @return totals per loan type, maintained incrementally by every write rather than scanned from the loans
+     */
+    @Override
+    public List<LoanPortfolioDto> fetchPortfolio() {
+        return loanPortfolio.portfolio();
+    }
+
+    /**
+     * Appends the payments to the ledger in one transaction of batched inserts, without touching the loans rows;
+     * the compactor rolls them up later. Payments exceeding the outstanding amount are rejected as a whole, though
+     * payments posted concurrently for the same loan are not checked against each other.
+     *
+     * @param loanPaymentDtos - Payments to post
+     */
+    @Override
+    public void postPayments(List<LoanPaymentDto> loanPaymentDtos) {
+        Map<String, Long> amountsByLoanNumber = loanPaymentDtos.stream().collect(Collectors.groupingBy(
+                LoanPaymentDto::getLoanNumber, LinkedHashMap::new, Collectors.summingLong(LoanPaymentDto::getAmount)));
+        Map<String, LoanBalanceView> loans = loansRepository.findAllWithBalanceByLoanNumberIn(amountsByLoanNumber.keySet())
+                .stream()
+                .collect(Collectors.toMap(view -> view.getLoans().getLoanNumber(), Function.identity()));
+        amountsByLoanNumber.forEach((loanNumber, amount) -> {
+            LoanBalanceView loanBalanceView = loans.get(loanNumber);
+            if (loanBalanceView == null) {
+                throw new ResourceNotFoundException("Loan", "LoanNumber", loanNumber);
+            }
+            if (amount > loanBalanceView.getOutstandingAmount()) {
+                throw new LoanPaymentRejectedException("Payments of " + amount + " exceed the outstanding amount of "
+                        + loanBalanceView.getOutstandingAmount() + " on loan " + loanNumber);
+            }
+        });
+
+        loanPaymentRepository.saveAll(loanPaymentDtos.stream()
+                .map(loanPaymentDto -> new LoanPayment(null, loanPaymentDto.getLoanNumber(), loanPaymentDto.getAmount(), false))
+                .toList());
+        amountsByLoanNumber.forEach((loanNumber, amount) ->
+                loanPortfolio.record(loans.get(loanNumber).getLoans().getLoanType(), 0, 0, -amount));
+        loans.values().stream()
+                .map(loanBalanceView -> loanBalanceView.getLoans().getMobileNumber())
+                .distinct()
+                .forEach(loansEventPublisher::publishLoanChanged);
+    }
+
+    /**
+     * Updates the loan type, mobile number and total loan in place. The amount paid and outstanding amount of the
+     * DTO are ignored, as they only change through {@link #postPayments(List)}; a new total loan moves the
+     * outstanding amount by the difference.
      *
      * @param loansDto - LoansDto Object
      * @return boolean indicating if the update of loan details is successful or not
      */
     @Override
     public boolean updateLoan(LoansDto loansDto) {
-        Loans loans = loansRepository.findByLoanNumber(loansDto.getLoanNumber()).orElseThrow(
-                () -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
-        LoansMapper.mapToLoans(loansDto, loans);
-        loansRepository.save(loans);
+        LoanBalanceView loanBalanceView = loansRepository.findAllWithBalanceByLoanNumberIn(List.of(loansDto.getLoanNumber()))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
+        Loans loans = loanBalanceView.getLoans();
+        String previousMobileNumber = loans.getMobileNumber();
+        loansRepository.updateTerms(loansDto.getLoanNumber(), loansDto.getLoanType(), loansDto.getMobileNumber(),
+                loansDto.getTotalLoan(), auditorAware.getCurrentAuditor().orElse(null));
+        loanPortfolio.record(loans.getLoanType(), -1, -loans.getTotalLoan(), -loanBalanceView.getOutstandingAmount());
+        loanPortfolio.record(loansDto.getLoanType(), 1, loansDto.getTotalLoan(),
+                loanBalanceView.getOutstandingAmount() + (long) loansDto.getTotalLoan() - loans.getTotalLoan());
+        loansEventPublisher.publishLoanChanged(previousMobileNumber);
+        if (!previousMobileNumber.equals(loansDto.getMobileNumber())) {
+            loansEventPublisher.publishLoanChanged(loansDto.getMobileNumber());
+        }
         return  true;
     }
 
@@ -81,10 +235,13 @@ public class LoansServiceImpl implements ILoansService {
      */
     @Override
     public boolean deleteLoan(String mobileNumber) {
-        Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        LoanBalanceView loanBalanceView = loansRepository.findWithBalanceByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
         );
+        Loans loans = loanBalanceView.getLoans();
         loansRepository.deleteById(loans.getLoanId());
+        loanPortfolio.record(loans.getLoanType(), -1, -loans.getTotalLoan(), -loanBalanceView.getOutstandingAmount());
+        loansEventPublisher.publishLoanChanged(mobileNumber);
         return true;
     }
 
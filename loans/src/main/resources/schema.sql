@@ -10,5 +10,49 @@ CREATE TABLE IF NOT EXISTS `loans` (
   `created_by` varchar(20) NOT NULL,
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
-  PRIMARY KEY (`loan_id`)
-);
\ No newline at end of file
+  PRIMARY KEY (`loan_id`),
+  UNIQUE KEY `uk_loans_loan_number` (`loan_number`),
+  KEY `idx_loans_mobile_number` (`mobile_number`)
+);
+
+-- CREATE TABLE IF NOT EXISTS leaves a loans table created before the index without it, and MySQL has no
+-- CREATE INDEX IF NOT EXISTS, so the index is added to such a table only when information_schema lacks it
+SET @add_uk_loans_loan_number = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE `loans` ADD UNIQUE KEY `uk_loans_loan_number` (`loan_number`)', 'DO 0')
+  FROM information_schema.statistics
+  WHERE table_schema = DATABASE() AND table_name = 'loans' AND index_name = 'uk_loans_loan_number');
+PREPARE add_uk_loans_loan_number FROM @add_uk_loans_loan_number;
+EXECUTE add_uk_loans_loan_number;
+DEALLOCATE PREPARE add_uk_loans_loan_number;
+
+CREATE TABLE IF NOT EXISTS `loan_payment` (
+  `payment_id` bigint NOT NULL,
+  `loan_number` varchar(100) NOT NULL,
+  `amount` int NOT NULL,
+  `compacted` boolean NOT NULL DEFAULT false,
+  `created_at` datetime NOT NULL,
+  `created_by` varchar(20) NOT NULL,
+  `updated_at` datetime DEFAULT NULL,
+  `updated_by` varchar(20) DEFAULT NULL,
+  PRIMARY KEY (`payment_id`),
+  KEY `idx_loan_payment_compacted` (`compacted`, `loan_number`)
+);
+
+CREATE TABLE IF NOT EXISTS `loan_portfolio` (
+  `loan_type` varchar(100) NOT NULL,
+  `loan_count` bigint NOT NULL,
+  `total_loan` bigint NOT NULL,
+  `outstanding_amount` bigint NOT NULL,
+  `updated_at` datetime NOT NULL,
+  PRIMARY KEY (`loan_type`)
+);
+
+CREATE TABLE IF NOT EXISTS `number_segment` (
+  `name` varchar(50) NOT NULL,
+  `next_value` bigint NOT NULL,
+  PRIMARY KEY (`name`)
+);
+
+-- starts above the range of the randomly generated numbers issued before the allocator existed
+INSERT IGNORE INTO `number_segment` (`name`, `next_value`) VALUES ('loan_number', 100900000000);
+INSERT IGNORE INTO `number_segment` (`name`, `next_value`) VALUES ('loan_payment_id', 1);
@@ -0,0 +1,73 @@
+package com.myBank.loans.schedule;
+
+import com.myBank.loans.config.AmortizationScheduleProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures computing a schedule from scratch and serving it from the cache. {@link #main(String[])} adds the GC
+ * profiler, whose {@code gc.alloc.rate.norm} should stay at the size of the four arrays (about 11.6 KB for 360
+ * months) for {@code compute} and near zero for {@code cached}.
+ * <p>
+ * Run with {@code mvn test-compile} followed by {@code java -cp <test classpath> com.myBank.loans.schedule.AmortizationScheduleBenchmark}
+ * or from the IDE through {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmortizationScheduleBenchmark {
+
+    private static final String LOAN_NUMBER = "548732457654";
+    private static final int OUTSTANDING_AMOUNT = 5_000_000;
+
+    @Param({"360"})
+    private int months;
+
+    @Param({"0", "850"})
+    private int annualRateBasisPoints;
+
+    private AmortizationScheduleEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new AmortizationScheduleEngine(new AmortizationScheduleProperties(), new SimpleMeterRegistry());
+        engine.schedule(LOAN_NUMBER, OUTSTANDING_AMOUNT, annualRateBasisPoints, months);
+    }
+
+    @Benchmark
+    public AmortizationSchedule compute() {
+        return AmortizationScheduleEngine.compute(OUTSTANDING_AMOUNT * 100L, annualRateBasisPoints, months);
+    }
+
+    @Benchmark
+    public AmortizationSchedule cached() {
+        return engine.schedule(LOAN_NUMBER, OUTSTANDING_AMOUNT, annualRateBasisPoints, months);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AmortizationScheduleBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package com.myBank.loans.schedule;
+
+import com.myBank.loans.config.AmortizationScheduleProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AmortizationScheduleEngineTest {
+
+    @Test
+    void thirtyYearScheduleRepaysThePrincipalWithEqualInstallments() {
+        AmortizationSchedule schedule = AmortizationScheduleEngine.compute(10_000_000, 850, 360);
+
+        assertEquals(360, schedule.months());
+        // 100000.00 at 8.5% over 30 years: 768.91 a month
+        assertEquals(76_891, schedule.installments()[0]);
+        assertEquals(1, Arrays.stream(schedule.installments(), 0, 359).distinct().count());
+        assertEquals(10_000_000, Arrays.stream(schedule.principal()).sum());
+        assertEquals(0, schedule.closingBalance()[359]);
+        assertEquals(70_833, schedule.interest()[0]);
+        for (int month = 0; month < 360; month++) {
+            assertEquals(schedule.installments()[month], schedule.principal()[month] + schedule.interest()[month]);
+        }
+        assertEquals(Arrays.stream(schedule.installments()).sum() - 10_000_000, schedule.totalInterest());
+    }
+
+    @Test
+    void interestFreeScheduleSplitsThePrincipalEvenly() {
+        AmortizationSchedule schedule = AmortizationScheduleEngine.compute(100_000, 0, 12);
+
+        assertEquals(8_334, schedule.installments()[0]);
+        assertEquals(8_326, schedule.installments()[11]);
+        assertEquals(100_000, Arrays.stream(schedule.installments()).sum());
+        assertEquals(0, schedule.totalInterest());
+    }
+
+    @Test
+    void cachesUntilTheOutstandingAmountChanges() {
+        AmortizationScheduleEngine engine =
+                new AmortizationScheduleEngine(new AmortizationScheduleProperties(), new SimpleMeterRegistry());
+
+        AmortizationSchedule first = engine.schedule("548732457654", 100_000, 850, 360);
+
+        assertSame(first, engine.schedule("548732457654", 100_000, 850, 360));
+        assertNotSame(first, engine.schedule("548732457654", 99_000, 850, 360));
+    }
+}
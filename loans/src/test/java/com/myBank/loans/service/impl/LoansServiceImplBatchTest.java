@@ -0,0 +1,52 @@
+package com.myBank.loans.service.impl;
+
+import com.myBank.loans.config.BatchProperties;
+import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.entity.Loans;
+import com.myBank.loans.exception.BatchSizeExceededException;
+import com.myBank.loans.repository.LoanBalanceView;
+import com.myBank.loans.repository.LoansRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoansServiceImplBatchTest {
+
+    private final LoansRepository loansRepository = mock(LoansRepository.class);
+    private final BatchProperties batchProperties = new BatchProperties();
+    private final LoansServiceImpl loansService = new LoansServiceImpl(loansRepository, null, null, null, null, null,
+            null, null, batchProperties);
+
+    @Test
+    void returnsTheLoansOfTheNumbersThatHaveOne() {
+        List<String> mobileNumbers = List.of("4354437687", "4354437688");
+        Loans loans = new Loans(1L, "4354437688", "100900000001", "Home Loan", 100_000, 1_000, 99_000);
+        when(loansRepository.findAllWithBalanceByMobileNumberIn(mobileNumbers))
+                .thenReturn(List.of(new LoanBalanceView(loans, 500)));
+
+        List<LoansDto> loansDtos = loansService.fetchLoans(mobileNumbers);
+
+        assertEquals(1, loansDtos.size());
+        assertEquals("4354437688", loansDtos.get(0).getMobileNumber());
+        assertEquals(1_500, loansDtos.get(0).getAmountPaid());
+    }
+
+    @Test
+    void batchOverTheMaximumSizeIsRejectedWithoutQuerying() {
+        List<String> mobileNumbers = IntStream.rangeClosed(1, batchProperties.getMaxSize() + 1)
+                .mapToObj(i -> String.format("43544%05d", i))
+                .toList();
+
+        assertThrows(BatchSizeExceededException.class, () -> loansService.fetchLoans(mobileNumbers));
+        verify(loansRepository, never()).findAllWithBalanceByMobileNumberIn(anyCollection());
+    }
+}
@@ -0,0 +1,270 @@
+package com.myBank.loans.service.impl;
+
+import com.myBank.loans.config.BatchProperties;
+import com.myBank.loans.config.ExportProperties;
+import com.myBank.loans.dto.LoanPaymentDto;
+import com.myBank.loans.dto.LoansDto;
+import com.myBank.loans.dto.LoansPageDto;
+import com.myBank.loans.entity.Loans;
+import com.myBank.loans.event.LoansEventPublisher;
+import com.myBank.loans.exception.LoanPaymentRejectedException;
+import com.myBank.loans.export.LoansExporter;
+import com.myBank.loans.exception.ResourceNotFoundException;
+import com.myBank.loans.dto.LoanPortfolioDto;
+import com.myBank.loans.ledger.LoanLedgerCompactor;
+import com.myBank.loans.portfolio.LoanPortfolio;
+import com.myBank.loans.repository.LoanPaymentRepository;
+import com.myBank.loans.repository.LoansRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.querydsl.EntityPathResolver;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Posts payments to the ledger against H2 from several threads while the compactor runs and checks that reads
+ * always see the loan row plus the uncompacted payments, and that compaction never loses or double counts one.
+ * The incrementally maintained portfolio is checked against a full scan after every test.
+ */
+class LoansServiceImplLedgerTest {
+
+    private static final String MOBILE_NUMBER = "4354437687";
+    private static final String LOAN_NUMBER = "100900000001";
+    private static final String OTHER_MOBILE_NUMBER = "4354437688";
+    private static final String OTHER_LOAN_NUMBER = "100900000002";
+    private static final int TOTAL_LOAN = 100_000;
+    private static final int THREADS = 4;
+    private static final int PAYMENTS_PER_THREAD = 50;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private HikariDataSource dataSource;
+    private LoansServiceImpl loansService;
+    private LoanPaymentRepository loanPaymentRepository;
+    private LoanLedgerCompactor compactor;
+    private LoanPortfolio loanPortfolio;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+        dataSource.setMaximumPoolSize(THREADS + 1);
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.myBank.loans.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.jdbc.batch_size", "100",
+                "hibernate.order_inserts", "true",
+                "hibernate.generate_statistics", "true"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("transactionManager", transactionManager);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        LoansRepository loansRepository = repository(LoansRepository.class, entityManager, beanFactory);
+        loanPaymentRepository = repository(LoanPaymentRepository.class, entityManager, beanFactory);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Loans loans = new Loans(null, MOBILE_NUMBER, LOAN_NUMBER, "Home Loan", TOTAL_LOAN, 0, TOTAL_LOAN);
+            loans.setCreatedBy("TEST");
+            entityManager.persist(loans);
+            Loans otherLoans = new Loans(null, OTHER_MOBILE_NUMBER, OTHER_LOAN_NUMBER, "Home Loan", TOTAL_LOAN, 0, TOTAL_LOAN);
+            otherLoans.setCreatedBy("TEST");
+            entityManager.persist(otherLoans);
+        });
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE loan_portfolio (loan_type varchar(100) NOT NULL PRIMARY KEY, " +
+                "loan_count bigint NOT NULL, total_loan bigint NOT NULL, outstanding_amount bigint NOT NULL, " +
+                "updated_at datetime NOT NULL)");
+        loanPortfolio = new LoanPortfolio(jdbcTemplate, transactionTemplate, Duration.ofMillis(5), Duration.ofHours(1));
+        loanPortfolio.reconcile();
+
+        AuditorAware<String> auditorAware = () -> Optional.of("TEST");
+        loansService = new LoansServiceImpl(loansRepository, null, mock(LoansEventPublisher.class),
+                loanPaymentRepository, auditorAware, null, loanPortfolio,
+                new LoansExporter(jdbcTemplate, new ExportProperties()), new BatchProperties());
+        compactor = new LoanLedgerCompactor(loanPaymentRepository, loansRepository, transactionTemplate, auditorAware,
+                Duration.ofMillis(5), 30);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        loanPortfolio.flush();
+        List<LoanPortfolioDto> maintained = loanPortfolio.portfolio();
+        assertEquals(0, loanPortfolio.reconcile(), "portfolio drifted from the loans: " + maintained);
+        assertEquals(maintained, loanPortfolio.portfolio());
+        jdbcTemplate.execute("DROP TABLE loan_portfolio");
+        executor.shutdownNow();
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentPaymentsAreNeitherLostNorDoubleCountedByCompaction() throws Exception {
+        compactor.start();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                    loansService.postPayments(List.of(new LoanPaymentDto(LOAN_NUMBER, 10),
+                            new LoanPaymentDto(OTHER_LOAN_NUMBER, 1)));
+                    for (LoansDto loansDto : loansService.fetchLoans(List.of(MOBILE_NUMBER, OTHER_MOBILE_NUMBER))) {
+                        assertEquals(TOTAL_LOAN, loansDto.getAmountPaid() + loansDto.getOutstandingAmount());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        compactor.stop();
+        compactor.compact();
+
+        int payments = THREADS * PAYMENTS_PER_THREAD;
+        List<LoansDto> loansDtos = loansService.fetchLoans(List.of(MOBILE_NUMBER, OTHER_MOBILE_NUMBER));
+        assertEquals(2, loansDtos.size());
+        for (LoansDto loansDto : loansDtos) {
+            int paid = LOAN_NUMBER.equals(loansDto.getLoanNumber()) ? payments * 10 : payments;
+            assertEquals(paid, loansDto.getAmountPaid());
+            assertEquals(TOTAL_LOAN - paid, loansDto.getOutstandingAmount());
+        }
+        assertEquals(0, compactor.compact());
+        assertEquals(2L * payments, loanPaymentRepository.count());
+    }
+
+    @Test
+    void readsIncludeUncompactedPaymentsAndCompactionKeepsTheTotals() {
+        loansService.postPayments(List.of(new LoanPaymentDto(LOAN_NUMBER, 500), new LoanPaymentDto(LOAN_NUMBER, 250)));
+        assertEquals(List.of(new LoanPortfolioDto("Home Loan", 2, 2L * TOTAL_LOAN, 2L * TOTAL_LOAN - 750)),
+                loanPortfolio.portfolio());
+
+        LoansDto beforeCompaction = loansService.fetchLoan(MOBILE_NUMBER).orElseThrow();
+        assertEquals(2, compactor.compact());
+        LoansDto afterCompaction = loansService.fetchLoan(MOBILE_NUMBER).orElseThrow();
+
+        assertEquals(750, beforeCompaction.getAmountPaid());
+        assertEquals(TOTAL_LOAN - 750, beforeCompaction.getOutstandingAmount());
+        assertEquals(beforeCompaction, afterCompaction);
+    }
+
+    @Test
+    void insertsPaymentsInJdbcBatches() {
+        List<LoanPaymentDto> loanPaymentDtos = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            loanPaymentDtos.add(new LoanPaymentDto(i % 2 == 0 ? LOAN_NUMBER : OTHER_LOAN_NUMBER, 1));
+        }
+
+        statistics.clear();
+        loansService.postPayments(loanPaymentDtos);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(250, loanPaymentRepository.count());
+        assertTrue(statements < 20, "payments were not batched, " + statements + " statements prepared");
+    }
+
+    @Test
+    void rejectsPaymentsExceedingTheOutstandingAmountOrForUnknownLoans() {
+        loansService.postPayments(List.of(new LoanPaymentDto(LOAN_NUMBER, TOTAL_LOAN - 100)));
+
+        assertThrows(LoanPaymentRejectedException.class, () -> loansService.postPayments(
+                List.of(new LoanPaymentDto(LOAN_NUMBER, 60), new LoanPaymentDto(LOAN_NUMBER, 60))));
+        assertThrows(ResourceNotFoundException.class, () -> loansService.postPayments(
+                List.of(new LoanPaymentDto("999999999999", 1))));
+        assertEquals(1, loanPaymentRepository.count());
+    }
+
+    @Test
+    void updateMovesTheOutstandingAmountWithTheTotalLoanAndKeepsPayments() {
+        loansService.postPayments(List.of(new LoanPaymentDto(LOAN_NUMBER, 1000)));
+        compactor.compact();
+        loansService.postPayments(List.of(new LoanPaymentDto(LOAN_NUMBER, 500)));
+
+        LoansDto update = new LoansDto();
+        update.setMobileNumber("2000000000");
+        update.setLoanNumber(LOAN_NUMBER);
+        update.setLoanType("Car Loan");
+        update.setTotalLoan(TOTAL_LOAN + 5000);
+        loansService.updateLoan(update);
+
+        LoansDto loansDto = loansService.fetchLoan("2000000000").orElseThrow();
+        assertEquals("Car Loan", loansDto.getLoanType());
+        assertEquals(TOTAL_LOAN + 5000, loansDto.getTotalLoan());
+        assertEquals(1500, loansDto.getAmountPaid());
+        assertEquals(TOTAL_LOAN + 5000 - 1500, loansDto.getOutstandingAmount());
+        assertEquals(List.of(new LoanPortfolioDto("Car Loan", 1, TOTAL_LOAN + 5000, TOTAL_LOAN + 5000 - 1500),
+                new LoanPortfolioDto("Home Loan", 1, TOTAL_LOAN, TOTAL_LOAN)), loanPortfolio.portfolio());
+    }
+
+    @Test
+    void listsPagesAndExportsTheSameLoansIncludingUncompactedPayments() {
+        loansService.postPayments(List.of(new LoanPaymentDto(OTHER_LOAN_NUMBER, 300)));
+
+        LoansPageDto first = loansService.listLoans(0, 1);
+        LoansPageDto second = loansService.listLoans(first.getNextCursor(), 1);
+        List<LoansDto> exported = new ArrayList<>();
+        loansService.exportLoans(exported::add);
+
+        assertEquals(List.of(LOAN_NUMBER), first.getLoans().stream().map(LoansDto::getLoanNumber).toList());
+        assertEquals(List.of(OTHER_LOAN_NUMBER), second.getLoans().stream().map(LoansDto::getLoanNumber).toList());
+        assertNull(second.getNextCursor());
+        assertEquals(300, second.getLoans().get(0).getAmountPaid());
+        assertEquals(List.of(first.getLoans().get(0), second.getLoans().get(0)), exported);
+        assertEquals(loansService.listLoans(0, 1000).getLoans(), exported);
+    }
+
+    private static <T extends Repository<S, ID>, S, ID> T repository(
+            Class<T> repositoryInterface, EntityManager entityManager, DefaultListableBeanFactory beanFactory) {
+        // the factory bean, unlike a bare JpaRepositoryFactory, honours the @Transactional of the modifying queries
+        JpaRepositoryFactoryBean<T, S, ID> repositoryFactoryBean = new JpaRepositoryFactoryBean<>(repositoryInterface);
+        repositoryFactoryBean.setEntityManager(entityManager);
+        repositoryFactoryBean.setBeanFactory(beanFactory);
+        repositoryFactoryBean.setEntityPathResolver(beanFactory.getBeanProvider(EntityPathResolver.class));
+        repositoryFactoryBean.afterPropertiesSet();
+        return repositoryFactoryBean.getObject();
+    }
+}